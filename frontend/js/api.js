@@ -123,6 +123,26 @@ const portfolioAPI = {
 
     getWorstPerformer: async () => {
         return await api.get('/portfolio/worst-performer');
+    },
+
+    getDashboard: async (sections, symbols = []) => {
+        const params = new URLSearchParams();
+        if (sections && sections.length > 0) {
+            params.set('sections', sections.join(','));
+        }
+        if (symbols && symbols.length > 0) {
+            params.set('symbols', symbols.join(','));
+        }
+        const query = params.toString();
+        return await api.get(`/portfolio/dashboard${query ? `?${query}` : ''}`);
+    },
+
+    // Live valuation pushed by the backend; onValuation receives each parsed event
+    openStream: (onValuation) => {
+        const source = new EventSource(`${API_BASE_URL}/portfolio/stream`);
+        source.addEventListener('valuation', (event) => onValuation(JSON.parse(event.data)));
+        source.onerror = (error) => console.error('Portfolio stream error:', error);
+        return source;
     }
 };
 
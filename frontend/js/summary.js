@@ -1,15 +1,30 @@
 // Portfolio Summary JavaScript
 
 let currentHistoricalChart = null;
+let portfolioStream = null;
 
-// Load summary when page loads
+// Load the whole dashboard with one request when the page loads, then follow live updates
 document.addEventListener('DOMContentLoaded', () => {
-    loadSummary();
-    loadDiversificationSuggestions();
-    populateStockSelector();
+    loadDashboard();
+    portfolioStream = portfolioAPI.openStream(handleValuationUpdate);
 });
 
-async function loadSummary() {
+window.addEventListener('beforeunload', () => {
+    if (portfolioStream) {
+        portfolioStream.close();
+    }
+});
+
+// Totals and composition change with every price move; the rest of the page is refreshed on demand
+function handleValuationUpdate(update) {
+    if (!update.totals || document.getElementById('summary-container').style.display === 'none') {
+        return;
+    }
+    displaySummaryMetrics(update.totals);
+    displayComposition(update.totals.compositionByAssetType);
+}
+
+async function loadDashboard() {
     const loadingElement = document.getElementById('loading');
     const errorElement = document.getElementById('error');
     const summaryContainer = document.getElementById('summary-container');
@@ -20,22 +35,27 @@ async function loadSummary() {
         errorElement.style.display = 'none';
         summaryContainer.style.display = 'none';
 
-        // Fetch summary data
-        const summary = await portfolioAPI.getSummary();
+        // Summary, performers, diversification and holdings come from one valuation on the backend
+        const dashboard = await portfolioAPI.getDashboard(
+            ['summary', 'bestPerformer', 'worstPerformer', 'diversification', 'holdings']
+        );
 
         // Hide loading
         loadingElement.style.display = 'none';
 
         // Display summary
-        displaySummaryMetrics(summary);
-        displayComposition(summary.compositionByAssetType);
-        await loadPerformers();
+        displaySummaryMetrics(dashboard.summary);
+        displayComposition(dashboard.summary.compositionByAssetType);
+        displayPerformers(dashboard.bestPerformer, dashboard.worstPerformer);
+        displayDiversificationSuggestions(dashboard.diversification);
+        populateStockSelector(dashboard.holdings || []);
 
         summaryContainer.style.display = 'block';
 
     } catch (error) {
-        console.error('Error loading summary:', error);
+        console.error('Error loading dashboard:', error);
         loadingElement.style.display = 'none';
+        document.getElementById('diversification-loading').style.display = 'none';
         errorElement.textContent = 'Failed to load portfolio summary. Please make sure the backend server is running.';
         errorElement.style.display = 'block';
     }
@@ -124,21 +144,9 @@ function displayComposition(composition) {
     });
 }
 
-async function loadPerformers() {
-    try {
-        // Load best performer
-        const bestPerformer = await portfolioAPI.getBestPerformer();
-        displayPerformer('best-performer', bestPerformer);
-
-        // Load worst performer
-        const worstPerformer = await portfolioAPI.getWorstPerformer();
-        displayPerformer('worst-performer', worstPerformer);
-
-    } catch (error) {
-        console.error('Error loading performers:', error);
-        document.getElementById('best-performer').innerHTML = '<p>No data available</p>';
-        document.getElementById('worst-performer').innerHTML = '<p>No data available</p>';
-    }
+function displayPerformers(bestPerformer, worstPerformer) {
+    displayPerformer('best-performer', bestPerformer);
+    displayPerformer('worst-performer', worstPerformer);
 }
 
 function displayPerformer(elementId, holding) {
@@ -161,18 +169,17 @@ function displayPerformer(elementId, holding) {
     `;
 }
 
-async function loadDiversificationSuggestions() {
+function displayDiversificationSuggestions(data) {
     const container = document.getElementById('diversification-content');
     const loading = document.getElementById('diversification-loading');
 
     try {
-        loading.style.display = 'block';
-
-        const response = await fetch('http://localhost:8081/api/portfolio/diversification');
-        const data = await response.json();
-
         loading.style.display = 'none';
 
+        if (!data) {
+            throw new Error('Diversification section missing from dashboard response');
+        }
+
         // Display risk level badge
         let riskBadgeClass = 'risk-moderate';
         if (data.riskLevel === 'Low') riskBadgeClass = 'risk-low';
@@ -204,9 +211,8 @@ async function loadDiversificationSuggestions() {
     }
 }
 
-async function populateStockSelector() {
+function populateStockSelector(holdings) {
     try {
-        const holdings = await holdingsAPI.getAll();
         const assetSelector = document.getElementById('asset-selector');
 
         // Filter stocks and mutual funds
@@ -257,7 +263,11 @@ async function loadHistoricalChart() {
         noDataMsg.style.display = 'block';
         chartContainer.style.display = 'none';
 
-        const response = await fetch(`http://localhost:8081/api/historical/${encodeURIComponent(symbol)}`);
+        // about one point per two pixels is all the chart can show; the backend downsamples the rest
+        const maxPoints = Math.max(100, Math.round(chartContainer.clientWidth / 2) || 400);
+        const historyUrl = `http://localhost:8081/api/historical/${encodeURIComponent(symbol)}?maxPoints=${maxPoints}`;
+
+        const response = await fetch(historyUrl);
         if (!response.ok) {
             throw new Error('Failed to fetch historical data from backend');
         }
@@ -278,7 +288,7 @@ async function loadHistoricalChart() {
             }
 
             await new Promise(resolve => setTimeout(resolve, 1200));
-            const retryResponse = await fetch(`http://localhost:8081/api/historical/${encodeURIComponent(symbol)}`);
+            const retryResponse = await fetch(historyUrl);
             if (!retryResponse.ok) {
                 throw new Error('Failed to re-fetch historical data after requesting external API');
             }
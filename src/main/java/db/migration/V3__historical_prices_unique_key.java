@@ -0,0 +1,67 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ensures the {@code (symbol, price_date)} unique key that the historical price upsert
+ * relies on. Databases adopted by the baseline at V1 never ran V1's CREATE TABLE, so
+ * they may lack the key and hold duplicate days from before the upsert. For those the
+ * duplicates are removed, keeping the most recently inserted row of each day, and the
+ * key is added. On a schema created by V1 the key already exists and nothing changes.
+ * Written in Java because neither MySQL nor H2 in MySQL mode can add a constraint
+ * only when it is missing in plain SQL.
+ */
+public class V3__historical_prices_unique_key extends BaseJavaMigration {
+
+    private static final String TABLE = "historical_prices";
+
+    // the derived table lets MySQL delete from the table the subquery reads
+    private static final String DELETE_DUPLICATES =
+            "DELETE FROM historical_prices WHERE id NOT IN ("
+                    + "SELECT keep_id FROM (SELECT MAX(id) AS keep_id FROM historical_prices "
+                    + "GROUP BY symbol, price_date) latest)";
+
+    private static final String ADD_UNIQUE_KEY =
+            "ALTER TABLE historical_prices ADD CONSTRAINT uk_historical_prices_symbol_date UNIQUE (symbol, price_date)";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (hasSymbolDateKey(connection)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            int removed = statement.executeUpdate(DELETE_DUPLICATES);
+            statement.executeUpdate(ADD_UNIQUE_KEY);
+            System.out.println("Removed " + removed + " duplicate historical price rows before adding uk_historical_prices_symbol_date");
+        }
+    }
+
+    private static boolean hasSymbolDateKey(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        Map<String, Set<String>> uniqueIndexes = new HashMap<>();
+        for (String table : new String[]{TABLE, TABLE.toUpperCase()}) {
+            try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+                while (rows.next()) {
+                    String index = rows.getString("INDEX_NAME");
+                    String column = rows.getString("COLUMN_NAME");
+                    if (index != null && column != null && !rows.getBoolean("NON_UNIQUE")) {
+                        uniqueIndexes.computeIfAbsent(index, key -> new HashSet<>()).add(column.toLowerCase());
+                    }
+                }
+            }
+        }
+        return uniqueIndexes.containsValue(Set.of("symbol", "price_date"));
+    }
+}
@@ -0,0 +1,50 @@
+package org.jdbc.portfoliomanagement.config;
+
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the live connection pool gauges Reactor Netty reports for every remote
+ * host. Registered on the shared ConnectionProvider so pool usage can be inspected
+ * without pulling in Micrometer.
+ */
+@Component
+public class HttpClientPoolMetrics implements ConnectionProvider.MeterRegistrar {
+
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        pools.put(key(poolName, remoteAddress), metrics);
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        pools.remove(key(poolName, remoteAddress));
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> result = new TreeMap<>();
+        pools.forEach((key, metrics) -> {
+            Map<String, Object> pool = new TreeMap<>();
+            pool.put("acquired", metrics.acquiredSize());
+            pool.put("allocated", metrics.allocatedSize());
+            pool.put("idle", metrics.idleSize());
+            pool.put("pendingAcquire", metrics.pendingAcquireSize());
+            pool.put("maxAllocated", metrics.maxAllocatedSize());
+            pool.put("maxPendingAcquire", metrics.maxPendingAcquireSize());
+            result.put(key, pool);
+        });
+        return result;
+    }
+
+    private String key(String poolName, SocketAddress remoteAddress) {
+        return poolName + " -> " + remoteAddress;
+    }
+}
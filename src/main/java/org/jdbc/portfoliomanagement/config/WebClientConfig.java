@@ -0,0 +1,111 @@
+package org.jdbc.portfoliomanagement.config;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound HTTP clients for the upstream market data APIs. All clients share one
+ * pooled Reactor Netty ConnectionProvider (pools are kept per remote host, so the
+ * connection limits below apply per upstream) and differ only in their response
+ * timeout.
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Value("${http.client.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${http.client.read-timeout-ms:15000}")
+    private long readTimeoutMs;
+
+    @Value("${http.client.write-timeout-ms:10000}")
+    private long writeTimeoutMs;
+
+    @Value("${http.client.max-in-memory-size:16777216}")
+    private int maxInMemorySize;
+
+    @Value("${http.client.pool.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${http.client.pool.pending-acquire-max-count:500}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${http.client.pool.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${http.client.pool.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${http.client.pool.max-life-time-ms:300000}")
+    private long maxLifeTimeMs;
+
+    @Value("${http.client.pool.evict-in-background-ms:60000}")
+    private long evictInBackgroundMs;
+
+    @Value("${http.client.yahoo.response-timeout-ms:10000}")
+    private long yahooResponseTimeoutMs;
+
+    @Value("${http.client.mfapi.response-timeout-ms:20000}")
+    private long mfapiResponseTimeoutMs;
+
+    @Value("${http.client.exchangerate.response-timeout-ms:5000}")
+    private long exchangeRateResponseTimeoutMs;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider outboundConnectionProvider(HttpClientPoolMetrics poolMetrics) {
+        return ConnectionProvider.builder("outbound")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(evictInBackgroundMs))
+                .metrics(true, () -> poolMetrics)
+                .build();
+    }
+
+    @Bean
+    public WebClient yahooWebClient(@Qualifier("outboundConnectionProvider") ConnectionProvider connectionProvider) {
+        return buildWebClient(connectionProvider, yahooResponseTimeoutMs);
+    }
+
+    @Bean
+    public WebClient mfapiWebClient(@Qualifier("outboundConnectionProvider") ConnectionProvider connectionProvider) {
+        return buildWebClient(connectionProvider, mfapiResponseTimeoutMs);
+    }
+
+    @Bean
+    public WebClient exchangeRateWebClient(@Qualifier("outboundConnectionProvider") ConnectionProvider connectionProvider) {
+        return buildWebClient(connectionProvider, exchangeRateResponseTimeoutMs);
+    }
+
+    private WebClient buildWebClient(ConnectionProvider connectionProvider, long responseTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .compress(true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                // per-request handlers: Reactor Netty removes them when the connection returns to the pool
+                .doOnRequest((request, connection) -> connection
+                        .addHandlerLast(new ReadTimeoutHandler(readTimeoutMs, TimeUnit.MILLISECONDS))
+                        .addHandlerLast(new WriteTimeoutHandler(writeTimeoutMs, TimeUnit.MILLISECONDS)));
+
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(maxInMemorySize))
+                .build();
+    }
+}
@@ -1,14 +1,36 @@
 package org.jdbc.portfoliomanagement.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.jdbc.portfoliomanagement.config.HttpClientPoolMetrics;
 import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
 import org.jdbc.portfoliomanagement.entity.Holding;
 import org.jdbc.portfoliomanagement.service.HistoricalPriceService;
+import org.jdbc.portfoliomanagement.service.HoldingExportService;
+import org.jdbc.portfoliomanagement.service.HoldingImportService;
+import org.jdbc.portfoliomanagement.service.HoldingPageService;
 import org.jdbc.portfoliomanagement.service.HoldingService;
+import org.jdbc.portfoliomanagement.service.PerformanceIndex;
+import org.jdbc.portfoliomanagement.service.PortfolioHistoryService;
+import org.jdbc.portfoliomanagement.service.PortfolioStream;
+import org.jdbc.portfoliomanagement.service.PriceDownsampler;
+import org.jdbc.portfoliomanagement.service.PriceRefresher;
+import org.jdbc.portfoliomanagement.service.RiskAnalyticsService;
+import org.jdbc.portfoliomanagement.service.ValueAtRiskService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,16 +39,90 @@ import java.util.Map;
 @RequestMapping("/api")
 public class HoldingController {
 
+    private static final int MAX_PERFORMERS = 100;
+
     @Autowired
     private HoldingService holdingService;
 
     @Autowired
     private HistoricalPriceService historicalPriceService;
 
+    @Autowired
+    private HoldingImportService holdingImportService;
+
+    @Autowired
+    private HoldingExportService holdingExportService;
+
+    @Autowired
+    private HoldingPageService holdingPageService;
+
+    @Autowired
+    private PortfolioHistoryService portfolioHistoryService;
+
+    @Autowired
+    private RiskAnalyticsService riskAnalyticsService;
+
+    @Autowired
+    private ValueAtRiskService valueAtRiskService;
+
+    @Autowired
+    private HttpClientPoolMetrics httpClientPoolMetrics;
+
+    @Autowired
+    private PriceRefresher priceRefresher;
+
+    @Autowired
+    private PortfolioStream portfolioStream;
+
     @GetMapping("/holdings")
-    public ResponseEntity<List<Holding>> getAllHoldings() {
-        List<Holding> holdings = holdingService.getAllHoldings();
-        return ResponseEntity.ok(holdings);
+    public Mono<ResponseEntity<List<Holding>>> getAllHoldings() {
+        return holdingService.getAllHoldingsAsync()
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * One page of holdings, filtered and sorted on persisted columns. Only the returned
+     * rows are valued; follow {@code nextCursor} for the next page.
+     */
+    @GetMapping("/holdings/page")
+    public ResponseEntity<HoldingPageService.HoldingPage> getHoldingsPage(
+            @RequestParam(value = "assetType", required = false) String assetType,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "symbol", required = false) String symbolPrefix,
+            @RequestParam(value = "sort", defaultValue = "id") String sort,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + HoldingPageService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(holdingPageService.getHoldings(assetType, category, symbolPrefix,
+                    sort, direction, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * All holdings, valued, streamed as CSV or NDJSON straight to the response without
+     * materializing the portfolio in memory.
+     */
+    @GetMapping("/holdings/export")
+    public ResponseEntity<StreamingResponseBody> exportHoldings(
+            @RequestParam(value = "format", defaultValue = "csv") String format) {
+        String resolved = format.trim().toLowerCase();
+        MediaType contentType;
+        if (HoldingExportService.FORMAT_CSV.equals(resolved)) {
+            contentType = MediaType.parseMediaType("text/csv");
+        } else if (HoldingExportService.FORMAT_NDJSON.equals(resolved)) {
+            contentType = MediaType.APPLICATION_NDJSON;
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = output -> holdingExportService.exportHoldings(resolved, output);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"holdings." + resolved + "\"")
+                .body(body);
     }
 
     @GetMapping("/holdings/{id}")
@@ -38,29 +134,65 @@ public class HoldingController {
 
     @PostMapping("/holdings")
     public ResponseEntity<Holding> createHolding(@RequestBody Holding holding) {
-        Holding created = holdingService.createHolding(holding);
+        Holding created;
+        try {
+            created = holdingService.createHolding(holding);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
 
         try {
             String Symbol = created.getSymbol();
             String assetType = created.getAssetType();
 
-            List<HistoricalPrice> existingData = historicalPriceService.getHistoricalPrices(Symbol);
-            if (existingData.isEmpty()) {
-                historicalPriceService.fetchAndStoreHistoricalData(Symbol, assetType);
-            } else {
-                System.out.println("Historical data for symbol " + Symbol + " already exists. Skipping fetch.");
-            }
+            // fetched in the background so the request thread is not held on the upstream call;
+            // only the days after the latest stored price are requested
+            historicalPriceService.fetchAndStoreHistoricalDataAsync(Symbol, assetType).subscribe();
         } catch(Exception e) {
             System.err.println("Error fetching historical data: " + e.getMessage());
         }
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Bulk import from a CSV (with a header row) or NDJSON request body. The format is
+     * taken from the {@code format} parameter, or else from the content type. The body is
+     * streamed, not buffered; the response reports imported and failed rows.
+     */
+    @PostMapping(value = "/holdings/import", consumes = {"text/csv", "application/x-ndjson", "text/plain"})
+    public ResponseEntity<HoldingImportService.ImportReport> importHoldings(
+            @RequestParam(value = "format", required = false) String format,
+            HttpServletRequest request) throws IOException {
+        String resolved = format != null ? format.trim().toLowerCase() : importFormat(request.getContentType());
+        if (!HoldingImportService.FORMAT_CSV.equals(resolved) && !HoldingImportService.FORMAT_NDJSON.equals(resolved)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(holdingImportService.importHoldings(request.getInputStream(), resolved));
+    }
+
+    private static String importFormat(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String type = contentType.toLowerCase();
+        if (type.startsWith("text/csv")) {
+            return HoldingImportService.FORMAT_CSV;
+        }
+        if (type.startsWith("application/x-ndjson")) {
+            return HoldingImportService.FORMAT_NDJSON;
+        }
+        return null;
+    }
+
     @PutMapping("/holdings/{id}")
     public ResponseEntity<Holding> updateHolding(@PathVariable("id") Long id, @RequestBody Holding holding) {
-        return holdingService.updateHolding(id, holding)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        try {
+            return holdingService.updateHolding(id, holding)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/holdings/{id}")
@@ -83,10 +215,40 @@ public class HoldingController {
         return ResponseEntity.ok("Holding Service is up and running!");
     }
 
+    @GetMapping("/quotes/cache/stats")
+    public ResponseEntity<Map<String, Object>> getQuoteCacheStats() {
+        return ResponseEntity.ok(holdingService.getQuoteCacheStats());
+    }
+
+    @GetMapping("/quotes/refresh/status")
+    public ResponseEntity<Map<String, Object>> getQuoteRefreshStatus() {
+        return ResponseEntity.ok(priceRefresher.getStatus());
+    }
+
+    @GetMapping("/http/pool-metrics")
+    public ResponseEntity<Map<String, Object>> getHttpPoolMetrics() {
+        return ResponseEntity.ok(httpClientPoolMetrics.getMetrics());
+    }
+
+    /**
+     * Stored price history. {@code from}/{@code to} (ISO dates) limit the range and
+     * {@code maxPoints} downsamples the series for charting; without them the full
+     * series is returned.
+     */
     @GetMapping("/historical/{symbol}")
-    public ResponseEntity<List<HistoricalPrice>> getHistoricalPrices(@PathVariable("symbol") String symbol) {
-        List<HistoricalPrice> prices = historicalPriceService.getHistoricalPrices(symbol);
-        return ResponseEntity.ok(prices);
+    public ResponseEntity<List<HistoricalPrice>> getHistoricalPrices(
+            @PathVariable("symbol") String symbol,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "maxPoints", required = false) Integer maxPoints) {
+        if (from == null && to == null && maxPoints == null) {
+            return ResponseEntity.ok(historicalPriceService.getHistoricalPrices(symbol));
+        }
+        if ((from != null && to != null && from.isAfter(to))
+                || (maxPoints != null && maxPoints < PriceDownsampler.MIN_POINTS)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(historicalPriceService.getHistoricalPrices(symbol, from, to, maxPoints));
     }
 
     @PostMapping("/historical/fetch")
@@ -98,9 +260,101 @@ public class HoldingController {
     }
 
     @GetMapping("/portfolio/summary")
-    public ResponseEntity<Map<String, Object>> getPortfolioSummary() {
-        Map<String, Object> summary = holdingService.getPortfolioSummary();
-        return ResponseEntity.ok(summary);
+    public Mono<ResponseEntity<Map<String, Object>>> getPortfolioSummary() {
+        return holdingService.getPortfolioSummaryAsync()
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Total portfolio value in INR per day from stored price history, as aligned
+     * {@code dates}/{@code values} arrays. Defaults to the year up to today.
+     */
+    @GetMapping("/portfolio/history")
+    public ResponseEntity<Map<String, Object>> getPortfolioHistory(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(portfolioHistoryService.getPortfolioHistory(start, end));
+    }
+
+    /**
+     * Volatility, beta, Sharpe ratio and (with {@code matrix=true}) the covariance
+     * matrix of the holdings, from stored daily returns.
+     */
+    @GetMapping("/portfolio/risk")
+    public ResponseEntity<Map<String, Object>> getPortfolioRisk(
+            @RequestParam(value = "matrix", defaultValue = "false") boolean includeMatrix) {
+        return ResponseEntity.ok(riskAnalyticsService.getRiskAnalytics(LocalDate.now(), includeMatrix));
+    }
+
+    /**
+     * Monte Carlo VaR and CVaR at 95% and 99%. {@code paths}, {@code horizon} (days,
+     * repeatable) and {@code seed} override the configured defaults; a fixed seed
+     * reproduces the result. Values cover the holdings with enough history; the rest
+     * are listed under {@code excluded}.
+     */
+    @GetMapping("/portfolio/var")
+    public ResponseEntity<Map<String, Object>> getValueAtRisk(
+            @RequestParam(value = "paths", required = false) Integer paths,
+            @RequestParam(value = "horizon", required = false) List<Integer> horizons,
+            @RequestParam(value = "seed", required = false) Long seed) {
+        try {
+            return ResponseEntity.ok(valueAtRiskService.getValueAtRisk(LocalDate.now(), paths, horizons, seed));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Live valuation as Server-Sent Events: the current totals on connect, then a
+     * "valuation" event with changed holdings and updated totals whenever quotes move.
+     */
+    @GetMapping(value = "/portfolio/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPortfolio() {
+        return portfolioStream.subscribe();
+    }
+
+    /**
+     * Everything the summary page needs in one response: the requested analytics
+     * sections, all computed from one valuation, plus stored price history for the
+     * given symbols.
+     */
+    @GetMapping("/portfolio/dashboard")
+    public Mono<ResponseEntity<Map<String, Object>>> getDashboard(
+            @RequestParam(value = "sections", required = false) List<String> sections,
+            @RequestParam(value = "symbols", required = false) List<String> symbols) {
+        Mono<Map<String, List<HistoricalPrice>>> history = Flux.fromIterable(symbols == null ? List.<String>of() : symbols)
+                .map(String::trim)
+                .filter(symbol -> !symbol.isEmpty())
+                .distinct()
+                .flatMapSequential(symbol -> historicalPriceService.getHistoricalPricesAsync(symbol)
+                        .map(prices -> Map.entry(symbol, prices)))
+                .<Map<String, List<HistoricalPrice>>>collect(LinkedHashMap::new, (map, entry) -> map.put(entry.getKey(), entry.getValue()));
+
+        return Mono.zip(holdingService.getDashboardAsync(sections), history)
+                .map(tuple -> {
+                    Map<String, Object> dashboard = new LinkedHashMap<>(tuple.getT1());
+                    if (!tuple.getT2().isEmpty()) {
+                        dashboard.put("history", tuple.getT2());
+                    }
+                    return ResponseEntity.ok(dashboard);
+                });
+    }
+
+    @GetMapping("/portfolio/performers")
+    public ResponseEntity<Map<String, Object>> getPerformers(
+            @RequestParam(value = "top", defaultValue = "5") int top,
+            @RequestParam(value = "bottom", defaultValue = "5") int bottom,
+            @RequestParam(value = "by", defaultValue = "pct") String by) {
+        if (top < 0 || bottom < 0 || top > MAX_PERFORMERS || bottom > MAX_PERFORMERS
+                || !(PerformanceIndex.BY_PERCENTAGE.equals(by) || PerformanceIndex.BY_ABSOLUTE.equals(by))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(holdingService.getPerformers(top, bottom, by));
     }
 
     @GetMapping("/portfolio/best-performer")
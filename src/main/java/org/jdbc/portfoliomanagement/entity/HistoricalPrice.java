@@ -5,7 +5,8 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "historical_prices")
+@Table(name = "historical_prices",
+        uniqueConstraints = @UniqueConstraint(name = "uk_historical_prices_symbol_date", columnNames = {"symbol", "price_date"}))
 public class HistoricalPrice {
 
     @Id
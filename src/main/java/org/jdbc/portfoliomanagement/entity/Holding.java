@@ -7,17 +7,25 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "holdings")
+@Table(name = "holdings", indexes = {
+        @Index(name = "idx_holdings_symbol", columnList = "symbol"),
+        @Index(name = "idx_holdings_asset_type_symbol_category", columnList = "asset_type, symbol, category"),
+        @Index(name = "idx_holdings_category", columnList = "category")})
 public class Holding {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(nullable = false)
     private String assetType;
+    @Column(nullable = false)
     private String symbol;
+    @Column(nullable = false)
     private BigDecimal quantity;
+    @Column(nullable = false)
     private BigDecimal purchasePrice;
     private LocalDate purchaseDate;
+    @Column(nullable = false)
     private LocalDateTime createdAt;
     private String category;
 
@@ -3,13 +3,16 @@ package org.jdbc.portfoliomanagement.repository;
 
 import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface HistoricalPriceRepository extends JpaRepository<HistoricalPrice, Long> {
+public interface HistoricalPriceRepository extends JpaRepository<HistoricalPrice, Long>, HistoricalPriceUpsertRepository {
 
     // Find all historical prices for a symbol
     List<HistoricalPrice> findBySymbolOrderByPriceDateAsc(String symbol);
@@ -17,4 +20,16 @@ public interface HistoricalPriceRepository extends JpaRepository<HistoricalPrice
     // Find historical prices for a symbol within date range
     List<HistoricalPrice> findBySymbolAndPriceDateBetweenOrderByPriceDateAsc(
             String symbol, LocalDate startDate, LocalDate endDate);
+
+    // Latest stored date for a symbol, null if none
+    @Query("SELECT MAX(h.priceDate) FROM HistoricalPrice h WHERE h.symbol = :symbol")
+    LocalDate findLatestPriceDate(@Param("symbol") String symbol);
+
+    // Symbols among the given ones that have at least one stored price
+    @Query("SELECT DISTINCT h.symbol FROM HistoricalPrice h WHERE h.symbol IN :symbols")
+    List<String> findSymbolsWithHistory(@Param("symbols") Collection<String> symbols);
+
+    // (priceDate, price) pairs in date order, without hydrating entities
+    @Query("SELECT h.priceDate, h.price FROM HistoricalPrice h WHERE h.symbol = :symbol ORDER BY h.priceDate")
+    List<Object[]> findPriceSeries(@Param("symbol") String symbol);
 }
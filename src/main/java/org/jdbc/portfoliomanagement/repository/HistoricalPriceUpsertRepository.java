@@ -0,0 +1,21 @@
+package org.jdbc.portfoliomanagement.repository;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+
+import java.util.Collection;
+
+/**
+ * Bulk write path for {@link HistoricalPrice} rows, mixed into
+ * {@link HistoricalPriceRepository}.
+ */
+public interface HistoricalPriceUpsertRepository {
+
+    /**
+     * Inserts the prices, or updates the stored price where a row for the same
+     * (symbol, price_date) already exists. Rows are sent in JDBC batches, so a large
+     * backfill takes a handful of round trips. Returns the number of prices written.
+     * Relies on the uk_historical_prices_symbol_date key, which the V1 and V3
+     * migrations guarantee on new and existing databases alike.
+     */
+    int upsertAll(Collection<HistoricalPrice> prices);
+}
@@ -0,0 +1,67 @@
+package org.jdbc.portfoliomanagement.repository;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class HistoricalPriceUpsertRepositoryImpl implements HistoricalPriceUpsertRepository {
+
+    private static final String MYSQL_UPSERT =
+            "INSERT INTO historical_prices (symbol, price_date, price) VALUES (?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE price = VALUES(price)";
+
+    private static final String H2_UPSERT =
+            "MERGE INTO historical_prices (symbol, price_date, price) KEY (symbol, price_date) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${historical.upsert.batch-size:500}")
+    private int batchSize;
+
+    private volatile String upsertSql;
+
+    @Override
+    @Transactional
+    public int upsertAll(Collection<HistoricalPrice> prices) {
+        // the last price wins when the input repeats a (symbol, date) pair
+        Map<String, HistoricalPrice> unique = new LinkedHashMap<>();
+        for (HistoricalPrice price : prices) {
+            if (price.getSymbol() != null && price.getPriceDate() != null && price.getPrice() != null) {
+                unique.put(price.getSymbol() + "|" + price.getPriceDate(), price);
+            }
+        }
+        if (unique.isEmpty()) {
+            return 0;
+        }
+
+        List<HistoricalPrice> rows = new ArrayList<>(unique.values());
+        jdbcTemplate.batchUpdate(upsertSql(), rows, Math.max(1, batchSize), (ps, price) -> {
+            ps.setString(1, price.getSymbol());
+            ps.setDate(2, Date.valueOf(price.getPriceDate()));
+            ps.setBigDecimal(3, price.getPrice());
+        });
+        return rows.size();
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            sql = product != null && product.toLowerCase().contains("h2") ? H2_UPSERT : MYSQL_UPSERT;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,18 @@
+package org.jdbc.portfoliomanagement.repository;
+
+import org.jdbc.portfoliomanagement.entity.Holding;
+
+import java.util.List;
+
+/**
+ * Bulk write path for {@link Holding} rows, mixed into {@link HoldingRepository}.
+ */
+public interface HoldingBatchRepository {
+
+    /**
+     * Inserts the holdings with one JDBC batch instead of one INSERT per entity. Their
+     * generated ids and creation time are set on the given objects, which are not
+     * managed afterwards.
+     */
+    int insertAll(List<Holding> holdings);
+}
@@ -0,0 +1,70 @@
+package org.jdbc.portfoliomanagement.repository;
+
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+class HoldingBatchRepositoryImpl implements HoldingBatchRepository {
+
+    private static final String INSERT =
+            "INSERT INTO holdings (asset_type, symbol, quantity, purchase_price, purchase_date, created_at, category) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int insertAll(List<Holding> holdings) {
+        if (holdings.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Holding holding = holdings.get(i);
+                        ps.setString(1, holding.getAssetType());
+                        ps.setString(2, holding.getSymbol());
+                        ps.setBigDecimal(3, holding.getQuantity());
+                        ps.setBigDecimal(4, holding.getPurchasePrice());
+                        if (holding.getPurchaseDate() != null) {
+                            ps.setDate(5, Date.valueOf(holding.getPurchaseDate()));
+                        } else {
+                            ps.setNull(5, Types.DATE);
+                        }
+                        ps.setTimestamp(6, Timestamp.valueOf(createdAt));
+                        ps.setString(7, holding.getCategory());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return holdings.size();
+                    }
+                }, keys);
+
+        // one key row per inserted row, in batch order; drivers name the column differently
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < holdings.size() && i < keyList.size(); i++) {
+            Holding holding = holdings.get(i);
+            holding.setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+            holding.setCreatedAt(createdAt);
+        }
+        return holdings.size();
+    }
+}
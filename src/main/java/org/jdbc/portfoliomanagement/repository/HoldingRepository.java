@@ -1,18 +1,40 @@
 package org.jdbc.portfoliomanagement.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.jdbc.portfoliomanagement.entity.Holding;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface HoldingRepository extends JpaRepository<Holding, Long> {
+public interface HoldingRepository extends JpaRepository<Holding, Long>, JpaSpecificationExecutor<Holding>,
+        HoldingBatchRepository {
     List<Holding> findByAssetType(String assetType);
     List<Holding> findBySymbol(String symbol);
 
     @Query("SELECT h.assetType, COUNT(h), SUM(h.quantity * h.purchasePrice) " +
             "FROM Holding h GROUP BY h.assetType")
     List<Object[]> findPortfolioComposition();
+
+    @Query("SELECT h.assetType, h.symbol, h.category, COUNT(h), SUM(h.quantity), SUM(h.quantity * h.purchasePrice) " +
+            "FROM Holding h GROUP BY h.assetType, h.symbol, h.category")
+    List<Object[]> findPositionTotals();
+
+    @Query("SELECT DISTINCT h.symbol, h.assetType FROM Holding h")
+    List<Object[]> findDistinctSymbolsAndAssetTypes();
+
+    // id, assetType, symbol, quantity, purchasePrice: what PerformanceIndex ranks on
+    @Query("SELECT h.id, h.assetType, h.symbol, h.quantity, h.purchasePrice FROM Holding h")
+    List<Object[]> findRankingFields();
+
+    // All holdings as a cursor-backed stream; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT h FROM Holding h ORDER BY h.id")
+    Stream<Holding> streamAllOrderById();
 }
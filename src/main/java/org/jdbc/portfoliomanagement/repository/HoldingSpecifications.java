@@ -0,0 +1,27 @@
+package org.jdbc.portfoliomanagement.repository;
+
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filters for the paginated holdings listing. Each one is a plain column comparison,
+ * so it can be served by an index on that column.
+ */
+public final class HoldingSpecifications {
+
+    private HoldingSpecifications() {
+    }
+
+    public static Specification<Holding> assetTypeEquals(String assetType) {
+        return (root, query, cb) -> cb.equal(root.get("assetType"), assetType);
+    }
+
+    public static Specification<Holding> categoryEquals(String category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    public static Specification<Holding> symbolStartsWith(String prefix) {
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("symbol"), pattern, '\\');
+    }
+}
@@ -0,0 +1,97 @@
+package org.jdbc.portfoliomanagement.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pairwise correlation of daily returns for a set of symbols, rows and columns in the
+ * order of {@link #getSymbols()}. Symbols without enough stored history have no row
+ * and are listed in {@link #getExcluded()}. Immutable, so one instance can be shared
+ * by every caller of the cache in {@link CorrelationService}.
+ */
+public final class CorrelationMatrix {
+
+    private final List<String> symbols;
+    private final double[][] correlation;
+    private final List<String> excluded;
+    private final int observations;
+    private final LocalDate from;
+
+    CorrelationMatrix(List<String> symbols, double[][] correlation, List<String> excluded, int observations, LocalDate from) {
+        this.symbols = List.copyOf(symbols);
+        this.correlation = correlation;
+        this.excluded = List.copyOf(excluded);
+        this.observations = observations;
+        this.from = from;
+    }
+
+    static CorrelationMatrix empty(List<String> excluded) {
+        return new CorrelationMatrix(List.of(), new double[0][], excluded, 0, null);
+    }
+
+    public List<String> getSymbols() {
+        return symbols;
+    }
+
+    public List<String> getExcluded() {
+        return excluded;
+    }
+
+    public int getObservations() {
+        return observations;
+    }
+
+    /**
+     * First day of the aligned returns, or null when no symbol had enough history.
+     */
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public double get(int i, int j) {
+        return correlation[i][j];
+    }
+
+    /**
+     * Groups of symbols linked by a chain of pairwise correlations at or above
+     * {@code threshold} (single linkage, by union-find), largest group first.
+     */
+    public List<List<String>> clusters(double threshold) {
+        int n = symbols.size();
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (correlation[i][j] >= threshold) {
+                    int rootI = find(parent, i);
+                    int rootJ = find(parent, j);
+                    if (rootI != rootJ) {
+                        // the lower index stays the root, so groups keep the symbols' order
+                        parent[Math.max(rootI, rootJ)] = Math.min(rootI, rootJ);
+                    }
+                }
+            }
+        }
+        Map<Integer, List<String>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            groups.computeIfAbsent(find(parent, i), key -> new ArrayList<>()).add(symbols.get(i));
+        }
+        List<List<String>> clusters = new ArrayList<>(groups.values());
+        clusters.sort((a, b) -> Integer.compare(b.size(), a.size()));
+        return clusters;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            // path halving
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
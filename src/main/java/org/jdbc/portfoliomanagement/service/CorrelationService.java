@@ -0,0 +1,110 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Return correlation matrices from stored price history, over the same look-back
+ * window and date alignment as {@link RiskAnalyticsService}. Matrices are cached per
+ * set of symbols for the day they were computed on; a
+ * {@link PriceHistoryUpdatedEvent} drops every cached matrix that contains one of the
+ * updated symbols, so repeated dashboard loads reuse the matrix until new history
+ * arrives.
+ */
+@Service
+public class CorrelationService {
+
+    private final ConcurrentHashMap<List<String>, CachedMatrix> cache = new ConcurrentHashMap<>();
+
+    // bumped on every invalidation, so a matrix computed from older history is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    private PriceSeriesStore priceSeriesStore;
+
+    @Value("${risk.lookback-days:365}")
+    private int lookbackDays;
+
+    @Value("${risk.min-observations:20}")
+    private int minObservations;
+
+    /**
+     * The correlation matrix of {@code symbols} as of {@code asOf}, rows in sorted
+     * symbol order.
+     */
+    public CorrelationMatrix getCorrelationMatrix(Collection<String> symbols, LocalDate asOf) {
+        List<String> key = List.copyOf(new TreeSet<>(symbols));
+        CachedMatrix cached = cache.get(key);
+        if (cached != null && cached.asOf.equals(asOf)) {
+            return cached.matrix;
+        }
+        long startGeneration = generation.get();
+        CorrelationMatrix matrix = compute(key, asOf);
+        if (generation.get() == startGeneration) {
+            // matrices from an earlier day are never read again
+            cache.values().removeIf(entry -> !entry.asOf.equals(asOf));
+            cache.put(key, new CachedMatrix(asOf, matrix));
+        }
+        return matrix;
+    }
+
+    @EventListener
+    public void onPriceHistoryUpdated(PriceHistoryUpdatedEvent event) {
+        generation.incrementAndGet();
+        cache.keySet().removeIf(key -> key.stream().anyMatch(event.getSymbols()::contains));
+    }
+
+    int cachedMatrixCount() {
+        return cache.size();
+    }
+
+    private CorrelationMatrix compute(List<String> symbols, LocalDate asOf) {
+        LocalDate start = asOf.minusDays(lookbackDays);
+        List<String> included = new ArrayList<>();
+        List<PriceSeries> windows = new ArrayList<>();
+        List<String> excluded = new ArrayList<>();
+        for (String symbol : symbols) {
+            PriceSeries window = priceSeriesStore.get(symbol).range(start, asOf);
+            if (window.size() > minObservations) {
+                included.add(symbol);
+                windows.add(window);
+            } else {
+                excluded.add(symbol);
+            }
+        }
+
+        RiskAnalyticsService.excludeLateStarters(included, windows, excluded);
+        int[] grid = RiskAnalyticsService.dateGrid(windows);
+        if (grid.length <= minObservations) {
+            excluded.addAll(included);
+            return CorrelationMatrix.empty(excluded);
+        }
+        double[][] returns = new double[included.size()][];
+        for (int i = 0; i < returns.length; i++) {
+            returns[i] = RiskEngine.returns(RiskAnalyticsService.alignOnGrid(windows.get(i), grid));
+        }
+        double[][] correlation = RiskEngine.correlation(RiskEngine.covariance(returns, ForkJoinPool.commonPool()));
+        return new CorrelationMatrix(included, correlation, excluded, grid.length - 1, LocalDate.ofEpochDay(grid[0]));
+    }
+
+    private static final class CachedMatrix {
+        private final LocalDate asOf;
+        private final CorrelationMatrix matrix;
+
+        CachedMatrix(LocalDate asOf, CorrelationMatrix matrix) {
+            this.asOf = asOf;
+            this.matrix = matrix;
+        }
+    }
+}
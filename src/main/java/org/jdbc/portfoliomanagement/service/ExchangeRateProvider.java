@@ -0,0 +1,88 @@
+package org.jdbc.portfoliomanagement.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Holds the latest USD to INR rate in memory and refreshes it in the background.
+ * Reads never block on the network: they return the last successfully fetched rate,
+ * or the configured default if no rate has been fetched yet.
+ */
+@Service
+public class ExchangeRateProvider {
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final BigDecimal defaultUsdToInrRate;
+
+    private volatile RateSnapshot latest;
+
+    @Autowired
+    public ExchangeRateProvider(@Qualifier("exchangeRateWebClient") WebClient webClient,
+                                @Value("${currency.default.rate.usd-to-inr:89.0}") double defaultUsdToInrRate) {
+        this.webClient = webClient;
+        this.objectMapper = new ObjectMapper();
+        this.defaultUsdToInrRate = BigDecimal.valueOf(defaultUsdToInrRate);
+    }
+
+    public BigDecimal getUsdToInrRate() {
+        RateSnapshot snapshot = latest;
+        return snapshot != null ? snapshot.rate : defaultUsdToInrRate;
+    }
+
+    public Instant getLastUpdated() {
+        RateSnapshot snapshot = latest;
+        return snapshot != null ? snapshot.fetchedAt : null;
+    }
+
+    @Scheduled(initialDelayString = "${currency.refresh.initial-delay-ms:0}",
+            fixedDelayString = "${currency.refresh.interval-ms:900000}")
+    public void refresh() {
+        BigDecimal liveRate = fetchLiveUsdToInrRate();
+        if (liveRate != null && liveRate.compareTo(BigDecimal.ZERO) > 0) {
+            latest = new RateSnapshot(liveRate, Instant.now());
+        }
+    }
+
+    BigDecimal fetchLiveUsdToInrRate() {
+        try {
+            String url = "https://api.exchangerate-api.com/v4/latest/USD";
+
+            String response = webClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .block();
+
+            if(response != null && !response.isEmpty()) {
+                JsonNode jsonResponse = objectMapper.readTree(response);
+                JsonNode rates = jsonResponse.get("rates");
+                if(rates != null && rates.has("INR")) {
+                    return new BigDecimal(rates.get("INR").asText());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error fetching live USD to INR rate: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static final class RateSnapshot {
+        private final BigDecimal rate;
+        private final Instant fetchedAt;
+
+        private RateSnapshot(BigDecimal rate, Instant fetchedAt) {
+            this.rate = rate;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -1,69 +1,177 @@
 package org.jdbc.portfoliomanagement.service;
 
-import io.netty.channel.ChannelOption;
-import io.netty.handler.timeout.ReadTimeoutHandler;
-import io.netty.handler.timeout.WriteTimeoutHandler;
 import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
 import org.jdbc.portfoliomanagement.repository.HistoricalPriceRepository;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
-import reactor.netty.http.client.HttpClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class HistoricalPriceService {
 
+    private static final int INITIAL_MUTUAL_FUND_DAYS = 30;
+
     @Autowired
     private HistoricalPriceRepository historicalPriceRepository;
 
     @Autowired
     private YahooFinanceService yahooFinanceService;
 
-    private final WebClient webClient;
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private PriceSeriesStore priceSeriesStore;
+
+    @Value("${historical.backfill.enabled:true}")
+    private boolean backfillEnabled;
+
+    @Value("${historical.backfill.concurrency:4}")
+    private int backfillConcurrency;
+
+    // backfilled with the holdings so the risk analytics can report beta against it
+    @Value("${risk.benchmark-symbol:^GSPC}")
+    private String benchmarkSymbol;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    @Autowired
+    @Qualifier("mfapiWebClient")
+    private WebClient mfapiWebClient;
+
     private final ObjectMapper objectMapper;
 
     @Autowired
     public HistoricalPriceService() {
-        this.webClient = WebClient.builder().build();
         this.objectMapper = new ObjectMapper();
     }
 
+    /**
+     * Every stored row for a symbol as persisted, ids included, which is the response
+     * shape {@code /api/historical/{symbol}} has always had. Ranged and downsampled
+     * reads go through {@link #getHistoricalPrices(String, LocalDate, LocalDate, Integer)}.
+     */
     public List<HistoricalPrice> getHistoricalPrices(String symbol) {
         if (symbol == null || symbol.trim().isEmpty()) return Collections.emptyList();
         return historicalPriceRepository.findBySymbolOrderByPriceDateAsc(symbol.trim());
     }
 
+    /**
+     * Stored prices for a symbol, optionally limited to a date range and downsampled to
+     * at most {@code maxPoints} with {@link PriceDownsampler#lttbIndexes}. A missing
+     * bound leaves that end of the range open; a null {@code maxPoints} returns every
+     * stored row. Read from the {@link PriceSeriesStore}; only the returned points are
+     * materialized.
+     */
+    public List<HistoricalPrice> getHistoricalPrices(String symbol, LocalDate from, LocalDate to, Integer maxPoints) {
+        if (symbol == null || symbol.trim().isEmpty()) return Collections.emptyList();
+
+        PriceSeries series = getPriceSeries(symbol, from, to);
+        return maxPoints != null
+                ? series.toHistoricalPrices(PriceDownsampler.lttbIndexes(series, maxPoints))
+                : series.toHistoricalPrices();
+    }
+
+    /**
+     * Stored series for a symbol within {@code [from, to]}; a missing {@code from} is
+     * open, a missing {@code to} means today.
+     */
+    public PriceSeries getPriceSeries(String symbol, LocalDate from, LocalDate to) {
+        return priceSeriesStore.get(symbol.trim()).range(from, to != null ? to : LocalDate.now());
+    }
+
+    public Mono<List<HistoricalPrice>> getHistoricalPricesAsync(String symbol) {
+        return Mono.fromCallable(() -> getHistoricalPrices(symbol))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetchAndStoreHistoricalData}: upstream calls are
+     * composed without blocking and only the repository write runs on the bounded
+     * elastic scheduler.
+     */
+    public Mono<List<HistoricalPrice>> fetchAndStoreHistoricalDataAsync(String symbol, String assetType) {
+        return Mono.fromCallable(() -> Optional.ofNullable(historicalPriceRepository.findLatestPriceDate(symbol)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(latest -> fetchMissingAsync(symbol, assetType, nextMissingDate(latest.orElse(null))))
+                .flatMap(prices -> {
+                    if (prices.isEmpty()) {
+                        System.out.println("No new historical data for symbol: " + symbol + " assetType: " + assetType);
+                        return Mono.just(prices);
+                    }
+                    return Mono.fromCallable(() -> {
+                        store(prices);
+                        return prices;
+                    }).subscribeOn(Schedulers.boundedElastic());
+                })
+                .onErrorResume(e -> {
+                    System.err.println("Error fetching historical data for symbol: " + symbol + " assetType: " + assetType);
+                    e.printStackTrace();
+                    return Mono.just(new ArrayList<>());
+                });
+    }
+
+    private Mono<List<HistoricalPrice>> fetchMissingAsync(String symbol, String assetType, LocalDate since) {
+        if (isUpToDate(since)) {
+            return Mono.just(new ArrayList<>());
+        }
+        String normalized = assetType == null ? "" : assetType.trim().toLowerCase();
+        if (normalized.contains("stock")) {
+            return fetchStockHistoricalDataAsync(symbol, since);
+        } else if (normalized.contains("mutual") || normalized.contains("fund") || normalized.equals("mf")) {
+            return fetchMutualFundHistoricalDataAsync(symbol, since);
+        }
+        // fallback: try stock first, then mutual fund
+        return fetchStockHistoricalDataAsync(symbol, since)
+                .flatMap(prices -> prices.isEmpty() ? fetchMutualFundHistoricalDataAsync(symbol, since) : Mono.just(prices));
+    }
+
+    /**
+     * Fetches only the days after the latest stored price for the symbol and appends
+     * them. A symbol without stored prices gets the initial window (one month); one that
+     * is already up to date makes no upstream request. Returns the newly fetched prices.
+     */
     public List<HistoricalPrice> fetchAndStoreHistoricalData(String symbol, String assetType) {
         List<HistoricalPrice> prices = new ArrayList<>();
 
         try {
+            LocalDate since = nextMissingDate(historicalPriceRepository.findLatestPriceDate(symbol));
+            if (isUpToDate(since)) {
+                return prices;
+            }
+
             String normalized = assetType == null ? "" : assetType.trim().toLowerCase();
             if (normalized.contains("stock")) {
-                prices = fetchStockHistoricalData(symbol);
+                prices = fetchStockHistoricalData(symbol, since);
             } else if (normalized.contains("mutual") || normalized.contains("fund") || normalized.equals("mf")) {
-                prices = fetchMutualFundHistoricalData(symbol);
+                prices = fetchMutualFundHistoricalData(symbol, since);
             } else {
                 // fallback: try stock first, then mutual fund
-                prices = fetchStockHistoricalData(symbol);
+                prices = fetchStockHistoricalData(symbol, since);
                 if (prices.isEmpty()) {
-                    prices = fetchMutualFundHistoricalData(symbol);
+                    prices = fetchMutualFundHistoricalData(symbol, since);
                 }
             }
 
             if (!prices.isEmpty()) {
-                historicalPriceRepository.saveAll(prices);
+                store(prices);
             } else {
-                System.err.println("No historical data found for symbol: " + symbol + " assetType: " + assetType);
+                System.out.println("No new historical data for symbol: " + symbol + " assetType: " + assetType);
             }
         } catch (Exception e) {
             System.err.println("Error fetching historical data for symbol: " + symbol + " assetType: " + assetType);
@@ -72,11 +180,74 @@ public class HistoricalPriceService {
         return prices;
     }
 
-    private List<HistoricalPrice> fetchStockHistoricalData(String symbol) {
+    /**
+     * Daily maintenance: brings the stored series of every held symbol and of the risk
+     * benchmark up to date, one small request per symbol. The fetches run through
+     * {@link #fetchAndStoreHistoricalDataAsync}, at most
+     * {@code historical.backfill.concurrency} at a time, so the scheduler thread
+     * returns at once and other scheduled jobs keep running. A run that is still busy
+     * when the next one is due is not overlapped.
+     */
+    @Scheduled(initialDelayString = "${historical.backfill.initial-delay-ms:60000}",
+            fixedDelayString = "${historical.backfill.interval-ms:86400000}")
+    public void backfillHeldSymbols() {
+        if (!backfillEnabled || !backfillRunning.compareAndSet(false, true)) {
+            return;
+        }
+        backfill()
+                .doFinally(signal -> backfillRunning.set(false))
+                .subscribe(
+                        appended -> { },
+                        error -> System.err.println("Historical backfill failed: " + error.getMessage()));
+    }
+
+    Mono<Integer> backfill() {
+        return Mono.fromCallable(this::backfillTargets)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(held -> Flux.fromIterable(held)
+                        .filter(row -> row[0] != null && !((String) row[0]).isBlank())
+                        .flatMap(row -> fetchAndStoreHistoricalDataAsync((String) row[0], (String) row[1]),
+                                Math.max(1, backfillConcurrency))
+                        .reduce(0, (appended, prices) -> appended + prices.size())
+                        .doOnNext(appended -> System.out.println(
+                                "Historical backfill appended " + appended + " prices for " + held.size() + " symbols")));
+    }
+
+    /**
+     * Held (symbol, assetType) pairs plus the risk benchmark when it is not held.
+     */
+    private List<Object[]> backfillTargets() {
+        List<Object[]> targets = new ArrayList<>(holdingRepository.findDistinctSymbolsAndAssetTypes());
+        if (benchmarkSymbol != null && !benchmarkSymbol.isBlank()
+                && targets.stream().noneMatch(row -> benchmarkSymbol.equals(row[0]))) {
+            targets.add(new Object[]{benchmarkSymbol, "STOCK"});
+        }
+        return targets;
+    }
+
+    private void store(List<HistoricalPrice> prices) {
+        historicalPriceRepository.upsertAll(prices);
+        priceSeriesStore.append(prices);
+    }
+
+    /**
+     * First date without a stored price, or null when nothing is stored yet.
+     */
+    private static LocalDate nextMissingDate(LocalDate latestStored) {
+        return latestStored != null ? latestStored.plusDays(1) : null;
+    }
+
+    private static boolean isUpToDate(LocalDate since) {
+        return since != null && since.isAfter(LocalDate.now());
+    }
+
+    private List<HistoricalPrice> fetchStockHistoricalData(String symbol, LocalDate since) {
         List<HistoricalPrice> prices = new ArrayList<>();
 
         try {
-            List<YahooFinanceService.HistoricalData> historicalData = yahooFinanceService.getHistoricalData(symbol);
+            List<YahooFinanceService.HistoricalData> historicalData = since == null
+                    ? yahooFinanceService.getHistoricalData(symbol)
+                    : yahooFinanceService.getHistoricalData(symbol, since, LocalDate.now());
             for(YahooFinanceService.HistoricalData dataPoint : historicalData) {
                 prices.add(new HistoricalPrice(dataPoint.getSymbol(), dataPoint.getPrice(), dataPoint.getDate()) );
             }
@@ -87,92 +258,117 @@ public class HistoricalPriceService {
         return prices;
     }
 
-    private List<HistoricalPrice> fetchMutualFundHistoricalData(String schemeCode) {
-        List<HistoricalPrice> prices = new ArrayList<>();
+    private Mono<List<HistoricalPrice>> fetchStockHistoricalDataAsync(String symbol, LocalDate since) {
+        Mono<List<YahooFinanceService.HistoricalData>> fetch = since == null
+                ? yahooFinanceService.getHistoricalDataAsync(symbol)
+                : yahooFinanceService.getHistoricalDataAsync(symbol, since, LocalDate.now());
+        return fetch
+                .map(historicalData -> {
+                    List<HistoricalPrice> prices = new ArrayList<>();
+                    for(YahooFinanceService.HistoricalData dataPoint : historicalData) {
+                        prices.add(new HistoricalPrice(dataPoint.getSymbol(), dataPoint.getPrice(), dataPoint.getDate()) );
+                    }
+                    return prices;
+                });
+    }
 
-        try {
-            LocalDate endDate = LocalDate.now();
-            LocalDate startDate = endDate.minusDays(30);
-
-            String url = String.format(
-                    "https://api.mfapi.in/mf/%s?startDate=%s&endDate=%s",
-                    schemeCode, startDate.toString(), endDate.toString()
-            );
-
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            if (response == null || response.isEmpty()) {
-                System.err.println("Empty response for mutual fund scheme code: " + schemeCode);
-                // fallback to the general API without date range
-                String fallBackUrl = String.format("https://api.mfapi.in/mf/%s", schemeCode);
-                response = webClient.get()
-                        .uri(fallBackUrl)
-                        .retrieve()
-                        .bodyToMono(String.class)
-                        .block();
-            }
+    private List<HistoricalPrice> fetchMutualFundHistoricalData(String schemeCode, LocalDate since) {
+        return fetchMutualFundHistoricalDataAsync(schemeCode, since).block();
+    }
 
-            if (response == null || response.isEmpty()) {
-                System.err.println("Empty fallback response for mutual fund scheme code: " + schemeCode);
-                return prices;
-            }
+    private Mono<List<HistoricalPrice>> fetchMutualFundHistoricalDataAsync(String schemeCode, LocalDate since) {
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = since != null ? since : endDate.minusDays(INITIAL_MUTUAL_FUND_DAYS);
 
-            JsonNode jsonResponse = objectMapper.readTree(response);
+        String url = String.format(
+                "https://api.mfapi.in/mf/%s?startDate=%s&endDate=%s",
+                schemeCode, startDate.toString(), endDate.toString()
+        );
+        // fallback to the general API without date range
+        String fallBackUrl = String.format("https://api.mfapi.in/mf/%s", schemeCode);
 
-            // mfapi returns top-level object with 'data' array
-            JsonNode dataArray = jsonResponse.get("data");
-            if (dataArray != null && dataArray.isArray()) {
-                int count = 0;
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+        return fetchBody(url)
+                .switchIfEmpty(Mono.defer(() -> {
+                    System.err.println("Empty response for mutual fund scheme code: " + schemeCode);
+                    return fetchBody(fallBackUrl);
+                }))
+                .flatMap(response -> Mono.fromCallable(() -> parseMutualFundHistory(schemeCode, response, since)))
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    System.err.println("Empty fallback response for mutual fund scheme code: " + schemeCode);
+                    return new ArrayList<>();
+                }))
+                .onErrorResume(e -> {
+                    System.err.println("Error fetching mutual fund data for scheme code: " + schemeCode);
+                    e.printStackTrace();
+                    return Mono.just(new ArrayList<>());
+                });
+    }
 
-                for (JsonNode dataPoint : dataArray) {
-                    if (count >= 30) break;
+    private Mono<String> fetchBody(String url) {
+        return mfapiWebClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(String.class)
+                .filter(response -> !response.isEmpty());
+    }
 
-                    JsonNode dateNode = dataPoint.get("date");
-                    JsonNode navNode = dataPoint.get("nav");
-                    if (dateNode == null || navNode == null) continue;
+    /**
+     * Parses mfapi's newest-first NAV list. With {@code since} set only later dates are
+     * kept; without it, the most recent {@value #INITIAL_MUTUAL_FUND_DAYS} entries.
+     */
+    private List<HistoricalPrice> parseMutualFundHistory(String schemeCode, String response, LocalDate since) throws Exception {
+        List<HistoricalPrice> prices = new ArrayList<>();
 
-                    String dateStr = dateNode.asText();
-                    String navStr = navNode.asText();
+        JsonNode jsonResponse = objectMapper.readTree(response);
 
-                    // Clean nav string: remove commas and handle NA/non-numeric
-                    navStr = navStr.replaceAll(",", "").trim();
-                    if (navStr.isEmpty() || "NA".equalsIgnoreCase(navStr)) continue;
+        // mfapi returns top-level object with 'data' array
+        JsonNode dataArray = jsonResponse.get("data");
+        if (dataArray != null && dataArray.isArray()) {
+            int count = 0;
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
-                    LocalDate date;
-                    try {
-                        date = LocalDate.parse(dateStr, formatter);
-                    } catch (Exception ex) {
-                        // skip malformed date
-                        continue;
-                    }
+            for (JsonNode dataPoint : dataArray) {
+                if (since == null && count >= INITIAL_MUTUAL_FUND_DAYS) break;
 
-                    BigDecimal nav;
-                    try {
-                        nav = new BigDecimal(navStr);
-                    } catch (Exception ex) {
-                        // skip non-numeric nav
-                        continue;
-                    }
+                JsonNode dateNode = dataPoint.get("date");
+                JsonNode navNode = dataPoint.get("nav");
+                if (dateNode == null || navNode == null) continue;
 
-                    HistoricalPrice historicalPrice = new HistoricalPrice(
-                            schemeCode, nav, date
-                    );
-                    prices.add(historicalPrice);
-                    count++;
+                String dateStr = dateNode.asText();
+                String navStr = navNode.asText();
+
+                // Clean nav string: remove commas and handle NA/non-numeric
+                navStr = navStr.replaceAll(",", "").trim();
+                if (navStr.isEmpty() || "NA".equalsIgnoreCase(navStr)) continue;
+
+                LocalDate date;
+                try {
+                    date = LocalDate.parse(dateStr, formatter);
+                } catch (Exception ex) {
+                    // skip malformed date
+                    continue;
                 }
+                // the fallback URL has no date range, so older entries are dropped here
+                if (since != null && date.isBefore(since)) continue;
 
-                prices.sort(Comparator.comparing(HistoricalPrice::getPriceDate));
-            } else {
-                System.err.println("No data array found for scheme code: " + schemeCode);
+                BigDecimal nav;
+                try {
+                    nav = new BigDecimal(navStr);
+                } catch (Exception ex) {
+                    // skip non-numeric nav
+                    continue;
+                }
+
+                HistoricalPrice historicalPrice = new HistoricalPrice(
+                        schemeCode, nav, date
+                );
+                prices.add(historicalPrice);
+                count++;
             }
-        } catch (Exception e) {
-            System.err.println("Error fetching mutual fund data for scheme code: " + schemeCode);
-            e.printStackTrace();
+
+            prices.sort(Comparator.comparing(HistoricalPrice::getPriceDate));
+        } else {
+            System.err.println("No data array found for scheme code: " + schemeCode);
         }
 
         return prices;
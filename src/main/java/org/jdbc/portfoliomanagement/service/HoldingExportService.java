@@ -0,0 +1,148 @@
+package org.jdbc.portfoliomanagement.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes every holding, valued, to an output stream as CSV or NDJSON. Holdings are
+ * read through a database cursor and valued in fixed-size chunks; each chunk is
+ * written and detached from the persistence context before the next is read, so
+ * memory use does not depend on the number of holdings.
+ */
+@Service
+public class HoldingExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String[] COLUMNS = {"id", "assetType", "symbol", "category", "quantity", "purchasePrice",
+            "purchaseDate", "currentPrice", "currentValue", "profitLoss", "profitLossPercentage", "currency",
+            "currentValueInr", "profitLossInr"};
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private HoldingService holdingService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${holding.export.chunk-size:500}")
+    private int chunkSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+
+    /**
+     * Streams the export to {@code output}. Returns the number of holdings written.
+     */
+    @Transactional(readOnly = true)
+    public int exportHoldings(String format, OutputStream output) throws IOException {
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (FORMAT_CSV.equals(format)) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+
+        int written = 0;
+        int size = Math.max(1, chunkSize);
+        List<Holding> chunk = new ArrayList<>(size);
+        try (Stream<Holding> holdings = holdingRepository.streamAllOrderById()) {
+            Iterator<Holding> iterator = holdings.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == size || !iterator.hasNext()) {
+                    written += writeChunk(chunk, format, writer);
+                    chunk.clear();
+                }
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    private int writeChunk(List<Holding> chunk, String format, Writer writer) throws IOException {
+        holdingService.valueHoldings(chunk);
+        for (Holding holding : chunk) {
+            Map<String, Object> row = exportRow(holding);
+            if (FORMAT_CSV.equals(format)) {
+                writeCsvRow(row, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            // valuation only set transient fields, nothing to flush
+            entityManager.detach(holding);
+        }
+        writer.flush();
+        return chunk.size();
+    }
+
+    private static Map<String, Object> exportRow(Holding holding) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", holding.getId());
+        row.put("assetType", holding.getAssetType());
+        row.put("symbol", holding.getSymbol());
+        row.put("category", holding.getCategory());
+        row.put("quantity", holding.getQuantity());
+        row.put("purchasePrice", holding.getPurchasePrice());
+        row.put("purchaseDate", holding.getPurchaseDate() != null ? holding.getPurchaseDate().toString() : null);
+        row.put("currentPrice", holding.getCurrentPrice());
+        row.put("currentValue", holding.getCurrentValue());
+        row.put("profitLoss", holding.getProfitLoss());
+        row.put("profitLossPercentage", holding.getProfitLossPercentage());
+        row.put("currency", holding.getCurrency());
+        row.put("currentValueInr", holding.getCurrentValueInr());
+        row.put("profitLossInr", holding.getProfitLossInr());
+        return row;
+    }
+
+    private static void writeCsvRow(Map<String, Object> row, Writer writer) throws IOException {
+        boolean first = true;
+        for (Object value : row.values()) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            if (value instanceof BigDecimal) {
+                writer.write(((BigDecimal) value).toPlainString());
+            } else if (value != null) {
+                writer.write(csvValue(value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    static String csvValue(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
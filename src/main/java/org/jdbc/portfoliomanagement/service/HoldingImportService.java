@@ -0,0 +1,336 @@
+package org.jdbc.portfoliomanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HistoricalPriceRepository;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk import of holdings from CSV or NDJSON. The input is read line by line, so a
+ * file of any size is never held in memory; valid rows are inserted in JDBC batches
+ * and invalid ones are reported with their line number. Historical prices are
+ * backfilled in the background, once per imported symbol that has no stored history
+ * yet; the daily backfill keeps the others current.
+ */
+@Service
+public class HoldingImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String[] COLUMNS = {"assetType", "symbol", "quantity", "purchasePrice", "purchaseDate", "category"};
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private HoldingService holdingService;
+
+    @Autowired
+    private PortfolioAggregates portfolioAggregates;
+
+    @Autowired
+    private PerformanceIndex performanceIndex;
+
+    @Autowired
+    private HistoricalPriceService historicalPriceService;
+
+    @Autowired
+    private HistoricalPriceRepository historicalPriceRepository;
+
+    @Value("${holding.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${holding.import.backfill-concurrency:4}")
+    private int backfillConcurrency;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ImportReport importHoldings(InputStream input, String format) throws IOException {
+        if (!FORMAT_CSV.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+
+        ImportReport report = new ImportReport();
+        List<Holding> batch = new ArrayList<>();
+        List<Integer> batchLines = new ArrayList<>();
+        Map<String, String> newSymbols = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = null;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (FORMAT_CSV.equals(format) && header == null) {
+                    header = parseHeader(line);
+                    if (!header.containsKey("assetType") || !header.containsKey("symbol")
+                            || !header.containsKey("quantity") || !header.containsKey("purchasePrice")) {
+                        report.addError(lineNumber, "Header must name assetType, symbol, quantity and purchasePrice");
+                        return report;
+                    }
+                    continue;
+                }
+
+                report.totalRows++;
+                try {
+                    Map<String, String> fields = FORMAT_CSV.equals(format) ? csvFields(header, line) : jsonFields(line);
+                    batch.add(toHolding(fields));
+                    batchLines.add(lineNumber);
+                } catch (IllegalArgumentException e) {
+                    report.addError(lineNumber, e.getMessage());
+                }
+
+                if (batch.size() >= Math.max(1, batchSize)) {
+                    flush(batch, batchLines, report, newSymbols);
+                }
+            }
+            flush(batch, batchLines, report, newSymbols);
+        } finally {
+            if (report.imported > 0) {
+                holdingService.invalidatePortfolioSnapshot();
+                backfillHistory(newSymbols);
+            }
+        }
+        return report;
+    }
+
+    private void flush(List<Holding> batch, List<Integer> batchLines, ImportReport report, Map<String, String> newSymbols) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            holdingRepository.insertAll(batch);
+            for (Holding holding : batch) {
+                portfolioAggregates.add(holding);
+                performanceIndex.track(holding);
+                newSymbols.putIfAbsent(holding.getSymbol(), holding.getAssetType());
+            }
+            report.imported += batch.size();
+        } catch (Exception e) {
+            System.err.println("Error inserting holdings batch: " + e.getMessage());
+            for (Integer line : batchLines) {
+                report.addError(line, "Batch insert failed: " + e.getMessage());
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private void backfillHistory(Map<String, String> symbols) {
+        Mono.fromCallable(() -> new HashSet<>(historicalPriceRepository.findSymbolsWithHistory(symbols.keySet())))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(known -> Flux.fromIterable(symbols.entrySet())
+                        .filter(entry -> !known.contains(entry.getKey())))
+                .flatMap(entry -> historicalPriceService.fetchAndStoreHistoricalDataAsync(entry.getKey(), entry.getValue()),
+                        Math.max(1, backfillConcurrency))
+                .subscribe();
+    }
+
+    /**
+     * Validates and normalizes one row the same way {@link HoldingService#createHolding}
+     * does: asset types are upper-cased.
+     */
+    Holding toHolding(Map<String, String> fields) {
+        String assetType = required(fields, "assetType").toUpperCase(Locale.ROOT);
+        String symbol = required(fields, "symbol");
+        BigDecimal quantity = decimal(fields, "quantity");
+        BigDecimal purchasePrice = decimal(fields, "purchasePrice");
+        if (quantity.signum() <= 0) {
+            throw new IllegalArgumentException("quantity must be positive");
+        }
+        if (purchasePrice.signum() < 0) {
+            throw new IllegalArgumentException("purchasePrice must not be negative");
+        }
+
+        LocalDate purchaseDate = null;
+        String date = fields.get("purchaseDate");
+        if (date != null && !date.isBlank()) {
+            try {
+                purchaseDate = LocalDate.parse(date.trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("purchaseDate must be an ISO date (yyyy-MM-dd): " + date);
+            }
+        }
+
+        Holding holding = new Holding(assetType, symbol, quantity, purchasePrice, purchaseDate);
+        String category = fields.get("category");
+        if (category != null && !category.isBlank()) {
+            holding.setCategory(category.trim());
+        }
+        return holding;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value.trim();
+    }
+
+    private static BigDecimal decimal(Map<String, String> fields, String name) {
+        String value = required(fields, name);
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> header = new HashMap<>();
+        List<String> names = splitCsv(line);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim();
+            for (String column : COLUMNS) {
+                if (column.equalsIgnoreCase(name) || column.equalsIgnoreCase(name.replace("_", ""))) {
+                    header.put(column, i);
+                }
+            }
+        }
+        return header;
+    }
+
+    private static Map<String, String> csvFields(Map<String, Integer> header, String line) {
+        List<String> values = splitCsv(line);
+        Map<String, String> fields = new HashMap<>();
+        header.forEach((column, index) -> {
+            if (index < values.size()) {
+                fields.put(column, values.get(index));
+            }
+        });
+        return fields;
+    }
+
+    private Map<String, String> jsonFields(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Each line must be a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (String column : COLUMNS) {
+            JsonNode value = node.get(column);
+            if (value != null && !value.isNull()) {
+                fields.put(column, value.asText());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted fields and doubled quotes inside
+     * them. Quoted fields cannot span lines.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    public static class ImportReport {
+        private int totalRows;
+        private int imported;
+        private int failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void addError(int line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, message));
+            }
+        }
+
+        public int getTotalRows() {
+            return totalRows;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        /**
+         * The first 1000 row errors; {@link #getFailed()} has the full count.
+         */
+        public List<RowError> getErrors() {
+            return errors;
+        }
+    }
+
+    public static class RowError {
+        private final int line;
+        private final String message;
+
+        public RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
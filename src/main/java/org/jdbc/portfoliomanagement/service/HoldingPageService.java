@@ -0,0 +1,172 @@
+package org.jdbc.portfoliomanagement.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.jdbc.portfoliomanagement.repository.HoldingSpecifications;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keyset-paginated listing of holdings. Each page is read with a
+ * {@code WHERE (sortField, id) > (last seen values)} query rather than an offset, so
+ * fetching page 500 costs the same as page 1, and only the rows on the page are
+ * valued.
+ */
+@Service
+public class HoldingPageService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    // NOT NULL columns only (V4, V5): a keyset predicate never matches a null sort
+    // value, so rows with one would silently drop out of the listing
+    private static final Map<String, Function<String, Object>> SORT_FIELDS = Map.of(
+            "id", Long::valueOf,
+            "createdAt", LocalDateTime::parse,
+            "assetType", value -> value,
+            "symbol", value -> value,
+            "quantity", BigDecimal::new,
+            "purchasePrice", BigDecimal::new);
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private HoldingService holdingService;
+
+    @Value("${holding.page.max-size:200}")
+    private int maxPageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Returns one page of holdings matching the optional filters, ordered by
+     * {@code sort} (ties broken by id). Pass the previous page's
+     * {@link HoldingPage#getNextCursor()} as {@code cursor} to continue; the filters and
+     * sort must stay the same between pages.
+     *
+     * @throws IllegalArgumentException for an unknown sort field or direction, a page
+     *                                  size outside 1..max, or a cursor that does not
+     *                                  belong to the requested sort
+     */
+    public HoldingPage getHoldings(String assetType, String category, String symbolPrefix,
+                                   String sort, String direction, String cursor, int size) {
+        if (!SORT_FIELDS.containsKey(sort)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sort + ", expected one of " + SORT_FIELDS.keySet());
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxPageSize);
+        }
+        Sort.Direction order = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new IllegalArgumentException("direction must be asc or desc"));
+
+        Specification<Holding> filter = Specification.unrestricted();
+        if (assetType != null && !assetType.isBlank()) {
+            // asset types are stored upper-cased
+            filter = filter.and(HoldingSpecifications.assetTypeEquals(assetType.trim().toUpperCase(Locale.ROOT)));
+        }
+        if (category != null && !category.isBlank()) {
+            filter = filter.and(HoldingSpecifications.categoryEquals(category.trim()));
+        }
+        if (symbolPrefix != null && !symbolPrefix.isBlank()) {
+            filter = filter.and(HoldingSpecifications.symbolStartsWith(symbolPrefix.trim()));
+        }
+
+        Sort ordering = Sort.by(order, sort);
+        if (!"id".equals(sort)) {
+            ordering = ordering.and(Sort.by(order, "id"));
+        }
+        Sort pageOrder = ordering;
+        KeysetScrollPosition position = decodeCursor(cursor, sort);
+        Window<Holding> window = holdingRepository.findBy(filter,
+                query -> query.sortBy(pageOrder).limit(size).scroll(position));
+
+        List<Holding> items = new ArrayList<>(window.getContent());
+        holdingService.valueHoldings(items);
+
+        String nextCursor = null;
+        if (window.hasNext() && !items.isEmpty()) {
+            nextCursor = encodeCursor((KeysetScrollPosition) window.positionAt(items.size() - 1));
+        }
+        return new HoldingPage(items, nextCursor);
+    }
+
+    private String encodeCursor(KeysetScrollPosition position) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        position.getKeys().forEach((field, value) -> keys.put(field, value.toString()));
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(keys);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encode page cursor", e);
+        }
+    }
+
+    KeysetScrollPosition decodeCursor(String cursor, String sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, String> keys;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor.trim());
+            keys = objectMapper.readValue(new String(json, StandardCharsets.UTF_8), new TypeReference<Map<String, String>>() {});
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (keys == null || !keys.containsKey("id") || !keys.containsKey(sort)
+                || keys.size() != ("id".equals(sort) ? 1 : 2)) {
+            throw new IllegalArgumentException("Cursor does not match sort field: " + sort);
+        }
+
+        Map<String, Object> typed = new LinkedHashMap<>();
+        try {
+            keys.forEach((field, value) -> typed.put(field, SORT_FIELDS.get(field).apply(value)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return ScrollPosition.forward(typed);
+    }
+
+    public static class HoldingPage {
+        private final List<Holding> items;
+        private final String nextCursor;
+
+        public HoldingPage(List<Holding> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Holding> getItems() {
+            return items;
+        }
+
+        /**
+         * Opaque cursor for the following page, or null on the last page.
+         */
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public boolean isHasNext() {
+            return nextCursor != null;
+        }
+    }
+}
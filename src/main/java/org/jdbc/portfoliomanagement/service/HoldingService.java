@@ -3,15 +3,24 @@ package org.jdbc.portfoliomanagement.service;
 import org.jdbc.portfoliomanagement.entity.Holding;
 import org.jdbc.portfoliomanagement.repository.HoldingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @Service
 public class HoldingService {
@@ -21,43 +30,116 @@ public class HoldingService {
     @Autowired
     private YahooFinanceService yahooFinanceService;
 
-    @Value("${currency.default.rate.usd-to-inr:89.0}")
-    private Double defaultUsdToInrRate;
+    @Autowired
+    private QuoteCache quoteCache;
+
+    @Autowired
+    private ExchangeRateProvider exchangeRateProvider;
+
+    @Autowired
+    private ValuationExecutor valuationExecutor;
+
+    @Autowired
+    private PortfolioAggregates portfolioAggregates;
+
+    @Autowired
+    private PerformanceIndex performanceIndex;
+
+    @Autowired
+    private CorrelationService correlationService;
+
+    @Autowired
+    @Qualifier("yahooWebClient")
+    private WebClient yahooWebClient;
+
+    @Autowired
+    @Qualifier("mfapiWebClient")
+    private WebClient mfapiWebClient;
+
+    @Value("${valuation.max-concurrency-per-host:8}")
+    private int maxConcurrencyPerHost;
+
+    @Value("${portfolio.snapshot.ttl-ms:10000}")
+    private long snapshotTtlMs;
+
+    // when the background refresher keeps quotes warm, requests accept stale prices
+    @Value("${quote.refresh.enabled:true}")
+    private boolean serveWarmQuotes;
+
+    @Value("${diversification.correlation-threshold:0.8}")
+    private double correlationThreshold;
 
-    private final WebClient webClient;
     private final ObjectMapper objectMapper;
 
+    private static final List<String> RISK_LEVELS = List.of("Low", "Moderate", "High", "Very High");
+
+    private static final Set<String> DASHBOARD_SECTIONS =
+            Set.of("summary", "bestPerformer", "worstPerformer", "diversification", "holdings");
+    private static final List<String> DEFAULT_DASHBOARD_SECTIONS =
+            List.of("summary", "bestPerformer", "worstPerformer", "diversification");
+
+    private final Object snapshotLock = new Object();
+    private PortfolioSnapshot portfolioSnapshot;
+    private CompletableFuture<PortfolioSnapshot> snapshotInFlight;
+    private long snapshotGeneration;
+
     public HoldingService() {
-        this.webClient = WebClient.builder().build();
         this.objectMapper = new ObjectMapper();
     }
 
     public List<Holding> getAllHoldings() {
         List<Holding> holdings = holdingRepository.findAll();
-        holdings.forEach(this::addCalculatedFields);
+        valueHoldings(holdings);
         return holdings;
     }
 
+    /**
+     * Non-blocking variant of {@link #getAllHoldings()}. The JPA query runs on the
+     * bounded elastic scheduler and all upstream price lookups are composed without
+     * blocking the calling thread.
+     */
+    public Flux<Holding> getAllHoldingsAsync() {
+        return Mono.fromCallable(holdingRepository::findAll)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(this::valueHoldingsAsync)
+                .flatMapIterable(holdings -> holdings);
+    }
+
     public Optional<Holding> getHoldingById(Long id) {
         Optional<Holding> holdings = holdingRepository.findById(id);
         holdings.ifPresent(this::addCalculatedFields);
         return holdings;
     }
 
+    /**
+     * @throws IllegalArgumentException when assetType, symbol, quantity or
+     *                                  purchasePrice is missing
+     */
     public Holding createHolding(Holding holding) {
+        requireFields(holding);
         // Normalize asset type for consistency
         if (holding.getAssetType() != null) {
             holding.setAssetType(holding.getAssetType().toUpperCase());
         }
 
         Holding savedHolding = holdingRepository.save(holding);
+        portfolioAggregates.add(savedHolding);
+        performanceIndex.track(savedHolding);
+        invalidatePortfolioSnapshot();
         addCalculatedFields(savedHolding);
         return savedHolding;
     }
 
+    /**
+     * @throws IllegalArgumentException when assetType, symbol, quantity or
+     *                                  purchasePrice is missing
+     */
     public Optional<Holding> updateHolding(Long id, Holding holdingDetails) {
+        requireFields(holdingDetails);
         return holdingRepository.findById(id)
                 .map(holding -> {
+                    Holding before = aggregateFields(holding);
+
                     // Normalize asset type from incoming details
                     if (holdingDetails.getAssetType() != null) {
                         holding.setAssetType(holdingDetails.getAssetType().toUpperCase());
@@ -70,31 +152,260 @@ public class HoldingService {
                     holding.setPurchasePrice(holdingDetails.getPurchasePrice());
                     holding.setPurchaseDate(holdingDetails.getPurchaseDate());
                     Holding updatedHolding = holdingRepository.save(holding);
+                    portfolioAggregates.replace(before, updatedHolding);
+                    performanceIndex.track(updatedHolding);
+                    invalidatePortfolioSnapshot();
                     addCalculatedFields(updatedHolding);
                     return updatedHolding;
                 });
     }
 
+    // the columns are NOT NULL (V5) and sort keys of the paginated listing
+    private static void requireFields(Holding holding) {
+        if (holding.getAssetType() == null || holding.getAssetType().isBlank()) {
+            throw new IllegalArgumentException("assetType is required");
+        }
+        if (holding.getSymbol() == null || holding.getSymbol().isBlank()) {
+            throw new IllegalArgumentException("symbol is required");
+        }
+        if (holding.getQuantity() == null) {
+            throw new IllegalArgumentException("quantity is required");
+        }
+        if (holding.getPurchasePrice() == null) {
+            throw new IllegalArgumentException("purchasePrice is required");
+        }
+    }
+
     public boolean deleteHolding(Long id) {
-        if(holdingRepository.existsById(id)) {
+        Optional<Holding> existing = holdingRepository.findById(id);
+        if(existing.isPresent()) {
             holdingRepository.deleteById(id);
+            portfolioAggregates.remove(existing.get());
+            performanceIndex.untrack(id);
+            invalidatePortfolioSnapshot();
             return true;
         }
         return false;
     }
 
+    /**
+     * Detached copy of the fields the portfolio aggregates are keyed and summed on,
+     * taken before an update mutates the managed entity.
+     */
+    private Holding aggregateFields(Holding holding) {
+        Holding copy = new Holding(holding.getAssetType(), holding.getSymbol(), holding.getQuantity(),
+                holding.getPurchasePrice(), holding.getPurchaseDate());
+        copy.setCategory(holding.getCategory());
+        return copy;
+    }
+
     public List<Holding> getHoldingsByAssetType(String assetType) {
         List<Holding> holdings = holdingRepository.findByAssetType(assetType);
-        holdings.forEach(this::addCalculatedFields);
+        valueHoldings(holdings);
         return holdings;
     }
 
-    private void addCalculatedFields(Holding holding) {
+    /**
+     * Values a list of holdings. Prices are looked up once per distinct
+     * (assetType, symbol) and applied to the holdings in their original order.
+     */
+    void valueHoldings(List<Holding> holdings) {
+        holdings.forEach(this::normalizeAssetType);
+        applyPrices(holdings, lookupPrices(priceTargets(holdings)));
+    }
+
+    private Mono<List<Holding>> valueHoldingsAsync(List<Holding> holdings) {
+        holdings.forEach(this::normalizeAssetType);
+        return lookupPricesAsync(priceTargets(holdings)).map(prices -> {
+            applyPrices(holdings, prices);
+            return holdings;
+        });
+    }
+
+    /**
+     * Prices every target, keyed by {@link #priceKey(String, String)}. Warm cached prices
+     * are used first; the remaining stock symbols are priced with one batched quote
+     * lookup and whatever is still missing is looked up concurrently on the valuation
+     * executor.
+     */
+    private Map<String, BigDecimal> lookupPrices(Collection<PriceTarget> targets) {
+        Map<String, BigDecimal> prices = warmPrices(targets);
+        targets = pendingLookups(targets, prices);
+        Set<String> symbols = stockSymbols(targets);
+        if (!symbols.isEmpty()) {
+            quoteCache.getAll("STOCK", symbols, this::fetchStockPrices)
+                    .forEach((symbol, price) -> prices.put(priceKey("STOCK", symbol), price));
+        }
+
+        List<PriceTarget> lookups = pendingLookups(targets, prices);
+        List<BigDecimal> lookedUpPrices = valuationExecutor.mapInOrder(
+                lookups,
+                target -> upstreamHost(target.assetType),
+                target -> getCurrentPrice(target.symbol, target.assetType),
+                BigDecimal.ZERO);
+        for (int i = 0; i < lookups.size(); i++) {
+            prices.put(lookups.get(i).key(), lookedUpPrices.get(i));
+        }
+        return prices;
+    }
+
+    private Mono<Map<String, BigDecimal>> lookupPricesAsync(Collection<PriceTarget> allTargets) {
+        Map<String, BigDecimal> warm = warmPrices(allTargets);
+        List<PriceTarget> targets = pendingLookups(allTargets, warm);
+        Set<String> symbols = stockSymbols(targets);
+        Mono<Map<String, BigDecimal>> stockPrices = symbols.isEmpty()
+                ? Mono.just(Collections.emptyMap())
+                : quoteCache.getAllAsync("STOCK", symbols,
+                        missing -> yahooFinanceService.getQuotesAsync(missing).map(this::toPrices));
+        int concurrency = Math.max(1, maxConcurrencyPerHost);
+
+        return stockPrices.flatMap(batch -> {
+            Map<String, BigDecimal> prices = new HashMap<>(warm);
+            batch.forEach((symbol, price) -> prices.put(priceKey("STOCK", symbol), price));
+            return Flux.fromIterable(pendingLookups(targets, prices))
+                    .flatMap(target -> getCurrentPriceAsync(target.symbol, target.assetType)
+                            .map(price -> Map.entry(target.key(), price)), concurrency)
+                    .collectList()
+                    .map(entries -> {
+                        entries.forEach(entry -> prices.put(entry.getKey(), entry.getValue()));
+                        return prices;
+                    });
+        });
+    }
+
+    /**
+     * Prices already held by the quote cache, stale ones included, when the background
+     * refresher is keeping quotes warm. Only targets missing here go upstream.
+     */
+    private Map<String, BigDecimal> warmPrices(Collection<PriceTarget> targets) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        if (!serveWarmQuotes) {
+            return prices;
+        }
+        for (PriceTarget target : targets) {
+            BigDecimal price = quoteCache.getLatest(target.assetType, target.symbol);
+            if (price != null) {
+                prices.put(target.key(), price);
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Fetches current prices for the given symbols straight from upstream and stores
+     * them in the quote cache. Stocks go out in batched quote requests, mutual funds
+     * concurrently on the valuation executor. Returns how many prices were stored.
+     */
+    public int refreshQuotes(String assetType, Collection<String> symbols) {
+        String type = QuoteCache.normalizeAssetType(assetType);
+        if (symbols.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, BigDecimal> prices = new HashMap<>();
+        if (QuoteCache.STOCK.equals(type)) {
+            prices.putAll(fetchStockPrices(symbols));
+        } else if (QuoteCache.MUTUAL_FUND.equals(type)) {
+            List<String> funds = new ArrayList<>(symbols);
+            List<BigDecimal> navs = valuationExecutor.mapInOrder(funds, symbol -> "mfapi", this::getMutualFundPrice, BigDecimal.ZERO);
+            for (int i = 0; i < funds.size(); i++) {
+                prices.put(funds.get(i), navs.get(i));
+            }
+        } else {
+            System.err.println("Unsupported asset type for quote refresh: " + assetType);
+        }
+
+        int refreshed = 0;
+        for (Map.Entry<String, BigDecimal> entry : prices.entrySet()) {
+            if (quoteCache.put(type, entry.getKey(), entry.getValue())) {
+                refreshed++;
+            }
+        }
+        return refreshed;
+    }
+
+    /**
+     * Distinct (assetType, symbol) pairs of the holdings, in first-seen order.
+     */
+    private List<PriceTarget> priceTargets(List<Holding> holdings) {
+        Map<String, PriceTarget> targets = new LinkedHashMap<>();
+        for (Holding holding : holdings) {
+            PriceTarget target = new PriceTarget(holding.getAssetType(), holding.getSymbol());
+            targets.putIfAbsent(target.key(), target);
+        }
+        return new ArrayList<>(targets.values());
+    }
+
+    private List<PriceTarget> priceTargets(PortfolioAggregates.View aggregates) {
+        Map<String, PriceTarget> targets = new LinkedHashMap<>();
+        for (PortfolioAggregates.PositionTotal position : aggregates.getPositions()) {
+            PriceTarget target = new PriceTarget(position.getAssetType(), position.getSymbol());
+            targets.putIfAbsent(target.key(), target);
+        }
+        return new ArrayList<>(targets.values());
+    }
+
+    private List<PriceTarget> pendingLookups(Collection<PriceTarget> targets, Map<String, BigDecimal> prices) {
+        List<PriceTarget> pending = new ArrayList<>();
+        for (PriceTarget target : targets) {
+            if (!prices.containsKey(target.key())) {
+                pending.add(target);
+            }
+        }
+        return pending;
+    }
+
+    private void applyPrices(List<Holding> holdings, Map<String, BigDecimal> prices) {
+        for (Holding holding : holdings) {
+            applyValuation(holding, prices.getOrDefault(priceKey(holding), BigDecimal.ZERO));
+        }
+    }
+
+    private String priceKey(Holding holding) {
+        return priceKey(holding.getAssetType(), holding.getSymbol());
+    }
+
+    private static String priceKey(String assetType, String symbol) {
+        return assetType + ":" + symbol;
+    }
+
+    private String upstreamHost(String assetType) {
+        return "STOCK".equals(assetType) ? "yahoo" : "mfapi";
+    }
+
+    private Set<String> stockSymbols(Collection<PriceTarget> targets) {
+        Set<String> symbols = new LinkedHashSet<>();
+        for (PriceTarget target : targets) {
+            if ("STOCK".equals(target.assetType) && target.symbol != null) {
+                symbols.add(target.symbol);
+            }
+        }
+        return symbols;
+    }
+
+    private Map<String, BigDecimal> fetchStockPrices(Collection<String> symbols) {
+        return toPrices(yahooFinanceService.getQuotes(symbols));
+    }
+
+    private Map<String, BigDecimal> toPrices(Map<String, YahooFinanceService.Quote> quotes) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        quotes.forEach((symbol, quote) -> prices.put(symbol, quote.getPrice()));
+        return prices;
+    }
+
+    private void normalizeAssetType(Holding holding) {
         // Normalize asset type to uppercase so downstream services (price/currency) work reliably
         if (holding.getAssetType() != null) {
             holding.setAssetType(holding.getAssetType().toUpperCase());
         }
-        BigDecimal currentPrice = getCurrentPrice(holding.getSymbol(), holding.getAssetType());
+    }
+
+    private void addCalculatedFields(Holding holding) {
+        normalizeAssetType(holding);
+        applyValuation(holding, getCurrentPrice(holding.getSymbol(), holding.getAssetType()));
+    }
+
+    private void applyValuation(Holding holding, BigDecimal currentPrice) {
         holding.setCurrentPrice(currentPrice);
 
         BigDecimal currentValue = currentPrice.multiply(holding.getQuantity());
@@ -126,53 +437,89 @@ public class HoldingService {
 
     public BigDecimal getCurrentPrice(String symbol, String assetType) {
         String type = assetType == null ? "" : assetType.toUpperCase();
+        if (serveWarmQuotes) {
+            BigDecimal warm = quoteCache.getLatest(type, symbol);
+            if (warm != null) {
+                return warm;
+            }
+        }
         if ("STOCK".equals(type)) {
-            return getStockPrice(symbol);
+            return quoteCache.get(type, symbol, () -> getStockPrice(symbol));
         } else if ("MUTUAL_FUND".equals(type) || "MUTUAL-FUND".equals(type) || "MF".equals(type)) {
-            return getMutualFundPrice(symbol);
+            return quoteCache.get(type, symbol, () -> getMutualFundPrice(symbol));
         } else {
             System.err.println("Unsupported asset type: " + assetType);
             return BigDecimal.ZERO;
         }
     }
 
+    public Mono<BigDecimal> getCurrentPriceAsync(String symbol, String assetType) {
+        String type = assetType == null ? "" : assetType.toUpperCase();
+        if (serveWarmQuotes) {
+            BigDecimal warm = quoteCache.getLatest(type, symbol);
+            if (warm != null) {
+                return Mono.just(warm);
+            }
+        }
+        if ("STOCK".equals(type)) {
+            return quoteCache.getAsync(type, symbol, () -> yahooFinanceService.getCurrentPriceAsync(symbol));
+        } else if ("MUTUAL_FUND".equals(type) || "MUTUAL-FUND".equals(type) || "MF".equals(type)) {
+            return quoteCache.getAsync(type, symbol, () -> getMutualFundPriceAsync(symbol));
+        } else {
+            System.err.println("Unsupported asset type: " + assetType);
+            return Mono.just(BigDecimal.ZERO);
+        }
+    }
+
+    public Map<String, Object> getQuoteCacheStats() {
+        return quoteCache.getStats();
+    }
+
     private BigDecimal getStockPrice(String symbol) {
         return yahooFinanceService.getCurrentPrice(symbol);
     }
 
     private BigDecimal getMutualFundPrice(String symbol) {
-        try {
-            String url = String.format("https://api.mfapi.in/mf/%s", symbol);
+        return getMutualFundPriceAsync(symbol).block();
+    }
 
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+    private Mono<BigDecimal> getMutualFundPriceAsync(String symbol) {
+        String url = String.format("https://api.mfapi.in/mf/%s", symbol);
+
+        return mfapiWebClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(String.class)
+                .flatMap(response -> Mono.fromCallable(() -> parseLatestNav(symbol, response)))
+                .onErrorResume(e -> {
+                    System.err.println("Error fetching mutual fund price for " + symbol + ": " + e.getMessage());
+                    return Mono.just(BigDecimal.ZERO);
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    System.err.println("No data from MFAPI for: " + symbol);
+                    return BigDecimal.ZERO;
+                }));
+    }
 
-            if (response == null || response.isEmpty()) {
-                System.err.println("No data from MFAPI for: " + symbol);
-                return BigDecimal.ZERO;
-            }
+    private BigDecimal parseLatestNav(String symbol, String response) throws Exception {
+        if (response.isEmpty()) {
+            System.err.println("No data from MFAPI for: " + symbol);
+            return BigDecimal.ZERO;
+        }
 
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode data = root.path("data");
+        JsonNode root = objectMapper.readTree(response);
+        JsonNode data = root.path("data");
 
-            if (data.isArray() && data.size() > 0) {
-                JsonNode latest = data.get(0);
-                String navStr = latest.path("nav").asText();
-                try {
-                    return new BigDecimal(navStr.replaceAll(",", "").trim());
-                } catch (Exception e) {
-                    return BigDecimal.ZERO;
-                }
-            } else {
-                System.err.println("No data from MFAPI for: " + symbol);
+        if (data.isArray() && data.size() > 0) {
+            JsonNode latest = data.get(0);
+            String navStr = latest.path("nav").asText();
+            try {
+                return new BigDecimal(navStr.replaceAll(",", "").trim());
+            } catch (Exception e) {
                 return BigDecimal.ZERO;
             }
-
-        } catch (Exception e) {
-            System.err.println("Error fetching mutual fund price for " + symbol + ": " + e.getMessage());
+        } else {
+            System.err.println("No data from MFAPI for: " + symbol);
             return BigDecimal.ZERO;
         }
     }
@@ -186,35 +533,7 @@ public class HoldingService {
     }
 
     public BigDecimal getUsdToInrRate() {
-        BigDecimal liveRate = fetchLiveUsdToInrRate();
-        if (liveRate != null && liveRate.compareTo(BigDecimal.ZERO) > 0) {
-            return liveRate;
-        } else {
-            return BigDecimal.valueOf(defaultUsdToInrRate);
-        }
-    }
-
-    private BigDecimal fetchLiveUsdToInrRate() {
-        try {
-            String url = "https://api.exchangerate-api.com/v4/latest/USD";
-
-            String response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            if(response != null && !response.isEmpty()) {
-                JsonNode jsonResponse = objectMapper.readTree(response);
-                JsonNode rates = jsonResponse.get("rates");
-                if(rates != null && rates.has("INR")) {
-                    return new BigDecimal(rates.get("INR").asText());
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error fetching live USD to INR rate: " + e.getMessage());
-        }
-        return null;
+        return exchangeRateProvider.getUsdToInrRate();
     }
 
     public String getCurrencySymbol(String assetType) {
@@ -249,12 +568,115 @@ public class HoldingService {
         }
     }
 
+    private BigDecimal convertToInr(BigDecimal amount, String assetType, BigDecimal usdToInrRate) {
+        if("STOCK".equals(assetType)) {
+            return amount.multiply(usdToInrRate).setScale(2, RoundingMode.HALF_UP);
+        }
+        return amount;
+    }
+
+    /**
+     * Cost basis and holding counts come straight from the incrementally maintained
+     * aggregates; only the market value needs a price per distinct position, so the
+     * holdings themselves are never loaded.
+     */
     public Map<String, Object> getPortfolioSummary() {
-        List<Holding> holdings = getAllHoldings();
+        PortfolioAggregates.View aggregates = portfolioAggregates.view();
+        Map<String, BigDecimal> prices = lookupPrices(priceTargets(aggregates));
+        return buildPortfolioSummary(aggregates, prices, getUsdToInrRate());
+    }
+
+    public Mono<Map<String, Object>> getPortfolioSummaryAsync() {
+        return Mono.defer(() -> {
+            PortfolioAggregates.View aggregates = portfolioAggregates.view();
+            return lookupPricesAsync(priceTargets(aggregates))
+                    .map(prices -> buildPortfolioSummary(aggregates, prices, getUsdToInrRate()));
+        });
+    }
+
+    /**
+     * Returns the shared portfolio snapshot, valuing the portfolio only when the last
+     * snapshot is older than the configured TTL. Concurrent callers that find no fresh
+     * snapshot wait on the same in-flight valuation instead of starting their own.
+     */
+    public PortfolioSnapshot getPortfolioSnapshot() {
+        try {
+            return sharedSnapshot(() -> CompletableFuture.completedFuture(buildSnapshot(getAllHoldings()))).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public Mono<PortfolioSnapshot> getPortfolioSnapshotAsync() {
+        // suppress cancellation so one cancelled subscriber does not cancel the shared valuation
+        return Mono.defer(() -> Mono.fromFuture(
+                sharedSnapshot(() -> getAllHoldingsAsync().collectList().map(this::buildSnapshot).toFuture()), true));
+    }
+
+    /**
+     * Drops the cached snapshot and detaches any in-flight valuation, so the next
+     * analytics call reflects holdings changed after it started.
+     */
+    public void invalidatePortfolioSnapshot() {
+        synchronized (snapshotLock) {
+            snapshotGeneration++;
+            portfolioSnapshot = null;
+            snapshotInFlight = null;
+        }
+    }
+
+    private CompletableFuture<PortfolioSnapshot> sharedSnapshot(Supplier<CompletableFuture<PortfolioSnapshot>> loader) {
+        CompletableFuture<PortfolioSnapshot> flight;
+        long generation;
+        synchronized (snapshotLock) {
+            PortfolioSnapshot current = portfolioSnapshot;
+            if (current != null && current.isFresh(Instant.now(), snapshotTtlMs)) {
+                return CompletableFuture.completedFuture(current);
+            }
+            if (snapshotInFlight != null) {
+                return snapshotInFlight;
+            }
+            flight = new CompletableFuture<>();
+            snapshotInFlight = flight;
+            generation = snapshotGeneration;
+        }
+
+        CompletableFuture<PortfolioSnapshot> loading;
+        try {
+            loading = loader.get();
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((snapshot, error) -> {
+            synchronized (snapshotLock) {
+                if (snapshotInFlight == flight) {
+                    snapshotInFlight = null;
+                }
+                if (error == null && generation == snapshotGeneration) {
+                    portfolioSnapshot = snapshot;
+                }
+            }
+            if (error != null) {
+                flight.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                flight.complete(snapshot);
+            }
+        });
+        return flight;
+    }
 
+    private PortfolioSnapshot buildSnapshot(List<Holding> holdings) {
+        return PortfolioSnapshot.of(holdings, getUsdToInrRate(), Instant.now());
+    }
+
+    private Map<String, Object> buildPortfolioSummary(PortfolioAggregates.View aggregates,
+                                                      Map<String, BigDecimal> prices, BigDecimal usdToInrRate) {
         Map<String, Object> summary = new HashMap<>();
 
-        if(holdings.isEmpty()) {
+        if(aggregates.getHoldingCount() == 0) {
             summary.put("totalValue", BigDecimal.ZERO);
             summary.put("totalInvestment", BigDecimal.ZERO);
             summary.put("totalProfitLoss", BigDecimal.ZERO);
@@ -264,30 +686,28 @@ public class HoldingService {
             summary.put("compositionByCategory", new HashMap<>());
             summary.put("currency", "INR");
             summary.put("currencySymbol", "₹");
-            summary.put("exchangeRate", getUsdToInrRate());
+            summary.put("exchangeRate", usdToInrRate);
             return summary;
         }
 
-        BigDecimal totalCurrentValueInr = BigDecimal.ZERO;
         BigDecimal totalInvestmentInr = BigDecimal.ZERO;
+        for (Map.Entry<String, BigDecimal> entry : aggregates.getCostBasisByAssetType().entrySet()) {
+            totalInvestmentInr = totalInvestmentInr.add(convertToInr(entry.getValue(), entry.getKey(), usdToInrRate));
+        }
+
+        BigDecimal totalCurrentValueInr = BigDecimal.ZERO;
         Map<String, BigDecimal> assetCompositionMap = new HashMap<>();
         Map<String, BigDecimal> categoryCompositionMap = new HashMap<>();
 
-        for(Holding holding : holdings) {
-            totalCurrentValueInr = totalCurrentValueInr.add(holding.getCurrentValueInr());
-
-            BigDecimal purchaseValue = holding.getPurchasePrice().multiply(holding.getQuantity());
-            BigDecimal purchaseValueInr = convertToInr(purchaseValue, holding.getAssetType());
-            totalInvestmentInr = totalInvestmentInr.add(purchaseValueInr);
-
-            String assetType = holding.getAssetType();
-            BigDecimal currentAssetValue = assetCompositionMap.getOrDefault(assetType, BigDecimal.ZERO);
-            assetCompositionMap.put(assetType, currentAssetValue.add(holding.getCurrentValueInr()));
+        for (PortfolioAggregates.PositionTotal position : aggregates.getPositions()) {
+            BigDecimal price = prices.getOrDefault(priceKey(position.getAssetType(), position.getSymbol()), BigDecimal.ZERO);
+            BigDecimal currentValue = price.multiply(position.getQuantity()).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal currentValueInr = convertToInr(currentValue, position.getAssetType(), usdToInrRate);
+            totalCurrentValueInr = totalCurrentValueInr.add(currentValueInr);
 
-            if(holding.getCategory() != null && !holding.getCategory().isEmpty()) {
-                String category = holding.getCategory();
-                BigDecimal currentCategoryValue = categoryCompositionMap.getOrDefault(category, BigDecimal.ZERO);
-                categoryCompositionMap.put(category, currentCategoryValue.add(holding.getCurrentValueInr()));
+            assetCompositionMap.merge(position.getAssetType(), currentValueInr, BigDecimal::add);
+            if(position.getCategory() != null && !position.getCategory().isEmpty()) {
+                categoryCompositionMap.merge(position.getCategory(), currentValueInr, BigDecimal::add);
             }
         }
 
@@ -302,10 +722,10 @@ public class HoldingService {
         summary.put("totalInvestment", totalInvestmentInr.setScale(2, RoundingMode.HALF_UP));
         summary.put("totalProfitLoss", totalProfitLoss.setScale(2, RoundingMode.HALF_UP));
         summary.put("totalProfitLossPercentage", profitLossPercentage.setScale(2, RoundingMode.HALF_UP));
-        summary.put("totalHoldings", holdings.size());
+        summary.put("totalHoldings", Math.toIntExact(aggregates.getHoldingCount()));
         summary.put("currency", "INR");
         summary.put("currencySymbol", "₹");
-        summary.put("exchangeRate", getUsdToInrRate());
+        summary.put("exchangeRate", usdToInrRate);
 
         Map<String, BigDecimal> roundedAssetComposition = new HashMap<>();
         assetCompositionMap.forEach((key, value) ->
@@ -323,98 +743,190 @@ public class HoldingService {
     }
 
     public Holding getBestPerformer() {
-        List<Holding> holdings = getAllHoldings();
-        return holdings.stream()
-                .max((h1, h2) -> h1.getProfitLossPercentage().compareTo(h2.getProfitLossPercentage())).orElse(null);
+        return getPortfolioSnapshot().getBestPerformer();
     }
 
     public Holding getWorstPerformer() {
-        List<Holding> holdings = getAllHoldings();
-        return holdings.stream()
-                .min((h1, h2) -> h1.getProfitLossPercentage().compareTo(h2.getProfitLossPercentage())).orElse(null);
+        return getPortfolioSnapshot().getWorstPerformer();
+    }
+
+    /**
+     * Builds the requested dashboard sections from a single portfolio snapshot.
+     * Unknown section names are ignored; an empty selection returns the default sections.
+     * The diversification section is built on the bounded elastic scheduler.
+     */
+    public Mono<Map<String, Object>> getDashboardAsync(Collection<String> sections) {
+        Set<String> requested = new LinkedHashSet<>();
+        if (sections != null) {
+            for (String section : sections) {
+                if (section != null && DASHBOARD_SECTIONS.contains(section.trim())) {
+                    requested.add(section.trim());
+                }
+            }
+        }
+        if (requested.isEmpty()) {
+            requested.addAll(DEFAULT_DASHBOARD_SECTIONS);
+        }
+        Mono<PortfolioSnapshot> snapshot = getPortfolioSnapshotAsync();
+        if (requested.contains("diversification")) {
+            // the snapshot can complete on an event-loop thread, and the correlations
+            // read stored series over JDBC
+            snapshot = snapshot.publishOn(Schedulers.boundedElastic());
+        }
+        return snapshot.map(valued -> buildDashboard(valued, requested));
+    }
+
+    private Map<String, Object> buildDashboard(PortfolioSnapshot snapshot, Set<String> sections) {
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        for (String section : sections) {
+            switch (section) {
+                case "summary" -> dashboard.put(section,
+                        buildPortfolioSummary(snapshot.getAggregates(), snapshot.getPrices(), snapshot.getUsdToInrRate()));
+                case "bestPerformer" -> dashboard.put(section, snapshot.getBestPerformer());
+                case "worstPerformer" -> dashboard.put(section, snapshot.getWorstPerformer());
+                case "diversification" -> dashboard.put(section, buildDiversificationSuggestions(snapshot));
+                case "holdings" -> dashboard.put(section, snapshot.getHoldings());
+                default -> { }
+            }
+        }
+        dashboard.put("asOf", snapshot.getComputedAt().toString());
+        return dashboard;
+    }
+
+    /**
+     * Top and bottom performers from the performance index. Only holdings whose price
+     * has never been seen are priced here; everything else is already ranked.
+     */
+    public Map<String, Object> getPerformers(int top, int bottom, String by) {
+        List<PriceTarget> unpriced = new ArrayList<>();
+        performanceIndex.getUnpricedSymbols().forEach((assetType, symbols) ->
+                symbols.forEach(symbol -> unpriced.add(new PriceTarget(assetType, symbol))));
+        if (!unpriced.isEmpty()) {
+            // warm cache hits store nothing and publish no QuoteUpdatedEvent, so rank from the result
+            Map<String, BigDecimal> prices = lookupPrices(unpriced);
+            for (PriceTarget target : unpriced) {
+                BigDecimal price = prices.get(target.key());
+                // a failed lookup comes back as zero
+                if (price != null && price.signum() > 0) {
+                    performanceIndex.updatePrice(target.assetType, target.symbol, price);
+                }
+            }
+        }
+        return performanceIndex.getPerformers(top, bottom, by);
     }
 
     public Map<String, Object> getDiversificationSuggestions() {
-        List<Holding> holdings = getAllHoldings();
+        return buildDiversificationSuggestions(getPortfolioSnapshot());
+    }
+
+    /**
+     * Diversification from how holdings actually move together: symbols whose daily
+     * returns correlate at or above {@code diversification.correlation-threshold} are
+     * grouped into one cluster, and the effective number of independent bets is
+     * {@code 1 / sum(w^2)} over the clusters' INR weights. Holdings without enough
+     * stored history fall back to one cluster per stock category, or per symbol. The
+     * risk level is the highest of the concentration, independent-bets and stock
+     * allocation assessments.
+     */
+    private Map<String, Object> buildDiversificationSuggestions(PortfolioSnapshot snapshot) {
         Map<String, Object> suggestions = new HashMap<>();
         List<String> recommendationsList = new ArrayList<>();
 
-        if(holdings.isEmpty()) {
+        if(snapshot.isEmpty()) {
             suggestions.put("needsDiversification", false);
             suggestions.put("recommendations", recommendationsList);
             suggestions.put("riskLevel", "N/A");
             return suggestions;
         }
 
-        BigDecimal tempTotalStockValue = BigDecimal.ZERO;
-        Map<String, BigDecimal> categoryValues = new HashMap<>();
-
-        for(Holding holding : holdings) {
-            if("STOCK".equals(holding.getAssetType()) && holding.getCategory() != null) {
-                tempTotalStockValue = tempTotalStockValue.add(holding.getCurrentValue());
-                String category = holding.getCategory();
-                BigDecimal currentValue = categoryValues.getOrDefault(category, BigDecimal.ZERO);
-                categoryValues.put(category, currentValue.add(holding.getCurrentValue()));
-            }
-        }
-
-        final BigDecimal totalStockValue = tempTotalStockValue;
-
-        if(totalStockValue.compareTo(BigDecimal.ZERO) == 0) {
+        BigDecimal totalValue = snapshot.getTotalValueInr();
+        if(totalValue.compareTo(BigDecimal.ZERO) == 0) {
             suggestions.put("needsDiversification", false);
             suggestions.put("recommendations", recommendationsList);
             suggestions.put("riskLevel", "Low");
             return suggestions;
         }
 
-        Map<String, BigDecimal> categoryPercentages = new HashMap<>();
-        categoryValues.forEach((category, value) -> {
-            BigDecimal percentage = value.divide(totalStockValue, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
-            categoryPercentages.put(category, percentage);
-        });
+        Map<String, BigDecimal> valueBySymbol = new LinkedHashMap<>();
+        Map<String, String> categoryBySymbol = new HashMap<>();
+        for(Holding holding : snapshot.getHoldings()) {
+            if(holding.getSymbol() == null) {
+                continue;
+            }
+            String symbol = holding.getSymbol().trim();
+            valueBySymbol.merge(symbol, holding.getCurrentValueInr(), BigDecimal::add);
+            if("STOCK".equals(holding.getAssetType()) && holding.getCategory() != null) {
+                categoryBySymbol.putIfAbsent(symbol, holding.getCategory());
+            }
+        }
+
+        CorrelationMatrix correlations = correlationService.getCorrelationMatrix(valueBySymbol.keySet(), LocalDate.now());
+        List<List<String>> clusters = new ArrayList<>(correlations.clusters(correlationThreshold));
+        Map<String, List<String>> fallbackGroups = new LinkedHashMap<>();
+        for(String symbol : correlations.getExcluded()) {
+            String category = categoryBySymbol.get(symbol);
+            fallbackGroups.computeIfAbsent(category != null ? category : symbol, key -> new ArrayList<>()).add(symbol);
+        }
+        int correlatedClusters = clusters.size();
+        List<String> clusterNames = new ArrayList<>();
+        for(List<String> cluster : clusters) {
+            clusterNames.add(String.join(", ", cluster));
+        }
+        clusters.addAll(fallbackGroups.values());
+        clusterNames.addAll(fallbackGroups.keySet());
 
         boolean needsDiversification = false;
-        final String[] riskLevel = {"Moderate"};
+        // each check can only raise the level, so a later one never hides an earlier warning
+        String riskLevel = "Low";
+        boolean concentrated = false;
+        double sumOfSquares = 0;
+        List<Map<String, Object>> clusterBreakdown = new ArrayList<>();
+        for(int i = 0; i < clusters.size(); i++) {
+            BigDecimal clusterValue = BigDecimal.ZERO;
+            for(String symbol : clusters.get(i)) {
+                clusterValue = clusterValue.add(valueBySymbol.get(symbol));
+            }
+            BigDecimal weight = clusterValue.divide(totalValue, 6, RoundingMode.HALF_UP);
+            sumOfSquares += weight.doubleValue() * weight.doubleValue();
+            BigDecimal percentage = weight.multiply(BigDecimal.valueOf(100)).setScale(2, RoundingMode.HALF_UP);
+            boolean correlated = i < correlatedClusters && clusters.get(i).size() > 1;
 
-        for(Map.Entry<String, BigDecimal> entry : categoryPercentages.entrySet()) {
-            String category = entry.getKey();
-            BigDecimal percentage = entry.getValue();
+            Map<String, Object> cluster = new LinkedHashMap<>();
+            cluster.put("symbols", clusters.get(i));
+            cluster.put("percentage", percentage);
+            cluster.put("basis", i < correlatedClusters ? "correlation" : "category");
+            clusterBreakdown.add(cluster);
 
             if(percentage.compareTo(new BigDecimal(40)) > 0) {
                 needsDiversification = true;
-                riskLevel[0] = "High";
-                recommendationsList.add(String.format("High concentration in %s (%.2f%%). Consider diversifying into other sectors.", category, percentage.doubleValue()));
+                concentrated = true;
+                riskLevel = higherRisk(riskLevel, "High");
+                recommendationsList.add(correlated
+                        ? String.format("%s move together (correlation of %.2f or more) and make up %.2f%% of the portfolio. Consider assets that are less correlated with them.",
+                                clusterNames.get(i), correlationThreshold, percentage.doubleValue())
+                        : String.format("High concentration in %s (%.2f%%). Consider diversifying into other assets.",
+                                clusterNames.get(i), percentage.doubleValue()));
             } else if (percentage.compareTo(new BigDecimal(30)) > 0) {
-                recommendationsList.add(String.format("Moderate concentration in %s (%.2f%%). Monitor and consider diversification if it increases.", category, percentage.doubleValue()));
+                recommendationsList.add(String.format("Moderate concentration in %s (%.2f%%). Monitor and consider diversification if it increases.",
+                        clusterNames.get(i), percentage.doubleValue()));
             }
         }
 
-        Set<String> importantCategories = new HashSet<>(Arrays.asList("Technology", "Healthcare", "Finance", "Consumer Goods", "Energy"));
-        Set<String> missingCategories = new HashSet<>(importantCategories);
-        missingCategories.removeAll(categoryValues.keySet());
-
-        if(!missingCategories.isEmpty() && categoryValues.size() < 3) {
+        double effectiveBets = sumOfSquares > 0 ? 1 / sumOfSquares : 0;
+        if(effectiveBets < 1.5) {
+            riskLevel = higherRisk(riskLevel, "Very High");
             needsDiversification = true;
-            for(String missingCategory : missingCategories) {
-                recommendationsList.add(String.format("Consider adding holdings in the %s sector for better diversification.", missingCategory));
-            }
+            recommendationsList.add("Portfolio behaves like a single position. Consider adding assets that do not move with your current holdings.");
+        } else if (effectiveBets < 2.5) {
+            riskLevel = higherRisk(riskLevel, "High");
+            recommendationsList.add(String.format("Portfolio holds only %.2f independent bets. Consider adding less correlated assets.", effectiveBets));
+        } else if (effectiveBets < 5) {
+            riskLevel = higherRisk(riskLevel, "Moderate");
+        } else if (!concentrated) {
+            recommendationsList.add(String.format("Good diversification across %.2f independent bets!", effectiveBets));
         }
 
-        if(categoryValues.size() == 1) {
-            riskLevel[0] = "Very High";
-            needsDiversification = true;
-            recommendationsList.add("Portfolio is concentrated in a single category. Consider diversifying into multiple sectors.");
-        } else if (categoryValues.size() == 2) {
-            riskLevel[0] = "High";
-            recommendationsList.add("Portfolio has limited category diversification. Consider adding more sectors.");
-        } else if (categoryValues.size() >= 5) {
-            riskLevel[0] = "Low";
-            recommendationsList.add("Good diversification across multiple sectors!");
-        }
-
-        Map<String, Object> summary = getPortfolioSummary();
-        Map<String, BigDecimal> assetComposition = (Map<String, BigDecimal>) summary.get("compositionByAssetType");
-        BigDecimal totalValue = (BigDecimal) summary.get("totalValue");
+        Map<String, BigDecimal> assetComposition = snapshot.getCompositionByAssetType();
 
         if(assetComposition.containsKey("STOCK")) {
             BigDecimal stockPercentage = assetComposition.get("STOCK")
@@ -423,7 +935,7 @@ public class HoldingService {
             if(stockPercentage.compareTo(new BigDecimal("80")) > 0) {
                 recommendationsList.add(String.format("High allocation to stocks (%.2f%%). Consider balancing with other asset types.", stockPercentage.doubleValue()));
             } else if (stockPercentage.compareTo(new BigDecimal("90")) > 0) {
-                riskLevel[0] = "Very High";
+                riskLevel = higherRisk(riskLevel, "Very High");
                 needsDiversification = true;
                 recommendationsList.add(String.format("Very high allocation to stocks (%.2f%%). This increases risk significantly.", stockPercentage.doubleValue()));
             }
@@ -432,14 +944,29 @@ public class HoldingService {
             recommendationsList.add("Your portfolio is well diversified!");
         }
 
+        Map<String, BigDecimal> categoryPercentages = new HashMap<>();
+        BigDecimal totalStockValue = snapshot.getTotalStockValue();
+        if(totalStockValue.compareTo(BigDecimal.ZERO) != 0) {
+            snapshot.getStockCategoryValues().forEach((category, value) -> categoryPercentages.put(category,
+                    value.divide(totalStockValue, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))));
+        }
+
         suggestions.put("needsDiversification", needsDiversification);
         suggestions.put("recommendations", recommendationsList);
-        suggestions.put("riskLevel", riskLevel[0]);
+        suggestions.put("riskLevel", riskLevel);
+        suggestions.put("effectiveBets", BigDecimal.valueOf(effectiveBets).setScale(2, RoundingMode.HALF_UP));
+        suggestions.put("correlationThreshold", correlationThreshold);
+        suggestions.put("observations", correlations.getObservations());
+        suggestions.put("clusters", clusterBreakdown);
         suggestions.put("categoryBreakdown", categoryPercentages);
 
         return suggestions;
     }
 
+    private static String higherRisk(String current, String candidate) {
+        return RISK_LEVELS.indexOf(candidate) > RISK_LEVELS.indexOf(current) ? candidate : current;
+    }
+
     public Map<String, Object> searchStocks(String keywords) {
         Map<String, Object> result = new HashMap<>();
 
@@ -449,7 +976,7 @@ public class HoldingService {
                     keywords
             );
 
-            String response = webClient.get()
+            String response = yahooWebClient.get()
                     .uri(url)
                     .retrieve()
                     .bodyToMono(String.class)
@@ -504,7 +1031,7 @@ public class HoldingService {
                     symbol
             );
 
-            String response = webClient.get()
+            String response = yahooWebClient.get()
                     .uri(quoteUrl)
                     .retrieve()
                     .bodyToMono(String.class)
@@ -551,7 +1078,7 @@ public class HoldingService {
             System.out.println("Searching mutual funds for: " + keywords);
             String url = String.format("https://api.mfapi.in/mf/search?q=%s", keywords);
 
-            String response = webClient.get()
+            String response = mfapiWebClient.get()
                     .uri(url)
                     .retrieve()
                     .bodyToMono(String.class)
@@ -597,7 +1124,7 @@ public class HoldingService {
             System.out.println("Fetching mutual fund details for scheme: " + schemeCode);
             String url = String.format("https://api.mfapi.in/mf/%s/latest", schemeCode);
 
-            String response = webClient.get()
+            String response = mfapiWebClient.get()
                     .uri(url)
                     .retrieve()
                     .bodyToMono(String.class)
@@ -635,4 +1162,18 @@ public class HoldingService {
 
         return details;
     }
+
+    private static final class PriceTarget {
+        private final String assetType;
+        private final String symbol;
+
+        private PriceTarget(String assetType, String symbol) {
+            this.assetType = assetType;
+            this.symbol = symbol;
+        }
+
+        private String key() {
+            return priceKey(assetType, symbol);
+        }
+    }
 }
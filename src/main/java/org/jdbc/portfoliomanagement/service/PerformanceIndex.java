@@ -0,0 +1,338 @@
+package org.jdbc.portfoliomanagement.service;
+
+import jakarta.annotation.PostConstruct;
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Holdings ordered by profit/loss, both as a percentage and as an absolute INR
+ * amount. Entries are re-ranked when a {@link QuoteUpdatedEvent} arrives for their
+ * asset, so a top/bottom-K query only walks K entries from either end instead of
+ * revaluing the portfolio. USD and INR holdings are kept in separate orders by their
+ * native profit/loss and merged at the current USD to INR rate when queried, so a
+ * rate refresh never leaves the absolute order stale.
+ */
+@Service
+public class PerformanceIndex {
+
+    public static final String BY_PERCENTAGE = "pct";
+    public static final String BY_ABSOLUTE = "abs";
+
+    private static final Comparator<Performer> PERCENTAGE_ORDER =
+            Comparator.comparing(Performer::getProfitLossPercentage).thenComparing(Performer::getHoldingId);
+    private static final Comparator<Performer> NATIVE_ORDER =
+            Comparator.comparing((Performer performer) -> performer.exactProfitLoss).thenComparing(Performer::getHoldingId);
+    private static final Comparator<Performer> ABSOLUTE_ORDER =
+            Comparator.comparing(Performer::getProfitLossInr).thenComparing(Performer::getHoldingId);
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private QuoteCache quoteCache;
+
+    @Autowired
+    private ExchangeRateProvider exchangeRateProvider;
+
+    private final Map<Long, Holding> tracked = new HashMap<>();
+    private final Map<Long, Performer> ranked = new HashMap<>();
+    private final Map<String, Set<Long>> holdingsByQuote = new HashMap<>();
+    private final NavigableSet<Performer> byPercentage = new TreeSet<>(PERCENTAGE_ORDER);
+    private final NavigableSet<Performer> usdByProfitLoss = new TreeSet<>(NATIVE_ORDER);
+    private final NavigableSet<Performer> inrByProfitLoss = new TreeSet<>(NATIVE_ORDER);
+
+    @PostConstruct
+    public void seed() {
+        List<Object[]> rows = holdingRepository.findRankingFields();
+        synchronized (this) {
+            for (Object[] row : rows) {
+                trackHolding((Long) row[0], (String) row[1], (String) row[2], (BigDecimal) row[3], (BigDecimal) row[4]);
+            }
+        }
+    }
+
+    /**
+     * Starts tracking a holding, or replaces the tracked copy after an update. It is
+     * ranked straight away if a usable price is cached, stale or not, otherwise once a
+     * quote arrives.
+     */
+    public synchronized void track(Holding holding) {
+        trackHolding(holding.getId(), holding.getAssetType(), holding.getSymbol(), holding.getQuantity(),
+                holding.getPurchasePrice());
+    }
+
+    public synchronized void untrack(Long holdingId) {
+        Holding previous = tracked.remove(holdingId);
+        if (previous != null) {
+            unrank(holdingId);
+            Set<Long> ids = holdingsByQuote.get(quoteKey(previous));
+            if (ids != null) {
+                ids.remove(holdingId);
+                if (ids.isEmpty()) {
+                    holdingsByQuote.remove(quoteKey(previous));
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onQuoteUpdated(QuoteUpdatedEvent event) {
+        updatePrice(event.getAssetType(), event.getSymbol(), event.getPrice());
+    }
+
+    /**
+     * Re-ranks every tracked holding of the asset at {@code price}. Used for prices
+     * that were served from the cache, which publish no {@link QuoteUpdatedEvent}.
+     */
+    public synchronized void updatePrice(String assetType, String symbol, BigDecimal price) {
+        Set<Long> ids = holdingsByQuote.get(quoteKey(assetType, symbol));
+        if (ids == null) {
+            return;
+        }
+        for (Long id : ids) {
+            rank(tracked.get(id), price);
+        }
+    }
+
+    /**
+     * Top and bottom performers, best first and worst first respectively. INR amounts
+     * are at the current USD to INR rate.
+     */
+    public synchronized Map<String, Object> getPerformers(int top, int bottom, String by) {
+        BigDecimal usdToInrRate = exchangeRateProvider.getUsdToInrRate();
+        boolean absolute = BY_ABSOLUTE.equals(by);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("by", absolute ? BY_ABSOLUTE : BY_PERCENTAGE);
+        result.put("top", absolute ? firstByInr(true, top, usdToInrRate)
+                : first(byPercentage.descendingIterator(), top, usdToInrRate));
+        result.put("bottom", absolute ? firstByInr(false, bottom, usdToInrRate)
+                : first(byPercentage.iterator(), bottom, usdToInrRate));
+        result.put("ranked", ranked.size());
+        result.put("unpriced", tracked.size() - ranked.size());
+        return result;
+    }
+
+    /**
+     * Symbols of tracked holdings that have no price yet, grouped by asset type.
+     */
+    public synchronized Map<String, Set<String>> getUnpricedSymbols() {
+        Map<String, Set<String>> unpriced = new LinkedHashMap<>();
+        tracked.forEach((id, holding) -> {
+            if (!ranked.containsKey(id)) {
+                unpriced.computeIfAbsent(holding.getAssetType(), type -> new LinkedHashSet<>()).add(holding.getSymbol());
+            }
+        });
+        return unpriced;
+    }
+
+    /**
+     * Ranked entries of every tracked holding of the given asset, i.e. their valuation
+     * at the most recent quote.
+     */
+    public synchronized List<Performer> getRanked(String assetType, String symbol) {
+        Set<Long> ids = holdingsByQuote.get(quoteKey(assetType, symbol));
+        if (ids == null) {
+            return List.of();
+        }
+        BigDecimal usdToInrRate = exchangeRateProvider.getUsdToInrRate();
+        List<Performer> performers = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Performer performer = ranked.get(id);
+            if (performer != null) {
+                performers.add(atRate(performer, usdToInrRate));
+            }
+        }
+        return performers;
+    }
+
+    private void trackHolding(Long id, String assetType, String symbol, BigDecimal quantity, BigDecimal purchasePrice) {
+        if (id == null) {
+            return;
+        }
+        untrack(id);
+
+        // only the ranked fields are kept; the purchase date plays no part in the order
+        Holding copy = new Holding(QuoteCache.normalizeAssetType(assetType), symbol, quantity, purchasePrice, null);
+        copy.setId(id);
+        tracked.put(copy.getId(), copy);
+        holdingsByQuote.computeIfAbsent(quoteKey(copy), key -> new LinkedHashSet<>()).add(copy.getId());
+
+        // a quote past its TTL but within max-stale is what valuations are served at too
+        BigDecimal price = quoteCache.getLatest(copy.getAssetType(), copy.getSymbol());
+        if (price != null) {
+            rank(copy, price);
+        }
+    }
+
+    private void rank(Holding holding, BigDecimal price) {
+        if (holding == null || holding.getQuantity() == null || holding.getPurchasePrice() == null) {
+            return;
+        }
+        unrank(holding.getId());
+
+        BigDecimal currentValue = price.multiply(holding.getQuantity());
+        BigDecimal purchaseValue = holding.getPurchasePrice().multiply(holding.getQuantity());
+        BigDecimal profitLoss = currentValue.subtract(purchaseValue);
+        BigDecimal percentage = purchaseValue.compareTo(BigDecimal.ZERO) > 0
+                ? profitLoss.divide(purchaseValue, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
+                : BigDecimal.ZERO;
+        boolean usd = isUsd(holding.getAssetType());
+
+        // USD entries carry no INR amount until they are read at the then current rate
+        Performer performer = new Performer(holding.getId(), holding.getAssetType(), holding.getSymbol(),
+                holding.getQuantity(), price, profitLoss.setScale(2, RoundingMode.HALF_UP), percentage,
+                usd ? null : profitLoss.setScale(2, RoundingMode.HALF_UP), profitLoss);
+        ranked.put(performer.getHoldingId(), performer);
+        byPercentage.add(performer);
+        (usd ? usdByProfitLoss : inrByProfitLoss).add(performer);
+    }
+
+    private void unrank(Long holdingId) {
+        Performer previous = ranked.remove(holdingId);
+        if (previous != null) {
+            byPercentage.remove(previous);
+            (isUsd(previous.getAssetType()) ? usdByProfitLoss : inrByProfitLoss).remove(previous);
+        }
+    }
+
+    private static List<Performer> first(Iterator<Performer> iterator, int limit, BigDecimal usdToInrRate) {
+        List<Performer> performers = new ArrayList<>(Math.max(0, limit));
+        while (performers.size() < limit && iterator.hasNext()) {
+            performers.add(atRate(iterator.next(), usdToInrRate));
+        }
+        return performers;
+    }
+
+    /**
+     * The first {@code limit} performers by INR profit/loss, merged from the USD and INR
+     * orders. Converting at a positive rate keeps the USD order, so at most
+     * {@code limit} entries are read from either end.
+     */
+    private List<Performer> firstByInr(boolean best, int limit, BigDecimal usdToInrRate) {
+        Iterator<Performer> usd = best ? usdByProfitLoss.descendingIterator() : usdByProfitLoss.iterator();
+        Iterator<Performer> inr = best ? inrByProfitLoss.descendingIterator() : inrByProfitLoss.iterator();
+        Performer nextUsd = usd.hasNext() ? usd.next().atRate(usdToInrRate) : null;
+        Performer nextInr = inr.hasNext() ? inr.next() : null;
+
+        List<Performer> performers = new ArrayList<>(Math.max(0, limit));
+        while (performers.size() < limit && (nextUsd != null || nextInr != null)) {
+            boolean usdFirst = nextInr == null
+                    || nextUsd != null && (ABSOLUTE_ORDER.compare(nextUsd, nextInr) > 0) == best;
+            if (usdFirst) {
+                performers.add(nextUsd);
+                nextUsd = usd.hasNext() ? usd.next().atRate(usdToInrRate) : null;
+            } else {
+                performers.add(nextInr);
+                nextInr = inr.hasNext() ? inr.next() : null;
+            }
+        }
+        return performers;
+    }
+
+    private static Performer atRate(Performer performer, BigDecimal usdToInrRate) {
+        return isUsd(performer.getAssetType()) ? performer.atRate(usdToInrRate) : performer;
+    }
+
+    private static boolean isUsd(String assetType) {
+        return QuoteCache.STOCK.equals(assetType);
+    }
+
+    private static String quoteKey(Holding holding) {
+        return quoteKey(holding.getAssetType(), holding.getSymbol());
+    }
+
+    private static String quoteKey(String assetType, String symbol) {
+        return QuoteCache.normalizeAssetType(assetType) + ":" + symbol;
+    }
+
+    public static class Performer {
+        private final Long holdingId;
+        private final String assetType;
+        private final String symbol;
+        private final BigDecimal quantity;
+        private final BigDecimal currentPrice;
+        private final BigDecimal profitLoss;
+        private final BigDecimal profitLossPercentage;
+        private final BigDecimal profitLossInr;
+        private final BigDecimal exactProfitLoss;
+
+        public Performer(Long holdingId, String assetType, String symbol, BigDecimal quantity, BigDecimal currentPrice,
+                         BigDecimal profitLoss, BigDecimal profitLossPercentage, BigDecimal profitLossInr) {
+            this(holdingId, assetType, symbol, quantity, currentPrice, profitLoss, profitLossPercentage, profitLossInr,
+                    profitLoss);
+        }
+
+        private Performer(Long holdingId, String assetType, String symbol, BigDecimal quantity, BigDecimal currentPrice,
+                          BigDecimal profitLoss, BigDecimal profitLossPercentage, BigDecimal profitLossInr,
+                          BigDecimal exactProfitLoss) {
+            this.holdingId = holdingId;
+            this.assetType = assetType;
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.currentPrice = currentPrice;
+            this.profitLoss = profitLoss;
+            this.profitLossPercentage = profitLossPercentage;
+            this.profitLossInr = profitLossInr;
+            this.exactProfitLoss = exactProfitLoss;
+        }
+
+        /**
+         * This entry with its native profit/loss converted at {@code rate}, unrounded
+         * before conversion as in {@link HoldingService}.
+         */
+        private Performer atRate(BigDecimal rate) {
+            return new Performer(holdingId, assetType, symbol, quantity, currentPrice, profitLoss, profitLossPercentage,
+                    exactProfitLoss.multiply(rate).setScale(2, RoundingMode.HALF_UP), exactProfitLoss);
+        }
+
+        public Long getHoldingId() {
+            return holdingId;
+        }
+
+        public String getAssetType() {
+            return assetType;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public BigDecimal getQuantity() {
+            return quantity;
+        }
+
+        public BigDecimal getCurrentPrice() {
+            return currentPrice;
+        }
+
+        public BigDecimal getProfitLoss() {
+            return profitLoss;
+        }
+
+        public BigDecimal getProfitLossPercentage() {
+            return profitLossPercentage;
+        }
+
+        public BigDecimal getProfitLossInr() {
+            return profitLossInr;
+        }
+    }
+}
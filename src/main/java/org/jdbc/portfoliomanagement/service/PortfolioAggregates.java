@@ -0,0 +1,229 @@
+package org.jdbc.portfoliomanagement.service;
+
+import jakarta.annotation.PostConstruct;
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * In-memory totals of the persisted holding fields, grouped by (assetType, symbol,
+ * category). Seeded from the database at startup and kept current with deltas as
+ * holdings are created, updated and deleted, so cost basis and composition never
+ * need a pass over every holding.
+ */
+@Service
+public class PortfolioAggregates {
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    private final Map<PositionKey, Position> positions = new LinkedHashMap<>();
+    private final Map<String, BigDecimal> costBasisByAssetType = new HashMap<>();
+    private long holdingCount;
+
+    @PostConstruct
+    public void seed() {
+        List<Object[]> composition = holdingRepository.findPortfolioComposition();
+        List<Object[]> positionRows = holdingRepository.findPositionTotals();
+
+        synchronized (this) {
+            positions.clear();
+            costBasisByAssetType.clear();
+            holdingCount = 0;
+
+            for (Object[] row : composition) {
+                String assetType = normalizeAssetType((String) row[0]);
+                costBasisByAssetType.merge(assetType, toBigDecimal(row[2]), BigDecimal::add);
+                holdingCount += ((Number) row[1]).longValue();
+            }
+            for (Object[] row : positionRows) {
+                PositionKey key = new PositionKey(normalizeAssetType((String) row[0]), (String) row[1], (String) row[2]);
+                Position position = positions.computeIfAbsent(key, k -> new Position());
+                position.holdingCount += ((Number) row[3]).longValue();
+                position.quantity = position.quantity.add(toBigDecimal(row[4]));
+                position.costBasis = position.costBasis.add(toBigDecimal(row[5]));
+            }
+        }
+        System.out.println("Seeded portfolio aggregates: " + holdingCount + " holdings in " + positions.size() + " positions");
+    }
+
+    public synchronized void add(Holding holding) {
+        apply(holding, 1);
+    }
+
+    public synchronized void remove(Holding holding) {
+        apply(holding, -1);
+    }
+
+    public synchronized void replace(Holding before, Holding after) {
+        apply(before, -1);
+        apply(after, 1);
+    }
+
+    /**
+     * Point-in-time copy of the aggregates. Costs O(distinct positions).
+     */
+    public synchronized View view() {
+        List<PositionTotal> totals = new ArrayList<>(positions.size());
+        positions.forEach((key, position) -> totals.add(new PositionTotal(
+                key.assetType, key.symbol, key.category, position.holdingCount, position.quantity, position.costBasis)));
+        return new View(Collections.unmodifiableList(totals), Collections.unmodifiableMap(new HashMap<>(costBasisByAssetType)), holdingCount);
+    }
+
+    /**
+     * The aggregates of exactly the given holdings, independent of the live totals.
+     */
+    static View viewOf(Collection<Holding> holdings) {
+        PortfolioAggregates aggregates = new PortfolioAggregates();
+        holdings.forEach(aggregates::add);
+        return aggregates.view();
+    }
+
+    private void apply(Holding holding, int sign) {
+        String assetType = normalizeAssetType(holding.getAssetType());
+        BigDecimal quantity = holding.getQuantity() != null ? holding.getQuantity() : BigDecimal.ZERO;
+        BigDecimal purchasePrice = holding.getPurchasePrice() != null ? holding.getPurchasePrice() : BigDecimal.ZERO;
+        BigDecimal costBasis = quantity.multiply(purchasePrice);
+        if (sign < 0) {
+            quantity = quantity.negate();
+            costBasis = costBasis.negate();
+        }
+
+        holdingCount += sign;
+        costBasisByAssetType.merge(assetType, costBasis, BigDecimal::add);
+
+        PositionKey key = new PositionKey(assetType, holding.getSymbol(), holding.getCategory());
+        Position position = positions.computeIfAbsent(key, k -> new Position());
+        position.holdingCount += sign;
+        position.quantity = position.quantity.add(quantity);
+        position.costBasis = position.costBasis.add(costBasis);
+        if (position.holdingCount <= 0) {
+            positions.remove(key);
+        }
+    }
+
+    private static String normalizeAssetType(String assetType) {
+        return assetType == null ? null : assetType.toUpperCase();
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    private static final class PositionKey {
+        private final String assetType;
+        private final String symbol;
+        private final String category;
+
+        private PositionKey(String assetType, String symbol, String category) {
+            this.assetType = assetType;
+            this.symbol = symbol;
+            this.category = category;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PositionKey)) return false;
+            PositionKey that = (PositionKey) o;
+            return Objects.equals(assetType, that.assetType)
+                    && Objects.equals(symbol, that.symbol)
+                    && Objects.equals(category, that.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(assetType, symbol, category);
+        }
+    }
+
+    private static final class Position {
+        private long holdingCount;
+        private BigDecimal quantity = BigDecimal.ZERO;
+        private BigDecimal costBasis = BigDecimal.ZERO;
+    }
+
+    public static class PositionTotal {
+        private final String assetType;
+        private final String symbol;
+        private final String category;
+        private final long holdingCount;
+        private final BigDecimal quantity;
+        private final BigDecimal costBasis;
+
+        public PositionTotal(String assetType, String symbol, String category, long holdingCount,
+                             BigDecimal quantity, BigDecimal costBasis) {
+            this.assetType = assetType;
+            this.symbol = symbol;
+            this.category = category;
+            this.holdingCount = holdingCount;
+            this.quantity = quantity;
+            this.costBasis = costBasis;
+        }
+
+        public String getAssetType() {
+            return assetType;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public long getHoldingCount() {
+            return holdingCount;
+        }
+
+        public BigDecimal getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * Sum of quantity * purchasePrice, in the asset's native currency.
+         */
+        public BigDecimal getCostBasis() {
+            return costBasis;
+        }
+    }
+
+    public static class View {
+        private final List<PositionTotal> positions;
+        private final Map<String, BigDecimal> costBasisByAssetType;
+        private final long holdingCount;
+
+        public View(List<PositionTotal> positions, Map<String, BigDecimal> costBasisByAssetType, long holdingCount) {
+            this.positions = positions;
+            this.costBasisByAssetType = costBasisByAssetType;
+            this.holdingCount = holdingCount;
+        }
+
+        public List<PositionTotal> getPositions() {
+            return positions;
+        }
+
+        public Map<String, BigDecimal> getCostBasisByAssetType() {
+            return costBasisByAssetType;
+        }
+
+        public long getHoldingCount() {
+            return holdingCount;
+        }
+    }
+}
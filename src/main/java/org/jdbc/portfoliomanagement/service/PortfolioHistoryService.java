@@ -0,0 +1,186 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Total portfolio value per day, in INR, from the stored price history of every held
+ * symbol. Each symbol contributes two date-ordered streams: its prices and the
+ * quantity changes from its holdings' purchase dates. All streams are merged on date
+ * through one priority queue, and the running total is adjusted by the contribution
+ * that changed, so the cost is O(events &middot; log symbols) rather than
+ * holdings &times; dates. Prices carry forward over days a symbol did not trade.
+ */
+@Service
+public class PortfolioHistoryService {
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private PriceSeriesStore priceSeriesStore;
+
+    @Autowired
+    private HoldingService holdingService;
+
+    @Autowired
+    private ExchangeRateProvider exchangeRateProvider;
+
+    /**
+     * One value per day in {@code [from, to]} on which a price or a quantity changed.
+     * USD positions are converted at the current rate, since no rate history is stored.
+     */
+    public Map<String, Object> getPortfolioHistory(LocalDate from, LocalDate to) {
+        BigDecimal rate = exchangeRateProvider.getUsdToInrRate();
+        double usdToInr = rate.doubleValue();
+
+        // keyed by assetType:symbol, as in QuoteCache, so a stock and a fund scheme
+        // sharing a code are separate positions
+        Map<String, List<Holding>> holdingsByPosition = new HashMap<>();
+        for (Holding holding : holdingRepository.findAll()) {
+            if (holding.getSymbol() != null && holding.getQuantity() != null) {
+                String position = QuoteCache.normalizeAssetType(holding.getAssetType()) + ":" + holding.getSymbol().trim();
+                holdingsByPosition.computeIfAbsent(position, key -> new ArrayList<>()).add(holding);
+            }
+        }
+
+        List<SymbolCursor> cursors = new ArrayList<>(holdingsByPosition.size());
+        holdingsByPosition.forEach((position, holdings) -> {
+            String symbol = position.substring(position.indexOf(':') + 1);
+            // a holding without a purchase date counts from the start of the series
+            holdings.sort(Comparator.comparing(Holding::getPurchaseDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+            long[] days = new long[holdings.size()];
+            double[] quantities = new double[holdings.size()];
+            for (int i = 0; i < holdings.size(); i++) {
+                Holding holding = holdings.get(i);
+                boolean usd = "USD".equals(holdingService.getCurrencyCode(holding.getAssetType()));
+                days[i] = holding.getPurchaseDate() != null ? holding.getPurchaseDate().toEpochDay() : Long.MIN_VALUE;
+                quantities[i] = holding.getQuantity().doubleValue() * (usd ? usdToInr : 1.0);
+            }
+            cursors.add(new SymbolCursor(cursors.size(), priceSeriesStore.get(symbol).range(null, to), days, quantities));
+        });
+
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        PriorityQueue<SymbolCursor> queue = new PriorityQueue<>(Math.max(1, cursors.size()),
+                (a, b) -> Long.compare(a.nextDay(), b.nextDay()));
+        for (SymbolCursor cursor : cursors) {
+            if (cursor.hasNext()) {
+                queue.add(cursor);
+            }
+        }
+
+        double[] contribution = new double[cursors.size()];
+        double total = 0;
+        boolean applied = false;
+        boolean opened = false;
+        List<String> dates = new ArrayList<>();
+        List<BigDecimal> values = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().nextDay() <= toDay) {
+            long day = queue.peek().nextDay();
+            if (!opened && day > fromDay) {
+                // the range starts with the value carried over from before it
+                if (applied) {
+                    addPoint(dates, values, fromDay, total);
+                }
+                opened = true;
+            }
+            // apply every event on this day before emitting it
+            while (!queue.isEmpty() && queue.peek().nextDay() == day) {
+                SymbolCursor cursor = queue.poll();
+                cursor.advance(day);
+                double value = cursor.value();
+                total += value - contribution[cursor.index];
+                contribution[cursor.index] = value;
+                if (cursor.hasNext()) {
+                    queue.add(cursor);
+                }
+            }
+            applied = true;
+            if (day >= fromDay) {
+                addPoint(dates, values, day, total);
+                opened = true;
+            }
+        }
+        if (!opened && applied) {
+            addPoint(dates, values, fromDay, total);
+        }
+
+        Map<String, Object> history = new LinkedHashMap<>();
+        history.put("from", from.toString());
+        history.put("to", to.toString());
+        history.put("currency", "INR");
+        history.put("currencySymbol", "₹");
+        history.put("usdToInrRate", rate);
+        history.put("dates", dates);
+        history.put("values", values);
+        return history;
+    }
+
+    private static void addPoint(List<String> dates, List<BigDecimal> values, long day, double total) {
+        dates.add(LocalDate.ofEpochDay(day).toString());
+        values.add(BigDecimal.valueOf(total).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Walks one symbol's price points and purchase events in date order, tracking the
+     * latest price and the quantity held so far.
+     */
+    private static final class SymbolCursor {
+        private final int index;
+        private final PriceSeries prices;
+        private final long[] purchaseDays;
+        private final double[] purchaseQuantities;
+        private int priceIndex;
+        private int purchaseIndex;
+        private double price = Double.NaN;
+        private double quantity;
+
+        SymbolCursor(int index, PriceSeries prices, long[] purchaseDays, double[] purchaseQuantities) {
+            this.index = index;
+            this.prices = prices;
+            this.purchaseDays = purchaseDays;
+            this.purchaseQuantities = purchaseQuantities;
+        }
+
+        boolean hasNext() {
+            return priceIndex < prices.size() || purchaseIndex < purchaseDays.length;
+        }
+
+        long nextDay() {
+            long nextPrice = priceIndex < prices.size() ? prices.epochDay(priceIndex) : Long.MAX_VALUE;
+            long nextPurchase = purchaseIndex < purchaseDays.length ? purchaseDays[purchaseIndex] : Long.MAX_VALUE;
+            return Math.min(nextPrice, nextPurchase);
+        }
+
+        void advance(long day) {
+            while (priceIndex < prices.size() && prices.epochDay(priceIndex) == day) {
+                price = prices.price(priceIndex++);
+            }
+            while (purchaseIndex < purchaseDays.length && purchaseDays[purchaseIndex] == day) {
+                quantity += purchaseQuantities[purchaseIndex++];
+            }
+        }
+
+        /**
+         * INR value held on the current day; zero until the first known price. Purchase
+         * quantities are already weighted by the INR rate.
+         */
+        double value() {
+            return Double.isNaN(price) ? 0 : price * quantity;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.Holding;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of one portfolio valuation. Prices, market value totals, cost basis
+ * aggregates, best/worst performers and the stock category breakdown are all
+ * accumulated in a single pass over the valued holdings, so every analytics endpoint
+ * can be answered from the same snapshot without valuing the portfolio again. The
+ * holdings are detached copies, and getters hand out further copies, so neither the
+ * persistence context nor a caller can change a snapshot after it is built.
+ */
+public final class PortfolioSnapshot {
+
+    private final List<Holding> holdings;
+    private final Instant computedAt;
+    private final BigDecimal usdToInrRate;
+    private final Map<String, BigDecimal> prices;
+    private final PortfolioAggregates.View aggregates;
+    private final BigDecimal totalValueInr;
+    private final Map<String, BigDecimal> compositionByAssetType;
+    private final Map<String, BigDecimal> stockCategoryValues;
+    private final BigDecimal totalStockValue;
+    private final Holding bestPerformer;
+    private final Holding worstPerformer;
+
+    private PortfolioSnapshot(List<Holding> holdings, Instant computedAt, BigDecimal usdToInrRate,
+                              Map<String, BigDecimal> prices, PortfolioAggregates.View aggregates,
+                              BigDecimal totalValueInr,
+                              Map<String, BigDecimal> compositionByAssetType,
+                              Map<String, BigDecimal> stockCategoryValues, BigDecimal totalStockValue,
+                              Holding bestPerformer, Holding worstPerformer) {
+        this.holdings = holdings;
+        this.computedAt = computedAt;
+        this.usdToInrRate = usdToInrRate;
+        this.prices = prices;
+        this.aggregates = aggregates;
+        this.totalValueInr = totalValueInr;
+        this.compositionByAssetType = compositionByAssetType;
+        this.stockCategoryValues = stockCategoryValues;
+        this.totalStockValue = totalStockValue;
+        this.bestPerformer = bestPerformer;
+        this.worstPerformer = worstPerformer;
+    }
+
+    /**
+     * Builds a snapshot from holdings that have already been valued at {@code usdToInrRate}.
+     */
+    public static PortfolioSnapshot of(List<Holding> valued, BigDecimal usdToInrRate, Instant computedAt) {
+        List<Holding> holdings = new ArrayList<>(valued.size());
+        for (Holding holding : valued) {
+            holdings.add(copy(holding));
+        }
+        BigDecimal totalValueInr = BigDecimal.ZERO;
+        BigDecimal totalStockValue = BigDecimal.ZERO;
+        Map<String, BigDecimal> prices = new HashMap<>();
+        Map<String, BigDecimal> assetComposition = new HashMap<>();
+        Map<String, BigDecimal> stockCategoryValues = new HashMap<>();
+        Holding best = null;
+        Holding worst = null;
+
+        for (Holding holding : holdings) {
+            BigDecimal currentValueInr = holding.getCurrentValueInr();
+            totalValueInr = totalValueInr.add(currentValueInr);
+            prices.put(holding.getAssetType() + ":" + holding.getSymbol(), holding.getCurrentPrice());
+            assetComposition.merge(holding.getAssetType(), currentValueInr, BigDecimal::add);
+
+            String category = holding.getCategory();
+            if ("STOCK".equals(holding.getAssetType()) && category != null) {
+                totalStockValue = totalStockValue.add(holding.getCurrentValue());
+                stockCategoryValues.merge(category, holding.getCurrentValue(), BigDecimal::add);
+            }
+
+            // strict comparisons keep the first holding on ties
+            if (best == null || holding.getProfitLossPercentage().compareTo(best.getProfitLossPercentage()) > 0) {
+                best = holding;
+            }
+            if (worst == null || holding.getProfitLossPercentage().compareTo(worst.getProfitLossPercentage()) < 0) {
+                worst = holding;
+            }
+        }
+
+        return new PortfolioSnapshot(
+                Collections.unmodifiableList(holdings),
+                computedAt,
+                usdToInrRate,
+                Collections.unmodifiableMap(prices),
+                PortfolioAggregates.viewOf(holdings),
+                totalValueInr,
+                Collections.unmodifiableMap(assetComposition),
+                Collections.unmodifiableMap(stockCategoryValues),
+                totalStockValue,
+                best,
+                worst);
+    }
+
+    public boolean isFresh(Instant now, long ttlMs) {
+        return computedAt.plusMillis(ttlMs).isAfter(now);
+    }
+
+    /**
+     * Copies of the valued holdings; O(holdings) per call.
+     */
+    public List<Holding> getHoldings() {
+        List<Holding> copies = new ArrayList<>(holdings.size());
+        for (Holding holding : holdings) {
+            copies.add(copy(holding));
+        }
+        return copies;
+    }
+
+    public boolean isEmpty() {
+        return holdings.isEmpty();
+    }
+
+    public Instant getComputedAt() {
+        return computedAt;
+    }
+
+    public BigDecimal getUsdToInrRate() {
+        return usdToInrRate;
+    }
+
+    /**
+     * Current price per {@code assetType:symbol} the holdings were valued at.
+     */
+    public Map<String, BigDecimal> getPrices() {
+        return prices;
+    }
+
+    /**
+     * Cost basis and position totals of the holdings in this snapshot.
+     */
+    public PortfolioAggregates.View getAggregates() {
+        return aggregates;
+    }
+
+    public BigDecimal getTotalValueInr() {
+        return totalValueInr;
+    }
+
+    public Map<String, BigDecimal> getCompositionByAssetType() {
+        return compositionByAssetType;
+    }
+
+    /**
+     * Current value of stock holdings per category, in the holdings' native currency.
+     */
+    public Map<String, BigDecimal> getStockCategoryValues() {
+        return stockCategoryValues;
+    }
+
+    public BigDecimal getTotalStockValue() {
+        return totalStockValue;
+    }
+
+    public Holding getBestPerformer() {
+        return bestPerformer == null ? null : copy(bestPerformer);
+    }
+
+    public Holding getWorstPerformer() {
+        return worstPerformer == null ? null : copy(worstPerformer);
+    }
+
+    private static Holding copy(Holding holding) {
+        Holding copy = new Holding(holding.getAssetType(), holding.getSymbol(), holding.getQuantity(),
+                holding.getPurchasePrice(), holding.getPurchaseDate());
+        copy.setId(holding.getId());
+        copy.setCreatedAt(holding.getCreatedAt());
+        copy.setCategory(holding.getCategory());
+        copy.setCurrentPrice(holding.getCurrentPrice());
+        copy.setCurrentValue(holding.getCurrentValue());
+        copy.setProfitLoss(holding.getProfitLoss());
+        copy.setProfitLossPercentage(holding.getProfitLossPercentage());
+        copy.setCurrency(holding.getCurrency());
+        copy.setCurrencySymbol(holding.getCurrencySymbol());
+        copy.setCurrentValueInr(holding.getCurrentValueInr());
+        copy.setProfitLossInr(holding.getProfitLossInr());
+        return copy;
+    }
+}
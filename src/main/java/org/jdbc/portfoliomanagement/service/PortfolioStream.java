@@ -0,0 +1,251 @@
+package org.jdbc.portfoliomanagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes live portfolio valuation to connected dashboards over Server-Sent Events.
+ * Quote updates only mark their asset as changed; once per tick the changes are
+ * coalesced into a single valuation that is serialized once and written to every
+ * client, so the cost of a tick does not grow with the number of open dashboards.
+ * Ticks run on the stream's own thread and clients are written to concurrently with a
+ * deadline, so a slow client never holds up the shared scheduler or other clients; a
+ * client whose write fails or misses the deadline is dropped.
+ */
+@Service
+public class PortfolioStream {
+
+    static final String VALUATION_EVENT = "valuation";
+
+    @Autowired
+    private HoldingService holdingService;
+
+    @Autowired
+    private PerformanceIndex performanceIndex;
+
+    @Value("${portfolio.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${portfolio.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${portfolio.stream.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${portfolio.stream.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<SseEmitter> clients = new CopyOnWriteArrayList<>();
+    private final Map<String, QuoteUpdatedEvent> changedQuotes = new ConcurrentHashMap<>();
+
+    // idle writer threads expire, so the pool only holds threads while clients are written to
+    private final ExecutorService writers = Executors.newCachedThreadPool(daemonThreads("portfolio-stream-writer-"));
+    private ScheduledExecutorService ticker;
+
+    private volatile String latestPayload;
+    private volatile long lastSentAt;
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(daemonThreads("portfolio-stream-tick-"));
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                // an exception would cancel every later tick
+                System.err.println("Portfolio stream tick failed: " + e.getMessage());
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        writers.shutdownNow();
+    }
+
+    /**
+     * Registers a client. It is sent the latest valuation straight away and then
+     * receives every tick until it disconnects or times out.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> clients.remove(emitter));
+        emitter.onTimeout(() -> clients.remove(emitter));
+        emitter.onError(e -> clients.remove(emitter));
+
+        String initial = latestPayload;
+        if (initial == null) {
+            initial = serialize(buildPayload(List.of()));
+            latestPayload = initial;
+        }
+        try {
+            emitter.send(SseEmitter.event().name(VALUATION_EVENT).data(initial));
+            clients.add(emitter);
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    @EventListener
+    public void onQuoteUpdated(QuoteUpdatedEvent event) {
+        // several updates to one asset within a tick collapse into one entry
+        String assetType = QuoteCache.normalizeAssetType(event.getAssetType());
+        changedQuotes.put(assetType + ":" + event.getSymbol(),
+                new QuoteUpdatedEvent(assetType, event.getSymbol(), event.getPrice()));
+    }
+
+    public void tick() {
+        List<QuoteUpdatedEvent> changes = drainChanges();
+        if (clients.isEmpty()) {
+            // no one is listening; the next subscriber gets a freshly built valuation
+            if (!changes.isEmpty()) {
+                latestPayload = null;
+            }
+            return;
+        }
+
+        if (!changes.isEmpty()) {
+            String payload = serialize(buildPayload(changes));
+            latestPayload = payload;
+            broadcast(SseEmitter.event().name(VALUATION_EVENT).data(payload));
+        } else if (System.currentTimeMillis() - lastSentAt >= heartbeatMs) {
+            broadcast(SseEmitter.event().comment("keepalive"));
+        }
+    }
+
+    Map<String, Object> buildPayload(List<QuoteUpdatedEvent> changes) {
+        List<Map<String, Object>> holdings = new ArrayList<>();
+        for (QuoteUpdatedEvent change : changes) {
+            for (PerformanceIndex.Performer performer : performanceIndex.getRanked(change.getAssetType(), change.getSymbol())) {
+                Map<String, Object> holding = new HashMap<>();
+                holding.put("id", performer.getHoldingId());
+                holding.put("assetType", performer.getAssetType());
+                holding.put("symbol", performer.getSymbol());
+                holding.put("currentPrice", performer.getCurrentPrice());
+                holding.put("currentValue", performer.getCurrentPrice().multiply(performer.getQuantity())
+                        .setScale(2, RoundingMode.HALF_UP));
+                holding.put("profitLoss", performer.getProfitLoss());
+                holding.put("profitLossPercentage", performer.getProfitLossPercentage());
+                holdings.add(holding);
+            }
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("asOf", Instant.now().toString());
+        payload.put("holdings", holdings);
+        payload.put("totals", holdingService.getPortfolioSummary());
+        return payload;
+    }
+
+    private List<QuoteUpdatedEvent> drainChanges() {
+        List<QuoteUpdatedEvent> changes = new ArrayList<>();
+        Iterator<String> keys = changedQuotes.keySet().iterator();
+        while (keys.hasNext()) {
+            QuoteUpdatedEvent change = changedQuotes.remove(keys.next());
+            if (change != null) {
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        // built once; the same encoded frame is written to every client
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = event.build();
+        List<SseEmitter> targets = new ArrayList<>(clients);
+        List<Callable<Void>> writes = new ArrayList<>(targets.size());
+        for (SseEmitter client : targets) {
+            writes.add(() -> {
+                client.send(frame);
+                return null;
+            });
+        }
+
+        List<Future<Void>> results;
+        try {
+            // writes still running at the deadline are cancelled
+            results = writers.invokeAll(writes, sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (int i = 0; i < results.size(); i++) {
+            Throwable failure = null;
+            try {
+                results.get(i).get();
+            } catch (ExecutionException e) {
+                failure = e.getCause();
+            } catch (Exception e) {
+                failure = new IOException("Client missed the " + sendTimeoutMs + " ms write deadline");
+            }
+            if (failure != null) {
+                drop(targets.get(i), failure);
+            }
+        }
+        lastSentAt = System.currentTimeMillis();
+    }
+
+    private void drop(SseEmitter client, Throwable cause) {
+        clients.remove(client);
+        try {
+            client.completeWithError(cause);
+        } catch (RuntimeException e) {
+            // already completed by the container
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private String serialize(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not serialize portfolio valuation", e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.jdbc.portfoliomanagement.service;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling for price series. The first and last
+ * points are always kept; in between, the series is split into equal buckets and from
+ * each bucket the point forming the largest triangle with the previously selected
+ * point and the average of the next bucket is kept. Peaks and troughs survive, so a
+ * few hundred points still draw the same chart as thousands.
+ */
+public final class PriceDownsampler {
+
+    public static final int MIN_POINTS = 3;
+
+    private PriceDownsampler() {
+    }
+
+    /**
+     * Indexes of the points of {@code series} to keep, at most {@code maxPoints} of them;
+     * every index when the series is already small enough.
+     */
+    public static int[] lttbIndexes(PriceSeries series, int maxPoints) {
+        int size = series.size();
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = series.epochDay(i);
+            y[i] = series.price(i);
+        }
+        return lttbIndexes(x, y, maxPoints);
+    }
+
+    private static int[] lttbIndexes(double[] x, double[] y, int maxPoints) {
+        int size = x.length;
+        if (maxPoints < MIN_POINTS || size <= maxPoints) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[maxPoints];
+        sampled[0] = 0;
+
+        // buckets span the points between the fixed first and last ones
+        double bucketSize = (double) (size - 2) / (maxPoints - 2);
+        int selected = 0;
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+            int nextStart = end;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            double maxArea = -1;
+            int best = start;
+            for (int i = start; i < end; i++) {
+                // twice the triangle area; the factor does not change the argmax
+                double area = Math.abs((x[selected] - avgX) * (y[i] - y[selected])
+                        - (x[selected] - x[i]) * (avgY - y[selected]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    best = i;
+                }
+            }
+            sampled[bucket + 1] = best;
+            selected = best;
+        }
+
+        sampled[maxPoints - 1] = size - 1;
+        return sampled;
+    }
+}
@@ -0,0 +1,20 @@
+package org.jdbc.portfoliomanagement.service;
+
+import java.util.Set;
+
+/**
+ * Published by {@link PriceSeriesStore} whenever new daily prices are stored for
+ * one or more symbols.
+ */
+public class PriceHistoryUpdatedEvent {
+
+    private final Set<String> symbols;
+
+    public PriceHistoryUpdatedEvent(Set<String> symbols) {
+        this.symbols = symbols;
+    }
+
+    public Set<String> getSymbols() {
+        return symbols;
+    }
+}
@@ -0,0 +1,152 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the quote cache warm for every held symbol so request-path valuation can
+ * read cached prices instead of waiting on Yahoo Finance or mfapi. Stocks are
+ * refreshed on a short cadence while the US market is open and a long one outside
+ * trading hours; mutual fund NAVs change once a day and get their own cadence.
+ */
+@Service
+public class PriceRefresher {
+
+    private static final ZoneId MARKET_ZONE = ZoneId.of("America/New_York");
+    private static final LocalTime MARKET_OPEN = LocalTime.of(9, 30);
+    private static final LocalTime MARKET_CLOSE = LocalTime.of(16, 0);
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private HoldingService holdingService;
+
+    private final boolean enabled;
+    private final long marketOpenIntervalMs;
+    private final long marketClosedIntervalMs;
+    private final long mutualFundIntervalMs;
+    private final Clock clock;
+
+    private volatile Instant lastStockRefresh;
+    private volatile Instant lastMutualFundRefresh;
+    private volatile int lastStockCount;
+    private volatile int lastMutualFundCount;
+
+    @Autowired
+    public PriceRefresher(@Value("${quote.refresh.enabled:true}") boolean enabled,
+                          @Value("${quote.refresh.market-open-interval-ms:30000}") long marketOpenIntervalMs,
+                          @Value("${quote.refresh.market-closed-interval-ms:900000}") long marketClosedIntervalMs,
+                          @Value("${quote.refresh.mutual-fund-interval-ms:3600000}") long mutualFundIntervalMs) {
+        this(enabled, marketOpenIntervalMs, marketClosedIntervalMs, mutualFundIntervalMs, Clock.systemUTC());
+    }
+
+    PriceRefresher(boolean enabled, long marketOpenIntervalMs, long marketClosedIntervalMs,
+                   long mutualFundIntervalMs, Clock clock) {
+        this.enabled = enabled;
+        this.marketOpenIntervalMs = marketOpenIntervalMs;
+        this.marketClosedIntervalMs = marketClosedIntervalMs;
+        this.mutualFundIntervalMs = mutualFundIntervalMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs every tick and refreshes whichever asset types are due. The tick only
+     * decides; the cadence per asset type comes from the configured intervals.
+     */
+    @Scheduled(initialDelayString = "${quote.refresh.initial-delay-ms:0}",
+            fixedDelayString = "${quote.refresh.tick-ms:5000}")
+    public void refreshDue() {
+        if (!enabled) {
+            return;
+        }
+        Instant now = clock.instant();
+        boolean stocksDue = isDue(lastStockRefresh, isMarketOpen(now) ? marketOpenIntervalMs : marketClosedIntervalMs, now);
+        boolean fundsDue = isDue(lastMutualFundRefresh, mutualFundIntervalMs, now);
+        if (!stocksDue && !fundsDue) {
+            return;
+        }
+
+        Map<String, Set<String>> heldSymbols = heldSymbolsByAssetType();
+        if (stocksDue) {
+            lastStockCount = refresh(QuoteCache.STOCK, heldSymbols);
+            lastStockRefresh = now;
+        }
+        if (fundsDue) {
+            lastMutualFundCount = refresh(QuoteCache.MUTUAL_FUND, heldSymbols);
+            lastMutualFundRefresh = now;
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Instant now = clock.instant();
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", enabled);
+        status.put("marketOpen", isMarketOpen(now));
+        status.put("stockIntervalMs", isMarketOpen(now) ? marketOpenIntervalMs : marketClosedIntervalMs);
+        status.put("mutualFundIntervalMs", mutualFundIntervalMs);
+        status.put("lastStockRefresh", lastStockRefresh != null ? lastStockRefresh.toString() : null);
+        status.put("lastMutualFundRefresh", lastMutualFundRefresh != null ? lastMutualFundRefresh.toString() : null);
+        status.put("lastStockCount", lastStockCount);
+        status.put("lastMutualFundCount", lastMutualFundCount);
+        return status;
+    }
+
+    /**
+     * Regular NYSE session, Monday to Friday 09:30-16:00 New York time. Exchange
+     * holidays are not modelled; on those days the refresher just runs more often
+     * than it needs to.
+     */
+    static boolean isMarketOpen(Instant instant) {
+        ZonedDateTime marketTime = instant.atZone(MARKET_ZONE);
+        DayOfWeek day = marketTime.getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        LocalTime time = marketTime.toLocalTime();
+        return !time.isBefore(MARKET_OPEN) && time.isBefore(MARKET_CLOSE);
+    }
+
+    private int refresh(String assetType, Map<String, Set<String>> heldSymbols) {
+        Set<String> symbols = heldSymbols.getOrDefault(assetType, Set.of());
+        try {
+            return holdingService.refreshQuotes(assetType, symbols);
+        } catch (Exception e) {
+            System.err.println("Error refreshing " + assetType + " quotes: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private Map<String, Set<String>> heldSymbolsByAssetType() {
+        List<Object[]> rows = holdingRepository.findDistinctSymbolsAndAssetTypes();
+        Map<String, Set<String>> symbols = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            String symbol = (String) row[0];
+            if (symbol != null && !symbol.isBlank()) {
+                String assetType = QuoteCache.normalizeAssetType((String) row[1]);
+                symbols.computeIfAbsent(assetType, type -> new LinkedHashSet<>()).add(symbol);
+            }
+        }
+        return symbols;
+    }
+
+    private static boolean isDue(Instant lastRun, long intervalMs, Instant now) {
+        return lastRun == null || !now.isBefore(lastRun.plusMillis(intervalMs));
+    }
+}
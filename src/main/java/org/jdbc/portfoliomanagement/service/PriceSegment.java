@@ -0,0 +1,196 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * One symbol's price history in a memory-mapped file. Layout, little-endian:
+ * <pre>
+ *   0  int  magic "PSEG"
+ *   4  int  format version
+ *   8  int  capacity (points the columns have room for)
+ *  12  int  count (points written)
+ *  16  ..   reserved up to {@value #HEADER_BYTES} bytes
+ *  32  int[capacity]    epoch days, ascending
+ *  ..  double[capacity] prices
+ * </pre>
+ * Points after the last stored day are written in place and become visible when the
+ * count is bumped, so a crash mid-append leaves the previous points intact. Anything
+ * else (a correction of a stored day, or growth past the capacity) rewrites the file
+ * to a temporary name and moves it over the old one.
+ */
+public final class PriceSegment {
+
+    static final int MAGIC = 0x50534547;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int COUNT_OFFSET = 12;
+    private static final int MIN_CAPACITY = 256;
+
+    private final Path path;
+    private final String symbol;
+    private MappedByteBuffer buffer;
+    private IntBuffer days;
+    private DoubleBuffer prices;
+    private int capacity;
+    private int count;
+
+    private PriceSegment(Path path, String symbol) {
+        this.path = path;
+        this.symbol = symbol;
+    }
+
+    /**
+     * Maps an existing segment file.
+     *
+     * @throws IOException if the file cannot be read or is not a valid segment
+     */
+    static PriceSegment open(Path path, String symbol) throws IOException {
+        PriceSegment segment = new PriceSegment(path, symbol);
+        segment.map();
+        return segment;
+    }
+
+    /**
+     * Writes {@code series} as a new segment, replacing any existing file.
+     */
+    static PriceSegment create(Path path, PriceSeries series) throws IOException {
+        PriceSegment segment = new PriceSegment(path, series.getSymbol());
+        segment.rewrite(series);
+        return segment;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Last stored day, or null for an empty segment.
+     */
+    public synchronized LocalDate lastDate() {
+        return count == 0 ? null : LocalDate.ofEpochDay(days.get(count - 1));
+    }
+
+    /**
+     * Copies the points within {@code [from, to]} (null bounds are open) out of the
+     * mapping with one bulk read per column; the range is located by binary search on
+     * the mapped day column.
+     */
+    public synchronized PriceSeries read(LocalDate from, LocalDate to) {
+        int start = from == null ? 0 : ceilingIndex((int) from.toEpochDay());
+        int end = to == null ? count : ceilingIndex((int) to.toEpochDay() + 1);
+        int length = Math.max(0, end - start);
+        int[] dayColumn = new int[length];
+        double[] priceColumn = new double[length];
+        days.get(start, dayColumn, 0, length);
+        prices.get(start, priceColumn, 0, length);
+        return PriceSeries.of(symbol, dayColumn, priceColumn);
+    }
+
+    public PriceSeries read() {
+        return read(null, null);
+    }
+
+    /**
+     * Stores the given points; a point on an already stored day replaces its price.
+     */
+    synchronized void append(Collection<HistoricalPrice> points) throws IOException {
+        PriceSeries added = PriceSeries.empty(symbol).merge(points);
+        if (added.isEmpty()) {
+            return;
+        }
+        boolean appendable = count == 0 || added.epochDay(0) > days.get(count - 1);
+        if (!appendable || count + added.size() > capacity) {
+            rewrite(read().merge(points));
+            return;
+        }
+        for (int i = 0; i < added.size(); i++) {
+            days.put(count + i, added.epochDay(i));
+            prices.put(count + i, added.price(i));
+        }
+        // publish the new points only once they are fully written
+        count += added.size();
+        buffer.putInt(COUNT_OFFSET, count);
+    }
+
+    private void rewrite(PriceSeries series) throws IOException {
+        int newCapacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, series.size())) << 1);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(newCapacity));
+            out.order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(0, MAGIC);
+            out.putInt(4, VERSION);
+            out.putInt(CAPACITY_OFFSET, newCapacity);
+            IntBuffer dayColumn = out.slice(HEADER_BYTES, newCapacity * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            DoubleBuffer priceColumn = out.slice(HEADER_BYTES + newCapacity * Integer.BYTES, newCapacity * Double.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            for (int i = 0; i < series.size(); i++) {
+                dayColumn.put(i, series.epochDay(i));
+                priceColumn.put(i, series.price(i));
+            }
+            out.putInt(COUNT_OFFSET, series.size());
+            out.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map();
+    }
+
+    private void map() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Truncated price segment " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            int fileCapacity = mapped.getInt(CAPACITY_OFFSET);
+            int fileCount = mapped.getInt(COUNT_OFFSET);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IOException("Not a price segment: " + path);
+            }
+            if (fileCapacity < 0 || fileCount < 0 || fileCount > fileCapacity || size < fileSize(fileCapacity)) {
+                throw new IOException("Corrupt price segment header: " + path);
+            }
+            buffer = mapped;
+            capacity = fileCapacity;
+            count = fileCount;
+            days = mapped.slice(HEADER_BYTES, capacity * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            prices = mapped.slice(HEADER_BYTES + capacity * Integer.BYTES, capacity * Double.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+    }
+
+    private int ceilingIndex(int epochDay) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days.get(mid) < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long fileSize(int capacity) {
+        return HEADER_BYTES + (long) capacity * (Integer.BYTES + Double.BYTES);
+    }
+}
@@ -0,0 +1,116 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Directory of {@link PriceSegment} files, one per symbol. The segments are a local
+ * copy of {@code historical_prices} that loads without SQL; the database stays the
+ * system of record, and a segment that is missing, unreadable or behind the database
+ * is rebuilt from it by {@link PriceSeriesStore}. Write failures are logged and leave
+ * the segment to be rebuilt on its next load.
+ */
+@Service
+public class PriceSegmentStore {
+
+    private final boolean enabled;
+    private final Path directory;
+    private final ConcurrentHashMap<String, PriceSegment> open = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PriceSegmentStore(@Value("${historical.segments.enabled:true}") boolean enabled,
+                             @Value("${historical.segments.dir:data/price-segments}") String directory) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The segment for a symbol, or null when it does not exist or cannot be read.
+     */
+    public PriceSegment find(String symbol) {
+        if (!enabled) {
+            return null;
+        }
+        return open.computeIfAbsent(symbol, key -> {
+            Path path = pathFor(key);
+            if (!Files.exists(path)) {
+                return null;
+            }
+            try {
+                return PriceSegment.open(path, key);
+            } catch (IOException e) {
+                System.err.println("Discarding unreadable price segment for " + key + ": " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Replaces a symbol's segment with {@code series}.
+     */
+    public void write(PriceSeries series) {
+        if (!enabled) {
+            return;
+        }
+        String symbol = series.getSymbol();
+        open.compute(symbol, (key, current) -> {
+            try {
+                Files.createDirectories(directory);
+                return PriceSegment.create(pathFor(key), series);
+            } catch (IOException e) {
+                System.err.println("Could not write price segment for " + key + ": " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Adds freshly stored prices to a symbol's segment if it exists; a symbol without
+     * a segment gets one on its first load.
+     */
+    public void append(String symbol, Collection<HistoricalPrice> prices) {
+        PriceSegment segment = find(symbol);
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.append(prices);
+        } catch (IOException e) {
+            System.err.println("Could not append to price segment for " + symbol + ": " + e.getMessage());
+            open.remove(symbol, segment);
+            try {
+                Files.deleteIfExists(pathFor(symbol));
+            } catch (IOException ignored) {
+                // rebuilt from the database on the next load either way
+            }
+        }
+    }
+
+    /**
+     * Forgets the open segment of a symbol, so its mapping can be reclaimed; the next
+     * {@link #find} maps the file again.
+     */
+    public void release(String symbol) {
+        open.remove(symbol);
+    }
+
+    Path pathFor(String symbol) {
+        // symbols carry characters like ^ . = that are not safe in every file system
+        return directory.resolve(URLEncoder.encode(symbol, StandardCharsets.UTF_8) + ".seg");
+    }
+}
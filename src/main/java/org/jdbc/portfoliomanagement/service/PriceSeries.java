@@ -0,0 +1,184 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable daily price series for one symbol, stored column-wise: an {@code int[]} of
+ * epoch days in ascending order and a parallel {@code double[]} of prices. A point costs
+ * 12 bytes instead of a hydrated {@link HistoricalPrice}, and date ranges are found by
+ * binary search. Updates return a new series, so readers never see a partial write.
+ */
+public final class PriceSeries {
+
+    // matches the scale of historical_prices.price
+    static final int PRICE_SCALE = 2;
+
+    private final String symbol;
+    private final int[] epochDays;
+    private final double[] prices;
+
+    private PriceSeries(String symbol, int[] epochDays, double[] prices) {
+        this.symbol = symbol;
+        this.epochDays = epochDays;
+        this.prices = prices;
+    }
+
+    public static PriceSeries empty(String symbol) {
+        return new PriceSeries(symbol, new int[0], new double[0]);
+    }
+
+    /**
+     * Builds a series from columns that are already sorted by day without duplicates.
+     * The arrays are taken over, not copied.
+     */
+    static PriceSeries of(String symbol, int[] epochDays, double[] prices) {
+        if (epochDays.length != prices.length) {
+            throw new IllegalArgumentException("epochDays and prices must have the same length");
+        }
+        return new PriceSeries(symbol, epochDays, prices);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int size() {
+        return epochDays.length;
+    }
+
+    public boolean isEmpty() {
+        return epochDays.length == 0;
+    }
+
+    public int epochDay(int index) {
+        return epochDays[index];
+    }
+
+    public LocalDate date(int index) {
+        return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    public double price(int index) {
+        return prices[index];
+    }
+
+    /**
+     * Index of the first point on or after {@code epochDay}; {@link #size()} if none.
+     */
+    public int ceilingIndex(int epochDay) {
+        int index = Arrays.binarySearch(epochDays, epochDay);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Index of the last point on or before {@code epochDay}; -1 if none.
+     */
+    public int floorIndex(int epochDay) {
+        int index = Arrays.binarySearch(epochDays, epochDay);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Copies of the day and price columns restricted to {@code [from, to]}; a null bound
+     * leaves that end open.
+     */
+    public PriceSeries range(LocalDate from, LocalDate to) {
+        int start = from == null ? 0 : ceilingIndex((int) from.toEpochDay());
+        int end = to == null ? size() : floorIndex((int) to.toEpochDay()) + 1;
+        if (start == 0 && end == size()) {
+            return this;
+        }
+        if (start >= end) {
+            return empty(symbol);
+        }
+        return new PriceSeries(symbol, Arrays.copyOfRange(epochDays, start, end), Arrays.copyOfRange(prices, start, end));
+    }
+
+    /**
+     * Returns a series that also contains the given points. A point on a day that is
+     * already present replaces the stored price, as the database upsert does. The common
+     * case of points after the last stored day is a plain append.
+     */
+    public PriceSeries merge(Collection<HistoricalPrice> points) {
+        List<HistoricalPrice> incoming = new ArrayList<>(points.size());
+        for (HistoricalPrice point : points) {
+            if (point.getPriceDate() != null && point.getPrice() != null) {
+                incoming.add(point);
+            }
+        }
+        if (incoming.isEmpty()) {
+            return this;
+        }
+        incoming.sort(Comparator.comparing(HistoricalPrice::getPriceDate));
+
+        int[] days = new int[epochDays.length + incoming.size()];
+        double[] values = new double[days.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < epochDays.length || j < incoming.size()) {
+            int day;
+            double value;
+            if (j == incoming.size()
+                    || (i < epochDays.length && epochDays[i] < incoming.get(j).getPriceDate().toEpochDay())) {
+                day = epochDays[i];
+                value = prices[i++];
+            } else {
+                HistoricalPrice point = incoming.get(j++);
+                day = (int) point.getPriceDate().toEpochDay();
+                // rounded like the database column, so a reload yields the same series
+                value = point.getPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP).doubleValue();
+                if (i < epochDays.length && epochDays[i] == day) {
+                    i++;
+                }
+            }
+            // later points for the same day win
+            if (size > 0 && days[size - 1] == day) {
+                values[size - 1] = value;
+            } else {
+                days[size] = day;
+                values[size] = value;
+                size++;
+            }
+        }
+        if (size < days.length) {
+            days = Arrays.copyOf(days, size);
+            values = Arrays.copyOf(values, size);
+        }
+        return new PriceSeries(symbol, days, values);
+    }
+
+    /**
+     * Materializes the points at the given indexes as {@link HistoricalPrice} rows for
+     * responses that keep the entity's JSON shape. Ids are not kept in the series.
+     */
+    public List<HistoricalPrice> toHistoricalPrices(int[] indexes) {
+        List<HistoricalPrice> rows = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            rows.add(toHistoricalPrice(index));
+        }
+        return rows;
+    }
+
+    public List<HistoricalPrice> toHistoricalPrices() {
+        List<HistoricalPrice> rows = new ArrayList<>(size());
+        for (int index = 0; index < size(); index++) {
+            rows.add(toHistoricalPrice(index));
+        }
+        return rows;
+    }
+
+    private HistoricalPrice toHistoricalPrice(int index) {
+        BigDecimal price = BigDecimal.valueOf(prices[index]).setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+        return new HistoricalPrice(symbol, price, date(index));
+    }
+}
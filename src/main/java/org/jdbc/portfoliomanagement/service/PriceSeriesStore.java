@@ -0,0 +1,168 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+import org.jdbc.portfoliomanagement.repository.HistoricalPriceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * In-memory {@link PriceSeries} per symbol, the read path for stored price history.
+ * A symbol's series is loaded on first use, from its {@link PriceSegment} file when
+ * that is up to date with {@code historical_prices} and from the database otherwise
+ * (rewriting the segment), and then kept current by {@link #append}, which
+ * {@link HistoricalPriceService} calls after every upsert, so charts and analytics
+ * never go back to the database for history. At most
+ * {@code historical.series-cache.max-symbols} series are kept, least recently read
+ * first out; an evicted symbol also releases its segment mapping.
+ */
+@Service
+public class PriceSeriesStore {
+
+    private final int maxSymbols;
+
+    // access-ordered LRU, guarded by itself; loads run outside the lock
+    private final LinkedHashMap<String, PriceSeries> series;
+
+    // bumped by every append, so a load that raced one is not cached
+    private long appends;
+
+    @Autowired
+    private HistoricalPriceRepository historicalPriceRepository;
+
+    @Autowired
+    private PriceSegmentStore priceSegmentStore;
+
+    @Autowired(required = false)
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public PriceSeriesStore(@Value("${historical.series-cache.max-symbols:500}") int maxSymbols) {
+        this.maxSymbols = Math.max(1, maxSymbols);
+        this.series = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PriceSeries> eldest) {
+                if (size() > PriceSeriesStore.this.maxSymbols) {
+                    priceSegmentStore.release(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The stored series for a symbol, empty when nothing is stored. A miss is loaded
+     * without holding the cache lock, so a slow load never blocks reads of other
+     * symbols or {@link #append}; two concurrent misses on one symbol may both load.
+     */
+    public PriceSeries get(String symbol) {
+        long appendsBefore;
+        synchronized (series) {
+            PriceSeries cached = series.get(symbol);
+            if (cached != null) {
+                return cached;
+            }
+            appendsBefore = appends;
+        }
+        PriceSeries loaded = load(symbol);
+        synchronized (series) {
+            PriceSeries cached = series.get(symbol);
+            if (cached != null) {
+                return cached;
+            }
+            // an append during the load may be missing from it; the next read reloads
+            if (appends == appendsBefore) {
+                series.put(symbol, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Merges freshly stored prices into the series and segments of their symbols.
+     * Symbols that were never read are skipped in memory; their first read loads them.
+     * Publishes a {@link PriceHistoryUpdatedEvent} for the affected symbols.
+     */
+    public void append(Collection<HistoricalPrice> prices) {
+        Map<String, List<HistoricalPrice>> bySymbol = new HashMap<>();
+        for (HistoricalPrice price : prices) {
+            if (price.getSymbol() != null) {
+                bySymbol.computeIfAbsent(price.getSymbol(), key -> new ArrayList<>()).add(price);
+            }
+        }
+        bySymbol.forEach((symbol, points) -> {
+            priceSegmentStore.append(symbol, points);
+            synchronized (series) {
+                appends++;
+                series.computeIfPresent(symbol, (key, current) -> current.merge(points));
+            }
+        });
+        if (eventPublisher != null && !bySymbol.isEmpty()) {
+            eventPublisher.publishEvent(new PriceHistoryUpdatedEvent(Set.copyOf(bySymbol.keySet())));
+        }
+    }
+
+    /**
+     * Drops a symbol's series so the next read reloads it from the database.
+     */
+    public void invalidate(String symbol) {
+        synchronized (series) {
+            series.remove(symbol);
+        }
+    }
+
+    int size() {
+        synchronized (series) {
+            return series.size();
+        }
+    }
+
+    private PriceSeries load(String symbol) {
+        if (!priceSegmentStore.isEnabled()) {
+            return loadFromDatabase(symbol);
+        }
+        PriceSegment segment = priceSegmentStore.find(symbol);
+        // a cheap MAX() on the unique key tells whether the segment missed a write
+        LocalDate latest = historicalPriceRepository.findLatestPriceDate(symbol);
+        if (segment != null && Objects.equals(segment.lastDate(), latest)) {
+            return segment.read();
+        }
+        PriceSeries loaded = loadFromDatabase(symbol);
+        priceSegmentStore.write(loaded);
+        return loaded;
+    }
+
+    private PriceSeries loadFromDatabase(String symbol) {
+        List<Object[]> rows = historicalPriceRepository.findPriceSeries(symbol);
+        int[] epochDays = new int[rows.size()];
+        double[] prices = new double[rows.size()];
+        int size = 0;
+        for (Object[] row : rows) {
+            if (row[0] == null || row[1] == null) {
+                continue;
+            }
+            epochDays[size] = (int) ((LocalDate) row[0]).toEpochDay();
+            prices[size] = ((BigDecimal) row[1]).doubleValue();
+            size++;
+        }
+        if (size < rows.size()) {
+            epochDays = Arrays.copyOf(epochDays, size);
+            prices = Arrays.copyOf(prices, size);
+        }
+        return PriceSeries.of(symbol, epochDays, prices);
+    }
+}
@@ -0,0 +1,340 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shared in-memory cache of current prices keyed by (assetType, symbol).
+ * Entries expire after a per-asset-type TTL (stock quotes move every second,
+ * mutual fund NAVs once a day) and the least recently used entry is evicted
+ * once the cache is full. Expired entries are kept for up to the max-stale age so
+ * callers that prefer a slightly old price over an upstream round trip can use
+ * {@link #getLatest}. Every stored price that differs from the usable cached one is
+ * published as a {@link QuoteUpdatedEvent}, so listeners only see real changes.
+ */
+@Service
+public class QuoteCache {
+
+    public static final String STOCK = "STOCK";
+    public static final String MUTUAL_FUND = "MUTUAL_FUND";
+
+    private final Duration stockTtl;
+    private final Duration mutualFundTtl;
+    private final int maxSize;
+    private final Duration maxStale;
+    private final Clock clock;
+
+    private final LinkedHashMap<QuoteKey, CachedQuote> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+
+    @Autowired(required = false)
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public QuoteCache(@Value("${quote.cache.ttl.stock-seconds:30}") long stockTtlSeconds,
+                      @Value("${quote.cache.ttl.mutual-fund-hours:6}") long mutualFundTtlHours,
+                      @Value("${quote.cache.max-size:1000}") int maxSize,
+                      @Value("${quote.cache.max-stale-hours:24}") long maxStaleHours) {
+        this(Duration.ofSeconds(stockTtlSeconds), Duration.ofHours(mutualFundTtlHours), maxSize,
+                Duration.ofHours(maxStaleHours), Clock.systemUTC());
+    }
+
+    QuoteCache(Duration stockTtl, Duration mutualFundTtl, int maxSize, Clock clock) {
+        this(stockTtl, mutualFundTtl, maxSize, Duration.ofHours(24), clock);
+    }
+
+    QuoteCache(Duration stockTtl, Duration mutualFundTtl, int maxSize, Duration maxStale, Clock clock) {
+        this.stockTtl = stockTtl;
+        this.mutualFundTtl = mutualFundTtl;
+        this.maxSize = Math.max(1, maxSize);
+        this.maxStale = maxStale;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<QuoteKey, CachedQuote> eldest) {
+                if (size() > QuoteCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached price for the given asset, calling {@code loader} on a miss.
+     * Zero prices (the upstream fetchers' error value) are returned but not cached,
+     * so a failed lookup is retried on the next request.
+     */
+    public BigDecimal get(String assetType, String symbol, Supplier<BigDecimal> loader) {
+        QuoteKey key = new QuoteKey(normalizeAssetType(assetType), symbol);
+
+        BigDecimal cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        BigDecimal price = loader.get();
+        store(key, price);
+        return price;
+    }
+
+    /**
+     * Non-blocking variant of {@link #get}: the loader is only subscribed to on a miss.
+     */
+    public Mono<BigDecimal> getAsync(String assetType, String symbol, Supplier<Mono<BigDecimal>> loader) {
+        return Mono.defer(() -> {
+            QuoteKey key = new QuoteKey(normalizeAssetType(assetType), symbol);
+
+            BigDecimal cached = lookup(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return loader.get().doOnNext(price -> store(key, price));
+        });
+    }
+
+    /**
+     * Bulk variant of {@link #get}: fresh entries are served from the cache and all
+     * remaining symbols are handed to {@code batchLoader} in a single call. Symbols the
+     * loader cannot price are left out of the returned map.
+     */
+    public Map<String, BigDecimal> getAll(String assetType, Collection<String> symbols,
+                                          Function<Collection<String>, Map<String, BigDecimal>> batchLoader) {
+        String type = normalizeAssetType(assetType);
+        Map<String, BigDecimal> prices = new HashMap<>();
+        List<String> missing = lookupAll(type, symbols, prices);
+
+        if (!missing.isEmpty()) {
+            storeAll(type, missing, batchLoader.apply(missing), prices);
+        }
+        return prices;
+    }
+
+    public Mono<Map<String, BigDecimal>> getAllAsync(String assetType, Collection<String> symbols,
+                                                     Function<Collection<String>, Mono<Map<String, BigDecimal>>> batchLoader) {
+        return Mono.defer(() -> {
+            String type = normalizeAssetType(assetType);
+            Map<String, BigDecimal> prices = new HashMap<>();
+            List<String> missing = lookupAll(type, symbols, prices);
+
+            if (missing.isEmpty()) {
+                return Mono.just(prices);
+            }
+            return batchLoader.apply(missing)
+                    .defaultIfEmpty(new HashMap<>())
+                    .map(loaded -> {
+                        storeAll(type, missing, loaded, prices);
+                        return prices;
+                    });
+        });
+    }
+
+    /**
+     * Returns the fresh cached price without loading it or counting a hit or miss.
+     */
+    public BigDecimal peek(String assetType, String symbol) {
+        return getIfFresh(new QuoteKey(normalizeAssetType(assetType), symbol));
+    }
+
+    /**
+     * Returns the most recent price for the asset, even if its TTL has passed, as long
+     * as it is younger than the max-stale age. Never loads; returns null if there is
+     * no usable price.
+     */
+    public BigDecimal getLatest(String assetType, String symbol) {
+        QuoteKey key = new QuoteKey(normalizeAssetType(assetType), symbol);
+        Instant now = clock.instant();
+        synchronized (entries) {
+            CachedQuote quote = entries.get(key);
+            if (quote == null) {
+                return null;
+            }
+            if (now.isBefore(quote.expiresAt)) {
+                hits.incrementAndGet();
+                return quote.price;
+            }
+            if (now.isBefore(quote.storedAt.plus(maxStale))) {
+                hits.incrementAndGet();
+                staleHits.incrementAndGet();
+                return quote.price;
+            }
+            entries.remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a freshly fetched price, e.g. from a background refresh. Returns false if
+     * the price was not cached (null or not positive).
+     */
+    public boolean put(String assetType, String symbol, BigDecimal price) {
+        return store(new QuoteKey(normalizeAssetType(assetType), symbol), price);
+    }
+
+    public void invalidate(String assetType, String symbol) {
+        synchronized (entries) {
+            entries.remove(new QuoteKey(normalizeAssetType(assetType), symbol));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("staleHits", staleHits.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("stockTtlSeconds", stockTtl.getSeconds());
+        stats.put("mutualFundTtlSeconds", mutualFundTtl.getSeconds());
+        stats.put("maxStaleSeconds", maxStale.getSeconds());
+        return stats;
+    }
+
+    private BigDecimal lookup(QuoteKey key) {
+        BigDecimal cached = getIfFresh(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return cached;
+    }
+
+    private List<String> lookupAll(String type, Collection<String> symbols, Map<String, BigDecimal> prices) {
+        List<String> missing = new ArrayList<>();
+        for (String symbol : symbols) {
+            BigDecimal cached = lookup(new QuoteKey(type, symbol));
+            if (cached != null) {
+                prices.put(symbol, cached);
+            } else {
+                missing.add(symbol);
+            }
+        }
+        return missing;
+    }
+
+    private void storeAll(String type, List<String> symbols, Map<String, BigDecimal> loaded, Map<String, BigDecimal> prices) {
+        for (String symbol : symbols) {
+            BigDecimal price = loaded.get(symbol);
+            if (store(new QuoteKey(type, symbol), price)) {
+                prices.put(symbol, price);
+            }
+        }
+    }
+
+    private BigDecimal getIfFresh(QuoteKey key) {
+        synchronized (entries) {
+            CachedQuote quote = entries.get(key);
+            if (quote == null) {
+                return null;
+            }
+            if (!clock.instant().isBefore(quote.expiresAt)) {
+                // kept for getLatest until it is replaced, evicted or older than max-stale
+                return null;
+            }
+            return quote.price;
+        }
+    }
+
+    private boolean store(QuoteKey key, BigDecimal price) {
+        if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
+            return false;
+        }
+        Instant now = clock.instant();
+        CachedQuote previous;
+        synchronized (entries) {
+            previous = entries.put(key, new CachedQuote(price, now, now.plus(ttlFor(key.assetType))));
+        }
+        // a refresh that confirms the usable price is not a change; a quote past max-stale was unusable
+        boolean changed = previous == null || previous.price.compareTo(price) != 0
+                || !now.isBefore(previous.storedAt.plus(maxStale));
+        if (changed && eventPublisher != null) {
+            eventPublisher.publishEvent(new QuoteUpdatedEvent(key.assetType, key.symbol, price));
+        }
+        return true;
+    }
+
+    private Duration ttlFor(String assetType) {
+        return MUTUAL_FUND.equals(assetType) ? mutualFundTtl : stockTtl;
+    }
+
+    static String normalizeAssetType(String assetType) {
+        String type = assetType == null ? "" : assetType.trim().toUpperCase();
+        if ("MUTUAL-FUND".equals(type) || "MF".equals(type)) {
+            return MUTUAL_FUND;
+        }
+        return type;
+    }
+
+    private static final class QuoteKey {
+        private final String assetType;
+        private final String symbol;
+
+        private QuoteKey(String assetType, String symbol) {
+            this.assetType = assetType;
+            this.symbol = symbol == null ? "" : symbol.trim();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof QuoteKey)) return false;
+            QuoteKey other = (QuoteKey) o;
+            return assetType.equals(other.assetType) && symbol.equals(other.symbol);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(assetType, symbol);
+        }
+    }
+
+    private static final class CachedQuote {
+        private final BigDecimal price;
+        private final Instant storedAt;
+        private final Instant expiresAt;
+
+        private CachedQuote(BigDecimal price, Instant storedAt, Instant expiresAt) {
+            this.price = price;
+            this.storedAt = storedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
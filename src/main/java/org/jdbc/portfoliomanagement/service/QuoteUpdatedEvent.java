@@ -0,0 +1,31 @@
+package org.jdbc.portfoliomanagement.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by {@link QuoteCache} whenever a new price is stored for an asset.
+ */
+public class QuoteUpdatedEvent {
+
+    private final String assetType;
+    private final String symbol;
+    private final BigDecimal price;
+
+    public QuoteUpdatedEvent(String assetType, String symbol, BigDecimal price) {
+        this.assetType = assetType;
+        this.symbol = symbol;
+        this.price = price;
+    }
+
+    public String getAssetType() {
+        return assetType;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
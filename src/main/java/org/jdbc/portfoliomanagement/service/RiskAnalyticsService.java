@@ -0,0 +1,349 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Risk figures for the portfolio from stored daily prices: per-symbol annualized
+ * volatility, return and beta, the covariance matrix, and the portfolio's volatility
+ * and Sharpe ratio. All series are aligned on the union of their trading days within
+ * the look-back window, carrying each price forward over days it did not trade, and
+ * start on the latest first day among them so every row is fully populated. Series
+ * that start much later than the rest are excluded rather than allowed to shorten
+ * the window (see {@link #excludeLateStarters}).
+ * Weights come from the last stored price, so no quotes are fetched.
+ */
+@Service
+public class RiskAnalyticsService {
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private PriceSeriesStore priceSeriesStore;
+
+    @Autowired
+    private HoldingService holdingService;
+
+    @Autowired
+    private ExchangeRateProvider exchangeRateProvider;
+
+    @Value("${risk.lookback-days:365}")
+    private int lookbackDays;
+
+    @Value("${risk.min-observations:20}")
+    private int minObservations;
+
+    @Value("${risk.risk-free-rate:0.05}")
+    private double riskFreeRate;
+
+    @Value("${risk.benchmark-symbol:^GSPC}")
+    private String benchmarkSymbol;
+
+    /**
+     * Risk report as of {@code asOf}. With {@code includeMatrix} the annualized
+     * covariance matrix is added, rows and columns in the order of {@code symbols}.
+     */
+    public Map<String, Object> getRiskAnalytics(LocalDate asOf, boolean includeMatrix) {
+        ReturnMatrix matrix = buildReturnMatrix(asOf);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("asOf", asOf.toString());
+        report.put("riskFreeRate", riskFreeRate);
+        report.put("excluded", matrix.excluded);
+        if (matrix.symbols.isEmpty()) {
+            report.put("observations", 0);
+            report.put("holdings", List.of());
+            return report;
+        }
+
+        int n = matrix.symbols.size();
+        double[][] covariance = RiskEngine.covariance(matrix.returns, ForkJoinPool.commonPool());
+        double[] means = RiskEngine.means(matrix.returns);
+        int benchmark = matrix.benchmarkRow;
+        double benchmarkVariance = benchmark >= 0 ? covariance[benchmark][benchmark] : 0;
+
+        double[] weights = Arrays.copyOf(matrix.weights, n);
+        double portfolioMean = 0;
+        double portfolioBeta = 0;
+        List<Map<String, Object>> holdings = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (i == benchmark && matrix.benchmarkOnly) {
+                continue;
+            }
+            portfolioMean += weights[i] * means[i];
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("symbol", matrix.symbols.get(i));
+            row.put("assetType", matrix.assetTypes.get(i));
+            row.put("weight", round(weights[i]));
+            row.put("annualizedVolatility", round(RiskEngine.annualizeVolatility(covariance[i][i])));
+            row.put("annualizedReturn", round(RiskEngine.annualizeReturn(means[i])));
+            if (benchmarkVariance > 0) {
+                double beta = covariance[i][benchmark] / benchmarkVariance;
+                portfolioBeta += weights[i] * beta;
+                row.put("beta", round(beta));
+            }
+            holdings.add(row);
+        }
+
+        double portfolioVolatility = RiskEngine.annualizeVolatility(RiskEngine.portfolioVariance(covariance, weights));
+        double portfolioReturn = RiskEngine.annualizeReturn(portfolioMean);
+        Map<String, Object> portfolio = new LinkedHashMap<>();
+        portfolio.put("annualizedVolatility", round(portfolioVolatility));
+        portfolio.put("annualizedReturn", round(portfolioReturn));
+        portfolio.put("sharpeRatio", portfolioVolatility > 0 ? round((portfolioReturn - riskFreeRate) / portfolioVolatility) : null);
+        if (benchmarkVariance > 0) {
+            portfolio.put("beta", round(portfolioBeta));
+            portfolio.put("benchmark", benchmarkSymbol);
+        }
+
+        report.put("from", matrix.from.toString());
+        report.put("observations", matrix.returns[0].length);
+        report.put("portfolio", portfolio);
+        report.put("holdings", holdings);
+        if (includeMatrix) {
+            double[][] annualized = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    annualized[i][j] = covariance[i][j] * RiskEngine.TRADING_DAYS_PER_YEAR;
+                }
+            }
+            report.put("symbols", matrix.symbols);
+            report.put("covariance", annualized);
+        }
+        return report;
+    }
+
+    /**
+     * Daily returns of every held position with enough stored history, aligned on one
+     * date grid, plus the INR weight of each position. Positions are keyed by
+     * {@code assetType:symbol}, as in {@link QuoteCache}, so a stock and a fund scheme
+     * sharing a code stay separate rows. Reused by the other history-based analytics.
+     */
+    ReturnMatrix buildReturnMatrix(LocalDate asOf) {
+        double usdToInr = exchangeRateProvider.getUsdToInrRate().doubleValue();
+        Map<String, Double> quantities = new LinkedHashMap<>();
+        for (Holding holding : holdingRepository.findAll()) {
+            if (holding.getSymbol() == null || holding.getQuantity() == null) {
+                continue;
+            }
+            boolean usd = "USD".equals(holdingService.getCurrencyCode(holding.getAssetType()));
+            // quantities are weighted by the INR rate, so quantity * price is an INR value
+            quantities.merge(positionKey(holding.getAssetType(), holding.getSymbol()),
+                    holding.getQuantity().doubleValue() * (usd ? usdToInr : 1.0), Double::sum);
+        }
+
+        LocalDate start = asOf.minusDays(lookbackDays);
+        List<String> keys = new ArrayList<>();
+        List<PriceSeries> windows = new ArrayList<>();
+        List<String> excluded = new ArrayList<>();
+        for (String key : quantities.keySet()) {
+            PriceSeries window = priceSeriesStore.get(symbolOf(key)).range(start, asOf);
+            if (window.size() > minObservations) {
+                keys.add(key);
+                windows.add(window);
+            } else {
+                excluded.add(key);
+            }
+        }
+
+        int alignedStart = excludeLateStarters(keys, windows, excluded);
+
+        String benchmarkKey = positionKey("STOCK", benchmarkSymbol);
+        int benchmarkRow = keys.indexOf(benchmarkKey);
+        boolean benchmarkOnly = false;
+        if (benchmarkRow < 0 && !keys.isEmpty() && benchmarkSymbol != null && !benchmarkSymbol.isBlank()) {
+            PriceSeries window = priceSeriesStore.get(benchmarkSymbol).range(start, asOf);
+            // a benchmark younger than the window is left out rather than shortening it
+            if (window.size() > minObservations && window.epochDay(0) <= alignedStart) {
+                benchmarkRow = keys.size();
+                benchmarkOnly = true;
+                keys.add(benchmarkKey);
+                windows.add(window);
+            }
+        }
+
+        int[] grid = dateGrid(windows);
+        if (grid.length <= minObservations) {
+            excluded.addAll(benchmarkOnly ? keys.subList(0, keys.size() - 1) : keys);
+            return new ReturnMatrix(List.of(), List.of(), new double[0][], new double[0], 0, -1, false,
+                    symbolsOf(excluded), asOf);
+        }
+
+        int n = keys.size();
+        double[][] returns = new double[n][];
+        double[] values = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            double[] aligned = alignOnGrid(windows.get(i), grid);
+            returns[i] = RiskEngine.returns(aligned);
+            if (!(benchmarkOnly && i == benchmarkRow)) {
+                values[i] = quantities.get(keys.get(i)) * aligned[aligned.length - 1];
+                total += values[i];
+            }
+        }
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = total > 0 ? values[i] / total : 0;
+        }
+        List<String> assetTypes = new ArrayList<>(n);
+        for (String key : keys) {
+            assetTypes.add(key.substring(0, key.indexOf(':')));
+        }
+        return new ReturnMatrix(symbolsOf(keys), assetTypes, returns, weights, total, benchmarkRow, benchmarkOnly,
+                symbolsOf(excluded), LocalDate.ofEpochDay(grid[0]));
+    }
+
+    private static String positionKey(String assetType, String symbol) {
+        return QuoteCache.normalizeAssetType(assetType) + ":" + symbol.trim();
+    }
+
+    private static String symbolOf(String key) {
+        return key.substring(key.indexOf(':') + 1);
+    }
+
+    private static List<String> symbolsOf(List<String> keys) {
+        List<String> symbols = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            symbols.add(symbolOf(key));
+        }
+        return symbols;
+    }
+
+    /**
+     * Picks the first day of the aligned window and moves the symbols whose history
+     * starts after it from {@code symbols}/{@code windows} to {@code excluded}. Each
+     * candidate first day is scored by the number of series it keeps times the days it
+     * spans, so one young series is left out instead of cutting every other series
+     * down to its length, while a portfolio of mostly young series still keeps them.
+     * Returns the chosen day, or {@link Integer#MAX_VALUE} without windows.
+     */
+    static int excludeLateStarters(List<String> symbols, List<PriceSeries> windows, List<String> excluded) {
+        int end = Integer.MIN_VALUE;
+        for (PriceSeries window : windows) {
+            end = Math.max(end, window.epochDay(window.size() - 1));
+        }
+        int best = Integer.MAX_VALUE;
+        long bestScore = -1;
+        for (PriceSeries candidate : windows) {
+            int start = candidate.epochDay(0);
+            int kept = 0;
+            for (PriceSeries window : windows) {
+                if (window.epochDay(0) <= start) {
+                    kept++;
+                }
+            }
+            long score = (long) kept * (end - start + 1);
+            if (score > bestScore || (score == bestScore && start < best)) {
+                best = start;
+                bestScore = score;
+            }
+        }
+
+        int size = 0;
+        for (int i = 0; i < windows.size(); i++) {
+            if (windows.get(i).epochDay(0) <= best) {
+                symbols.set(size, symbols.get(i));
+                windows.set(size, windows.get(i));
+                size++;
+            } else {
+                excluded.add(symbols.get(i));
+            }
+        }
+        symbols.subList(size, symbols.size()).clear();
+        windows.subList(size, windows.size()).clear();
+        return best;
+    }
+
+    /**
+     * Sorted, distinct trading days of all windows, from the latest first day among
+     * them on, so every window has a price on every grid day.
+     */
+    static int[] dateGrid(List<PriceSeries> windows) {
+        int from = Integer.MIN_VALUE;
+        for (PriceSeries window : windows) {
+            from = Math.max(from, window.epochDay(0));
+        }
+        int total = 0;
+        for (PriceSeries window : windows) {
+            total += window.size();
+        }
+        int[] days = new int[total];
+        int size = 0;
+        for (PriceSeries window : windows) {
+            for (int i = window.ceilingIndex(from); i < window.size(); i++) {
+                days[size++] = window.epochDay(i);
+            }
+        }
+        Arrays.sort(days, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || days[i] != days[distinct - 1]) {
+                days[distinct++] = days[i];
+            }
+        }
+        return Arrays.copyOf(days, distinct);
+    }
+
+    /**
+     * The window's price on every grid day, carrying the last price forward.
+     */
+    static double[] alignOnGrid(PriceSeries window, int[] grid) {
+        double[] aligned = new double[grid.length];
+        int index = Math.max(0, window.floorIndex(grid[0]));
+        for (int t = 0; t < grid.length; t++) {
+            while (index + 1 < window.size() && window.epochDay(index + 1) <= grid[t]) {
+                index++;
+            }
+            aligned[t] = window.price(index);
+        }
+        return aligned;
+    }
+
+    private static BigDecimal round(double value) {
+        return Double.isFinite(value) ? BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP) : null;
+    }
+
+    /**
+     * Aligned daily returns, one row per position, and the INR value of the rows that
+     * are held. {@code symbols} and {@code assetTypes} identify the rows. When the
+     * benchmark is not held it is the last row, with weight zero.
+     */
+    static final class ReturnMatrix {
+        final List<String> symbols;
+        final List<String> assetTypes;
+        final double[][] returns;
+        final double[] weights;
+        final double totalValue;
+        final int benchmarkRow;
+        final boolean benchmarkOnly;
+        final List<String> excluded;
+        final LocalDate from;
+
+        ReturnMatrix(List<String> symbols, List<String> assetTypes, double[][] returns, double[] weights,
+                     double totalValue, int benchmarkRow, boolean benchmarkOnly, List<String> excluded, LocalDate from) {
+            this.symbols = symbols;
+            this.assetTypes = assetTypes;
+            this.returns = returns;
+            this.weights = weights;
+            this.totalValue = totalValue;
+            this.benchmarkRow = benchmarkRow;
+            this.benchmarkOnly = benchmarkOnly;
+            this.excluded = excluded;
+            this.from = from;
+        }
+    }
+}
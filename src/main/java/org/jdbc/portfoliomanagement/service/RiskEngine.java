@@ -0,0 +1,171 @@
+package org.jdbc.portfoliomanagement.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Numeric kernels for the risk analytics, on primitive arrays. Return series are laid
+ * out one row per asset ({@code returns[asset][day]}), all rows the same length.
+ * The covariance matrix is computed in square blocks of the upper triangle, each
+ * block a fork/join task, and mirrored into the lower triangle.
+ */
+public final class RiskEngine {
+
+    public static final int TRADING_DAYS_PER_YEAR = 252;
+
+    // 64x64 blocks keep both row sets of a block in L2 for a year of daily returns
+    static final int BLOCK_SIZE = 64;
+
+    private RiskEngine() {
+    }
+
+    /**
+     * Daily simple returns of a price row: {@code prices[t] / prices[t - 1] - 1}.
+     */
+    public static double[] returns(double[] prices) {
+        double[] returns = new double[Math.max(0, prices.length - 1)];
+        for (int t = 1; t < prices.length; t++) {
+            returns[t - 1] = prices[t - 1] == 0 ? 0 : prices[t] / prices[t - 1] - 1;
+        }
+        return returns;
+    }
+
+    public static double[] means(double[][] returns) {
+        double[] means = new double[returns.length];
+        for (int i = 0; i < returns.length; i++) {
+            double sum = 0;
+            for (double value : returns[i]) {
+                sum += value;
+            }
+            means[i] = returns[i].length == 0 ? 0 : sum / returns[i].length;
+        }
+        return means;
+    }
+
+    /**
+     * Sample covariance matrix of the rows of {@code returns}, computed in parallel
+     * on {@code pool}.
+     */
+    public static double[][] covariance(double[][] returns, ForkJoinPool pool) {
+        int n = returns.length;
+        double[][] covariance = new double[n][n];
+        if (n == 0) {
+            return covariance;
+        }
+        int days = returns[0].length;
+        if (days < 2) {
+            return covariance;
+        }
+
+        double[] means = means(returns);
+        double[][] centered = new double[n][days];
+        for (int i = 0; i < n; i++) {
+            for (int t = 0; t < days; t++) {
+                centered[i][t] = returns[i][t] - means[i];
+            }
+        }
+
+        List<RecursiveAction> blocks = new ArrayList<>();
+        for (int rowStart = 0; rowStart < n; rowStart += BLOCK_SIZE) {
+            for (int colStart = rowStart; colStart < n; colStart += BLOCK_SIZE) {
+                blocks.add(new CovarianceBlock(centered, covariance, rowStart, colStart, days - 1));
+            }
+        }
+        if (blocks.size() == 1) {
+            blocks.get(0).invoke();
+        } else {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(blocks);
+                }
+            });
+        }
+        return covariance;
+    }
+
+    /**
+     * Correlation matrix from a covariance matrix. A row with no variance is
+     * uncorrelated with every other row.
+     */
+    public static double[][] correlation(double[][] covariance) {
+        int n = covariance.length;
+        double[][] correlation = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            correlation[i][i] = 1;
+            for (int j = i + 1; j < n; j++) {
+                double scale = Math.sqrt(covariance[i][i] * covariance[j][j]);
+                // clamp rounding noise so perfectly correlated rows stay within [-1, 1]
+                double value = scale > 0 ? Math.max(-1, Math.min(1, covariance[i][j] / scale)) : 0;
+                correlation[i][j] = value;
+                correlation[j][i] = value;
+            }
+        }
+        return correlation;
+    }
+
+    /**
+     * {@code weights' * covariance * weights}.
+     */
+    public static double portfolioVariance(double[][] covariance, double[] weights) {
+        double variance = 0;
+        for (int i = 0; i < weights.length; i++) {
+            double row = 0;
+            for (int j = 0; j < weights.length; j++) {
+                row += covariance[i][j] * weights[j];
+            }
+            variance += weights[i] * row;
+        }
+        return Math.max(0, variance);
+    }
+
+    public static double annualizeVolatility(double dailyVariance) {
+        return Math.sqrt(Math.max(0, dailyVariance) * TRADING_DAYS_PER_YEAR);
+    }
+
+    public static double annualizeReturn(double dailyMean) {
+        return dailyMean * TRADING_DAYS_PER_YEAR;
+    }
+
+    /**
+     * One block of the upper triangle; diagonal blocks fill only their own upper half.
+     */
+    private static final class CovarianceBlock extends RecursiveAction {
+        private final double[][] centered;
+        private final double[][] covariance;
+        private final int rowStart;
+        private final int colStart;
+        private final int degreesOfFreedom;
+
+        CovarianceBlock(double[][] centered, double[][] covariance, int rowStart, int colStart, int degreesOfFreedom) {
+            this.centered = centered;
+            this.covariance = covariance;
+            this.rowStart = rowStart;
+            this.colStart = colStart;
+            this.degreesOfFreedom = degreesOfFreedom;
+        }
+
+        @Override
+        protected void compute() {
+            int n = centered.length;
+            int rowEnd = Math.min(rowStart + BLOCK_SIZE, n);
+            int colEnd = Math.min(colStart + BLOCK_SIZE, n);
+            for (int i = rowStart; i < rowEnd; i++) {
+                double[] a = centered[i];
+                for (int j = Math.max(colStart, i); j < colEnd; j++) {
+                    double[] b = centered[j];
+                    double sum = 0;
+                    for (int t = 0; t < a.length; t++) {
+                        sum += a[t] * b[t];
+                    }
+                    double value = sum / degreesOfFreedom;
+                    // each cell belongs to exactly one block, so the writes never overlap
+                    covariance[i][j] = value;
+                    covariance[j][i] = value;
+                }
+            }
+        }
+    }
+}
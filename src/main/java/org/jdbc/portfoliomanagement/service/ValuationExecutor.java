@@ -0,0 +1,125 @@
+package org.jdbc.portfoliomanagement.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs per-holding price lookups concurrently. Each upstream host gets its own
+ * concurrency cap so a large portfolio cannot flood Yahoo or mfapi, and a whole
+ * batch must finish within the configured deadline. Results are returned in the
+ * same order as the input; lookups that fail or miss the deadline get the fallback.
+ */
+@Service
+public class ValuationExecutor {
+
+    // Yahoo Finance and mfapi
+    private static final int UPSTREAM_HOSTS = 2;
+
+    private final ExecutorService executor;
+    private final int maxConcurrencyPerHost;
+    private final long deadlineMs;
+    private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ValuationExecutor(@Value("${valuation.max-concurrency-per-host:8}") int maxConcurrencyPerHost,
+                             @Value("${valuation.deadline-ms:10000}") long deadlineMs) {
+        this.maxConcurrencyPerHost = Math.max(1, maxConcurrencyPerHost);
+        this.deadlineMs = deadlineMs;
+        this.executor = createExecutor(this.maxConcurrencyPerHost * UPSTREAM_HOSTS);
+    }
+
+    public <T, R> List<R> mapInOrder(List<T> items, Function<T, String> hostOf, Function<T, R> task, R fallback) {
+        List<R> results = new ArrayList<>(items.size());
+        if (items.isEmpty()) {
+            return results;
+        }
+
+        List<Callable<R>> callables = new ArrayList<>(items.size());
+        for (T item : items) {
+            Semaphore permits = hostPermits.computeIfAbsent(hostOf.apply(item), host -> new Semaphore(maxConcurrencyPerHost));
+            callables.add(() -> {
+                permits.acquire();
+                try {
+                    return task.apply(item);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        List<Future<R>> futures;
+        try {
+            futures = executor.invokeAll(callables, deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (int i = 0; i < items.size(); i++) {
+                results.add(fallback);
+            }
+            return results;
+        }
+
+        int timedOut = 0;
+        for (Future<R> future : futures) {
+            try {
+                R result = future.get();
+                results.add(result != null ? result : fallback);
+            } catch (CancellationException e) {
+                timedOut++;
+                results.add(fallback);
+            } catch (ExecutionException e) {
+                System.err.println("Valuation task failed: " + e.getCause().getMessage());
+                results.add(fallback);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(fallback);
+            }
+        }
+        if (timedOut > 0) {
+            System.err.println(timedOut + " valuation task(s) missed the " + deadlineMs + " ms deadline");
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Uses a virtual-thread-per-task executor when the runtime provides one (Java 21+).
+     * On older runtimes falls back to a fixed pool of daemon platform threads, sized so
+     * every upstream host can use its full concurrency cap at once.
+     */
+    private static ExecutorService createExecutor(int platformThreads) {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newFixedThreadPool(platformThreads, runnable -> {
+                Thread thread = new Thread(runnable, "valuation-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
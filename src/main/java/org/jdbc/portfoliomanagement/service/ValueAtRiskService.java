@@ -0,0 +1,172 @@
+package org.jdbc.portfoliomanagement.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Portfolio Value-at-Risk and expected shortfall by correlated Monte Carlo over the
+ * stored daily returns. The return matrix, weights and exclusions are the ones of
+ * {@link RiskAnalyticsService}; the simulation runs in {@link MonteCarloEngine} on a
+ * pool of its own, so a large request cannot occupy the common fork/join pool. A
+ * request simulates at most {@code var.max-horizons} horizons and
+ * {@code var.max-path-days} path-days (paths times the sum of the horizons).
+ */
+@Service
+public class ValueAtRiskService {
+
+    private static final double[] CONFIDENCE_LEVELS = {0.95, 0.99};
+
+    @Autowired
+    private RiskAnalyticsService riskAnalyticsService;
+
+    @Value("${var.paths:100000}")
+    private int defaultPaths;
+
+    @Value("${var.max-paths:1000000}")
+    private int maxPaths;
+
+    @Value("${var.horizons:1,10}")
+    private int[] defaultHorizons;
+
+    @Value("${var.max-horizon-days:250}")
+    private int maxHorizonDays;
+
+    @Value("${var.max-horizons:5}")
+    private int maxHorizons;
+
+    @Value("${var.max-path-days:50000000}")
+    private long maxPathDays;
+
+    // 0 uses every available processor
+    @Value("${var.parallelism:0}")
+    private int parallelism;
+
+    // blank draws a fresh seed per request
+    @Value("${var.seed:}")
+    private String defaultSeed;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void start() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("value-at-risk-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * VaR and CVaR at 95% and 99% for each horizon, as a fraction of the covered value
+     * and in INR. The covered value is that of the holdings in the return matrix;
+     * holdings listed under {@code excluded} have too little history and are not part
+     * of it. Null arguments fall back to the configured paths, horizons and seed.
+     *
+     * @throws IllegalArgumentException if paths, a horizon, the number of horizons or
+     *                                  the path-day budget is out of range
+     */
+    public Map<String, Object> getValueAtRisk(LocalDate asOf, Integer paths, List<Integer> horizons, Long seed) {
+        int pathCount = paths != null ? paths : defaultPaths;
+        if (pathCount < 1 || pathCount > maxPaths) {
+            throw new IllegalArgumentException("paths must be between 1 and " + maxPaths);
+        }
+        // a repeated horizon would only simulate the same thing twice
+        Set<Integer> horizonDays = new LinkedHashSet<>();
+        if (horizons != null && !horizons.isEmpty()) {
+            horizonDays.addAll(horizons);
+        } else {
+            for (int horizon : defaultHorizons) {
+                horizonDays.add(horizon);
+            }
+        }
+        if (horizonDays.size() > maxHorizons) {
+            throw new IllegalArgumentException("at most " + maxHorizons + " horizons per request");
+        }
+        long pathDays = 0;
+        for (Integer horizon : horizonDays) {
+            if (horizon == null || horizon < 1 || horizon > maxHorizonDays) {
+                throw new IllegalArgumentException("horizon must be between 1 and " + maxHorizonDays + " days");
+            }
+            pathDays += (long) pathCount * horizon;
+        }
+        if (pathDays > maxPathDays) {
+            throw new IllegalArgumentException("paths times the sum of the horizons must not exceed " + maxPathDays);
+        }
+        long runSeed = seed != null ? seed
+                : defaultSeed == null || defaultSeed.isBlank() ? ThreadLocalRandom.current().nextLong() : Long.parseLong(defaultSeed.trim());
+
+        RiskAnalyticsService.ReturnMatrix matrix = riskAnalyticsService.buildReturnMatrix(asOf);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("asOf", asOf.toString());
+        report.put("paths", pathCount);
+        report.put("seed", runSeed);
+        report.put("excluded", matrix.excluded);
+        int held = matrix.benchmarkOnly ? matrix.symbols.size() - 1 : matrix.symbols.size();
+        if (held == 0 || matrix.totalValue <= 0) {
+            report.put("horizons", List.of());
+            return report;
+        }
+
+        // the benchmark row, when it is only there for beta, has no weight and is left out
+        double[][] returns = new double[held][];
+        double[] weights = new double[held];
+        for (int i = 0; i < held; i++) {
+            returns[i] = matrix.returns[i];
+            weights[i] = matrix.weights[i];
+        }
+        double[][] covariance = RiskEngine.covariance(returns, pool);
+        double[] means = RiskEngine.means(returns);
+
+        report.put("coveredValue", BigDecimal.valueOf(matrix.totalValue).setScale(2, RoundingMode.HALF_UP));
+        report.put("currency", "INR");
+        report.put("from", matrix.from.toString());
+        report.put("observations", returns[0].length);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int horizon : horizonDays) {
+            double[] simulated = MonteCarloEngine.simulate(covariance, means, weights, horizon, pathCount,
+                    runSeed, pool);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("horizonDays", horizon);
+            for (double confidence : CONFIDENCE_LEVELS) {
+                String level = String.valueOf(Math.round(confidence * 100));
+                double var = MonteCarloEngine.valueAtRisk(simulated, confidence);
+                double cvar = MonteCarloEngine.conditionalValueAtRisk(simulated, confidence);
+                result.put("var" + level, round(var, 6));
+                result.put("var" + level + "Inr", round(var * matrix.totalValue, 2));
+                result.put("cvar" + level, round(cvar, 6));
+                result.put("cvar" + level + "Inr", round(cvar * matrix.totalValue, 2));
+            }
+            results.add(result);
+        }
+        report.put("horizons", results);
+        return report;
+    }
+
+    private static BigDecimal round(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+}
@@ -2,87 +2,219 @@ package org.jdbc.portfoliomanagement.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.core.util.Json;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.reactive.function.client.WebClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class YahooFinanceService {
+    private static final int DEFAULT_MAX_BATCH_SIZE = 50;
+
     private final WebClient webclient;
     private final ObjectMapper objectMapper;
 
-    public YahooFinanceService() {
-        this.webclient = WebClient.builder().build();
+    @Value("${yahoo.quote.max-batch-size:50}")
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+    @Autowired
+    public YahooFinanceService(@Qualifier("yahooWebClient") WebClient webclient) {
+        this.webclient = webclient;
         this.objectMapper = new ObjectMapper();
     }
 
     public BigDecimal getCurrentPrice(String symbol) {
-        try {
-            String url = String.format("https://query1.finance.yahoo.com/v8/finance/chart/%s?interval=1d", symbol);
+        return getCurrentPriceAsync(symbol).block();
+    }
 
-            String response = webclient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+    public Mono<BigDecimal> getCurrentPriceAsync(String symbol) {
+        String url = String.format("https://query1.finance.yahoo.com/v8/finance/chart/%s?interval=1d", symbol);
 
-            var root = objectMapper.readTree(response);
-            var result = root.path("chart").path("result").get(0);
+        return webclient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(String.class)
+                .flatMap(response -> Mono.fromCallable(() -> {
+                    var root = objectMapper.readTree(response);
+                    var result = root.path("chart").path("result").get(0);
 
-            JsonNode meta = result.path("meta");
-            JsonNode regularMarketPriceNode = meta.path("regularMarketPrice");
+                    JsonNode meta = result.path("meta");
+                    JsonNode regularMarketPriceNode = meta.path("regularMarketPrice");
 
-            return new BigDecimal(regularMarketPriceNode.asDouble());
+                    return new BigDecimal(regularMarketPriceNode.asDouble());
+                }))
+                .onErrorResume(e -> {
+                    System.err.println("Error fetching price from Yahoo Finance: " + e.getMessage());
+                    return Mono.just(BigDecimal.ZERO);
+                })
+                .defaultIfEmpty(BigDecimal.ZERO);
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error fetching price from Yahoo Finance: " + e.getMessage());
-            return BigDecimal.ZERO;
+    /**
+     * Prices many symbols with the v7 quote endpoint, which accepts a comma separated
+     * symbol list. Symbols are sent in chunks of at most {@code yahoo.quote.max-batch-size};
+     * symbols Yahoo does not return are simply absent from the result.
+     */
+    public Map<String, Quote> getQuotes(Collection<String> symbols) {
+        return getQuotesAsync(symbols).block();
+    }
+
+    public Mono<Map<String, Quote>> getQuotesAsync(Collection<String> symbols) {
+        if (symbols == null || symbols.isEmpty()) {
+            return Mono.just(new LinkedHashMap<>());
         }
+
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.trim().isEmpty()) {
+                distinct.add(symbol.trim());
+            }
+        }
+
+        int batchSize = maxBatchSize > 0 ? maxBatchSize : DEFAULT_MAX_BATCH_SIZE;
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>(batchSize);
+        for (String symbol : distinct) {
+            chunk.add(symbol);
+            if (chunk.size() == batchSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+
+        return Flux.fromIterable(chunks)
+                .flatMap(this::fetchQuoteBatch)
+                .<Map<String, Quote>>collect(LinkedHashMap::new, Map::putAll);
+    }
+
+    private Mono<Map<String, Quote>> fetchQuoteBatch(List<String> symbols) {
+        String url = String.format("https://query1.finance.yahoo.com/v7/finance/quote?symbols=%s", String.join(",", symbols));
+
+        return webclient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(String.class)
+                .flatMap(response -> Mono.fromCallable(() -> parseQuotes(response)))
+                .onErrorResume(e -> {
+                    System.err.println("Error fetching quotes from Yahoo Finance for " + symbols + ": " + e.getMessage());
+                    return Mono.just(new LinkedHashMap<>());
+                })
+                .defaultIfEmpty(new LinkedHashMap<>());
+    }
+
+    Map<String, Quote> parseQuotes(String response) throws Exception {
+        Map<String, Quote> quotes = new LinkedHashMap<>();
+        if (response == null || response.isEmpty()) {
+            return quotes;
+        }
+
+        JsonNode results = objectMapper.readTree(response).path("quoteResponse").path("result");
+        if (!results.isArray()) {
+            return quotes;
+        }
+
+        for (JsonNode q : results) {
+            String symbol = q.path("symbol").asText();
+            JsonNode priceNode = q.path("regularMarketPrice");
+            if (symbol.isEmpty() || !priceNode.isNumber()) {
+                continue;
+            }
+            Quote quote = new Quote(
+                    symbol,
+                    new BigDecimal(priceNode.asText()),
+                    q.has("regularMarketPreviousClose") ? new BigDecimal(q.path("regularMarketPreviousClose").asText()) : null,
+                    q.path("currency").asText(null)
+            );
+            quotes.put(symbol, quote);
+        }
+        return quotes;
     }
 
     public List<HistoricalData> getHistoricalData(String symbol) {
+        return getHistoricalDataAsync(symbol).block();
+    }
+
+    public Mono<List<HistoricalData>> getHistoricalDataAsync(String symbol) {
+        String url = String.format("https://query1.finance.yahoo.com/v8/finance/chart/%s?range=1mo&interval=1d", symbol);
+        return fetchHistoricalData(symbol, url);
+    }
+
+    public List<HistoricalData> getHistoricalData(String symbol, LocalDate from, LocalDate to) {
+        return getHistoricalDataAsync(symbol, from, to).block();
+    }
+
+    /**
+     * Daily closes between {@code from} and {@code to}, both inclusive, using an explicit
+     * period1/period2 window instead of a fixed range.
+     */
+    public Mono<List<HistoricalData>> getHistoricalDataAsync(String symbol, LocalDate from, LocalDate to) {
+        long period1 = from.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        long period2 = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        String url = String.format("https://query1.finance.yahoo.com/v8/finance/chart/%s?period1=%d&period2=%d&interval=1d",
+                symbol, period1, period2);
+        return fetchHistoricalData(symbol, url)
+                .map(data -> {
+                    // Yahoo may include the session before period1 depending on the exchange time zone
+                    data.removeIf(point -> point.getDate().isBefore(from));
+                    return data;
+                });
+    }
+
+    private Mono<List<HistoricalData>> fetchHistoricalData(String symbol, String url) {
+        return webclient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(String.class)
+                .flatMap(response -> Mono.fromCallable(() -> parseHistoricalData(symbol, response)))
+                .onErrorResume(e -> {
+                    System.err.println("Error fetching historical data from Yahoo Finance: " + e.getMessage());
+                    return Mono.just(new ArrayList<>());
+                })
+                .defaultIfEmpty(new ArrayList<>());
+    }
+
+    private List<HistoricalData> parseHistoricalData(String symbol, String response) throws Exception {
         List<HistoricalData> historicalDataList = new ArrayList<>();
 
-        try {
-            String url = String.format("https://query1.finance.yahoo.com/v8/finance/chart/%s?range=1mo&interval=1d", symbol);
+        JsonNode root = objectMapper.readTree(response);
+        JsonNode result = root.path("chart").path("result").get(0);
 
-            String response = webclient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+        JsonNode timestamps = result.path("timestamp");
+        JsonNode indicators = result.path("indicators").path("quote").get(0);
+        JsonNode closes = indicators.path("close");
 
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode result = root.path("chart").path("result").get(0);
-
-            JsonNode timestamps = result.path("timestamp");
-            JsonNode indicators = result.path("indicators").path("quote").get(0);
-            JsonNode closes = indicators.path("close");
-
-            for (int i = 0; i < timestamps.size(); i++) {
-                long timestamp = timestamps.get(i).asLong();
-                JsonNode closePriceNode = closes.get(i);
-
-                if(closePriceNode == null || closePriceNode.isNull()) {
-                    continue;
-                }
-                LocalDate date = Instant.ofEpochSecond(timestamp).atZone(ZoneId.systemDefault()).toLocalDate();
-                BigDecimal price = new BigDecimal(closePriceNode.asDouble());
-                historicalDataList.add(new HistoricalData(symbol, price, date));
-            }
-            historicalDataList.sort((a, b) -> a.getDate().compareTo(b.getDate()));
+        for (int i = 0; i < timestamps.size(); i++) {
+            long timestamp = timestamps.get(i).asLong();
+            JsonNode closePriceNode = closes.get(i);
 
-        } catch (Exception e) {
-            System.err.println("Error fetching historical data from Yahoo Finance: " + e.getMessage());
-            e.printStackTrace();
+            if(closePriceNode == null || closePriceNode.isNull()) {
+                continue;
+            }
+            LocalDate date = Instant.ofEpochSecond(timestamp).atZone(ZoneId.systemDefault()).toLocalDate();
+            BigDecimal price = new BigDecimal(closePriceNode.asDouble());
+            historicalDataList.add(new HistoricalData(symbol, price, date));
         }
+        historicalDataList.sort((a, b) -> a.getDate().compareTo(b.getDate()));
         return historicalDataList;
     }
 
@@ -147,6 +279,25 @@ public class YahooFinanceService {
         }
     }
 
+    public static class Quote {
+        private final String symbol;
+        private final BigDecimal price;
+        private final BigDecimal previousClose;
+        private final String currency;
+
+        public Quote(String symbol, BigDecimal price, BigDecimal previousClose, String currency) {
+            this.symbol = symbol;
+            this.price = price;
+            this.previousClose = previousClose;
+            this.currency = currency;
+        }
+
+        public String getSymbol() {return symbol;}
+        public BigDecimal getPrice() {return price;}
+        public BigDecimal getPreviousClose() {return previousClose;}
+        public String getCurrency() {return currency;}
+    }
+
     public static class StockDetails {
         private String symbol;
         private String name;
@@ -0,0 +1,23 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Existing databases are
+-- baselined at this version, so this script only runs against an empty schema.
+
+CREATE TABLE holdings (
+    id             BIGINT NOT NULL AUTO_INCREMENT,
+    asset_type     VARCHAR(255),
+    category       VARCHAR(255),
+    created_at     DATETIME(6),
+    purchase_date  DATE,
+    purchase_price DECIMAL(38, 2),
+    quantity       DECIMAL(38, 2),
+    symbol         VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE historical_prices (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    price      DECIMAL(38, 2),
+    price_date DATE,
+    symbol     VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_historical_prices_symbol_date UNIQUE (symbol, price_date)
+);
@@ -0,0 +1,13 @@
+-- findBySymbol and the symbol-prefix filter of the paginated listing
+CREATE INDEX idx_holdings_symbol ON holdings (symbol);
+
+-- findByAssetType, plus the composition / position-total GROUP BYs, which can read
+-- groups in index order instead of sorting the table
+CREATE INDEX idx_holdings_asset_type_symbol_category ON holdings (asset_type, symbol, category);
+
+-- category filter of the paginated listing
+CREATE INDEX idx_holdings_category ON holdings (category);
+
+-- historical_prices lookups by symbol and symbol + date range are served by the
+-- uk_historical_prices_symbol_date unique index, created by V1 on new schemas and by V3
+-- on databases that were baselined at V1
@@ -0,0 +1,6 @@
+-- created_at is a keyset sort of the paginated listing, and a keyset predicate never
+-- matches a null value. Rows written before the column was always populated get the
+-- migration time, which keeps them after every dated row in creation order.
+UPDATE holdings SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+
+ALTER TABLE holdings MODIFY created_at DATETIME(6) NOT NULL;
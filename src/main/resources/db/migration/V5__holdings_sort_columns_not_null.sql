@@ -0,0 +1,13 @@
+-- asset_type, symbol, quantity and purchase_price are keyset sorts of the paginated
+-- listing, and a keyset predicate never matches a null value. Rows saved without them
+-- could not be priced anyway: they get placeholders that keep them listed (so they can
+-- be corrected or deleted) and contribute nothing to cost basis.
+UPDATE holdings SET asset_type = 'UNKNOWN' WHERE asset_type IS NULL;
+UPDATE holdings SET symbol = 'UNKNOWN' WHERE symbol IS NULL;
+UPDATE holdings SET quantity = 0 WHERE quantity IS NULL;
+UPDATE holdings SET purchase_price = 0 WHERE purchase_price IS NULL;
+
+ALTER TABLE holdings MODIFY asset_type VARCHAR(255) NOT NULL;
+ALTER TABLE holdings MODIFY symbol VARCHAR(255) NOT NULL;
+ALTER TABLE holdings MODIFY quantity DECIMAL(38, 2) NOT NULL;
+ALTER TABLE holdings MODIFY purchase_price DECIMAL(38, 2) NOT NULL;
@@ -1,10 +1,19 @@
 package org.jdbc.portfoliomanagement.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jdbc.portfoliomanagement.config.HttpClientPoolMetrics;
 import org.jdbc.portfoliomanagement.entity.Holding;
 import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
 import org.jdbc.portfoliomanagement.service.HistoricalPriceService;
+import org.jdbc.portfoliomanagement.service.HoldingExportService;
+import org.jdbc.portfoliomanagement.service.HoldingImportService;
+import org.jdbc.portfoliomanagement.service.HoldingPageService;
 import org.jdbc.portfoliomanagement.service.HoldingService;
+import org.jdbc.portfoliomanagement.service.PortfolioHistoryService;
+import org.jdbc.portfoliomanagement.service.PortfolioStream;
+import org.jdbc.portfoliomanagement.service.PriceRefresher;
+import org.jdbc.portfoliomanagement.service.RiskAnalyticsService;
+import org.jdbc.portfoliomanagement.service.ValueAtRiskService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,11 +22,17 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -38,6 +53,33 @@ class HoldingControllerTest {
     @MockitoBean
     private HistoricalPriceService historicalPriceService;
 
+    @MockitoBean
+    private HoldingImportService holdingImportService;
+
+    @MockitoBean
+    private HoldingExportService holdingExportService;
+
+    @MockitoBean
+    private HoldingPageService holdingPageService;
+
+    @MockitoBean
+    private PortfolioHistoryService portfolioHistoryService;
+
+    @MockitoBean
+    private RiskAnalyticsService riskAnalyticsService;
+
+    @MockitoBean
+    private ValueAtRiskService valueAtRiskService;
+
+    @MockitoBean
+    private HttpClientPoolMetrics httpClientPoolMetrics;
+
+    @MockitoBean
+    private PriceRefresher priceRefresher;
+
+    @MockitoBean
+    private PortfolioStream portfolioStream;
+
     private Holding testHolding;
     private List<Holding> holdingList;
 
@@ -60,17 +102,21 @@ class HoldingControllerTest {
     @Test
     void testGetAllHoldings() throws Exception {
         // Given
-        when(holdingService.getAllHoldings()).thenReturn(holdingList);
+        when(holdingService.getAllHoldingsAsync()).thenReturn(Flux.fromIterable(holdingList));
 
         // When & Then
-        mockMvc.perform(get("/api/holdings"))
+        MvcResult result = mockMvc.perform(get("/api/holdings"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].symbol").value("AAPL"))
                 .andExpect(jsonPath("$[0].assetType").value("STOCK"));
 
-        verify(holdingService, times(1)).getAllHoldings();
+        verify(holdingService, times(1)).getAllHoldingsAsync();
     }
 
     @Test
@@ -221,20 +267,185 @@ class HoldingControllerTest {
         verify(historicalPriceService, times(1)).getHistoricalPrices("AAPL");
     }
 
+    @Test
+    void testGetHistoricalPricesWithRangeAndMaxPoints() throws Exception {
+        // Given
+        List<HistoricalPrice> prices = Arrays.asList(
+                new HistoricalPrice("AAPL", new BigDecimal("150.00"), LocalDate.of(2026, 1, 1)),
+                new HistoricalPrice("AAPL", new BigDecimal("155.00"), LocalDate.of(2026, 1, 15))
+        );
+        when(historicalPriceService.getHistoricalPrices("AAPL", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31), 300))
+                .thenReturn(prices);
+
+        // When & Then
+        mockMvc.perform(get("/api/historical/AAPL")
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-31")
+                        .param("maxPoints", "300"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        verify(historicalPriceService, never()).getHistoricalPrices("AAPL");
+    }
+
+    @Test
+    void testGetHistoricalPricesRejectsInvalidRange() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/historical/AAPL")
+                        .param("from", "2026-02-01")
+                        .param("to", "2026-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/historical/AAPL").param("maxPoints", "2"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(historicalPriceService);
+    }
+
+    @Test
+    void testGetPortfolioHistory() throws Exception {
+        // Given
+        Map<String, Object> history = new LinkedHashMap<>();
+        history.put("dates", List.of("2026-01-01", "2026-01-02"));
+        history.put("values", List.of(new BigDecimal("1000.00"), new BigDecimal("1010.00")));
+        when(portfolioHistoryService.getPortfolioHistory(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31)))
+                .thenReturn(history);
+
+        // When & Then
+        mockMvc.perform(get("/api/portfolio/history")
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dates", hasSize(2)))
+                .andExpect(jsonPath("$.values[1]").value(1010.00));
+    }
+
+    @Test
+    void testGetPortfolioHistoryRejectsInvalidRange() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/portfolio/history")
+                        .param("from", "2026-02-01")
+                        .param("to", "2026-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(portfolioHistoryService);
+    }
+
+    @Test
+    void testGetPortfolioRisk() throws Exception {
+        // Given
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("portfolio", Map.of("sharpeRatio", new BigDecimal("1.2500")));
+        when(riskAnalyticsService.getRiskAnalytics(any(LocalDate.class), eq(true))).thenReturn(report);
+
+        // When & Then
+        mockMvc.perform(get("/api/portfolio/risk").param("matrix", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.portfolio.sharpeRatio").value(1.25));
+    }
+
+    @Test
+    void testGetValueAtRisk() throws Exception {
+        // Given
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("seed", 7L);
+        report.put("horizons", List.of(Map.of("horizonDays", 10, "var99", new BigDecimal("0.051200"))));
+        when(valueAtRiskService.getValueAtRisk(any(LocalDate.class), eq(5000), eq(List.of(10)), eq(7L))).thenReturn(report);
+
+        // When & Then
+        mockMvc.perform(get("/api/portfolio/var")
+                        .param("paths", "5000")
+                        .param("horizon", "10")
+                        .param("seed", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.horizons[0].var99").value(0.0512));
+    }
+
+    @Test
+    void testGetValueAtRiskRejectsInvalidParameters() throws Exception {
+        // Given
+        when(valueAtRiskService.getValueAtRisk(any(LocalDate.class), eq(0), isNull(), isNull()))
+                .thenThrow(new IllegalArgumentException("paths must be between 1 and 1000000"));
+
+        // When & Then
+        mockMvc.perform(get("/api/portfolio/var").param("paths", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetPortfolioSummary() throws Exception {
         // Given
         Map<String, Object> summary = new HashMap<>();
         summary.put("totalValue", new BigDecimal("10000.00"));
         summary.put("totalGain", new BigDecimal("1000.00"));
-        when(holdingService.getPortfolioSummary()).thenReturn(summary);
+        when(holdingService.getPortfolioSummaryAsync()).thenReturn(Mono.just(summary));
 
         // When & Then
-        mockMvc.perform(get("/api/portfolio/summary"))
+        MvcResult result = mockMvc.perform(get("/api/portfolio/summary"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        verify(holdingService, times(1)).getPortfolioSummary();
+        verify(holdingService, times(1)).getPortfolioSummaryAsync();
+    }
+
+    @Test
+    void testGetDashboard() throws Exception {
+        // Given
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        dashboard.put("summary", Map.of("totalValue", new BigDecimal("10000.00")));
+        dashboard.put("bestPerformer", testHolding);
+        when(holdingService.getDashboardAsync(List.of("summary", "bestPerformer"))).thenReturn(Mono.just(dashboard));
+        HistoricalPrice price = new HistoricalPrice("AAPL", new BigDecimal("150.00"), LocalDate.of(2026, 1, 1));
+        when(historicalPriceService.getHistoricalPricesAsync("AAPL")).thenReturn(Mono.just(List.of(price)));
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/api/portfolio/dashboard")
+                        .param("sections", "summary,bestPerformer")
+                        .param("symbols", "AAPL"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.summary.totalValue").value(10000.00))
+                .andExpect(jsonPath("$.bestPerformer.symbol").value("AAPL"))
+                .andExpect(jsonPath("$.history.AAPL", hasSize(1)));
+
+        verify(holdingService, times(1)).getDashboardAsync(List.of("summary", "bestPerformer"));
+        verify(historicalPriceService, times(1)).getHistoricalPricesAsync("AAPL");
+    }
+
+    @Test
+    void testGetPerformers() throws Exception {
+        // Given
+        Map<String, Object> performers = new LinkedHashMap<>();
+        performers.put("by", "abs");
+        performers.put("top", List.of(Map.of("symbol", "AAPL")));
+        performers.put("bottom", List.of());
+        when(holdingService.getPerformers(1, 0, "abs")).thenReturn(performers);
+
+        // When & Then
+        mockMvc.perform(get("/api/portfolio/performers")
+                        .param("top", "1")
+                        .param("bottom", "0")
+                        .param("by", "abs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.by").value("abs"))
+                .andExpect(jsonPath("$.top[0].symbol").value("AAPL"));
+
+        verify(holdingService, times(1)).getPerformers(1, 0, "abs");
+    }
+
+    @Test
+    void testGetPerformersRejectsUnknownOrdering() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/portfolio/performers").param("by", "volume"))
+                .andExpect(status().isBadRequest());
+
+        verify(holdingService, never()).getPerformers(anyInt(), anyInt(), anyString());
     }
 
     @Test
@@ -289,4 +500,165 @@ class HoldingControllerTest {
 
         verify(holdingService, times(1)).searchStocks("AAPL");
     }
+
+    @Test
+    void testGetQuoteCacheStats() throws Exception {
+        // Given
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", 5L);
+        stats.put("misses", 2L);
+        when(holdingService.getQuoteCacheStats()).thenReturn(stats);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(5))
+                .andExpect(jsonPath("$.misses").value(2));
+
+        verify(holdingService, times(1)).getQuoteCacheStats();
+    }
+
+    @Test
+    void testStreamPortfolioOpensEventStream() throws Exception {
+        // Given
+        SseEmitter emitter = new SseEmitter();
+        emitter.send(SseEmitter.event().name("valuation").data("{\"totals\":{}}"));
+        emitter.complete();
+        when(portfolioStream.subscribe()).thenReturn(emitter);
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/api/portfolio/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:valuation")));
+
+        verify(portfolioStream, times(1)).subscribe();
+    }
+
+    @Test
+    void testImportHoldingsTakesFormatFromContentType() throws Exception {
+        // Given
+        when(holdingImportService.importHoldings(any(), eq(HoldingImportService.FORMAT_NDJSON)))
+                .thenReturn(new HoldingImportService.ImportReport());
+
+        // When & Then
+        mockMvc.perform(post("/api/holdings/import")
+                        .contentType("application/x-ndjson")
+                        .content("{\"assetType\":\"STOCK\",\"symbol\":\"AAPL\",\"quantity\":1,\"purchasePrice\":1}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
+
+        verify(holdingImportService, times(1)).importHoldings(any(), eq(HoldingImportService.FORMAT_NDJSON));
+    }
+
+    @Test
+    void testGetHoldingsPage() throws Exception {
+        // Given
+        when(holdingPageService.getHoldings("STOCK", null, "AA", "createdAt", "asc", null, 2))
+                .thenReturn(new HoldingPageService.HoldingPage(List.of(testHolding), "next-cursor"));
+
+        // When & Then
+        mockMvc.perform(get("/api/holdings/page")
+                        .param("assetType", "STOCK")
+                        .param("symbol", "AA")
+                        .param("sort", "createdAt")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].symbol").value("AAPL"))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void testGetHoldingsPageRejectsInvalidRequest() throws Exception {
+        // Given
+        when(holdingPageService.getHoldings(null, null, null, "category", "asc", null, 20))
+                .thenThrow(new IllegalArgumentException("Unsupported sort field: category"));
+
+        // When & Then
+        mockMvc.perform(get("/api/holdings/page").param("sort", "category"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportHoldingsStreamsCsv() throws Exception {
+        // Given
+        when(holdingExportService.exportHoldings(eq(HoldingExportService.FORMAT_CSV), any())).thenAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write("id,symbol\n1,AAPL\n".getBytes());
+            return 1;
+        });
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/api/holdings/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("holdings.csv")))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,symbol\n1,AAPL\n"));
+    }
+
+    @Test
+    void testExportHoldingsRejectsUnknownFormat() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/holdings/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(holdingExportService);
+    }
+
+    @Test
+    void testImportHoldingsRejectsUnknownFormat() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/holdings/import").contentType("text/plain").content("x"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(holdingImportService);
+    }
+
+    @Test
+    void testGetQuoteRefreshStatus() throws Exception {
+        // Given
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", true);
+        status.put("marketOpen", false);
+        status.put("lastStockCount", 3);
+        when(priceRefresher.getStatus()).thenReturn(status);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes/refresh/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.marketOpen").value(false))
+                .andExpect(jsonPath("$.lastStockCount").value(3));
+
+        verify(priceRefresher, times(1)).getStatus();
+    }
+
+    @Test
+    void testGetHttpPoolMetrics() throws Exception {
+        // Given
+        Map<String, Object> pool = new HashMap<>();
+        pool.put("acquired", 1);
+        pool.put("idle", 3);
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("outbound -> query1.finance.yahoo.com:443", pool);
+        when(httpClientPoolMetrics.getMetrics()).thenReturn(metrics);
+
+        // When & Then
+        mockMvc.perform(get("/api/http/pool-metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['outbound -> query1.finance.yahoo.com:443'].idle").value(3));
+
+        verify(httpClientPoolMetrics, times(1)).getMetrics();
+    }
 }
@@ -118,6 +118,59 @@ class HistoricalPriceRepositoryTest {
         assertThat(historicalPriceRepository.count()).isEqualTo(3);
     }
 
+    @Test
+    void testUpsertAllIsIdempotentPerSymbolAndDate() {
+        // Given
+        historicalPriceRepository.upsertAll(List.of(price1, price2, price3));
+
+        // When
+        int written = historicalPriceRepository.upsertAll(List.of(
+                new HistoricalPrice("AAPL", new BigDecimal("151.25"), LocalDate.of(2026, 1, 1)),
+                new HistoricalPrice("AAPL", new BigDecimal("160.00"), LocalDate.of(2026, 2, 1))));
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        List<HistoricalPrice> applePrices = historicalPriceRepository.findBySymbolOrderByPriceDateAsc("AAPL");
+        assertThat(applePrices).hasSize(3);
+        assertThat(applePrices.get(0).getPrice()).isEqualByComparingTo("151.25");
+        assertThat(historicalPriceRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void testUpsertAllKeepsLastDuplicateInInput() {
+        // When
+        int written = historicalPriceRepository.upsertAll(List.of(
+                price1, new HistoricalPrice("AAPL", new BigDecimal("149.00"), LocalDate.of(2026, 1, 1))));
+
+        // Then
+        assertThat(written).isEqualTo(1);
+        List<HistoricalPrice> applePrices = historicalPriceRepository.findBySymbolOrderByPriceDateAsc("AAPL");
+        assertThat(applePrices).hasSize(1);
+        assertThat(applePrices.get(0).getPrice()).isEqualByComparingTo("149.00");
+    }
+
+    @Test
+    void testFindLatestPriceDate() {
+        // Given
+        historicalPriceRepository.save(price2);
+        historicalPriceRepository.save(price1);
+        historicalPriceRepository.save(price3);
+
+        // When & Then
+        assertThat(historicalPriceRepository.findLatestPriceDate("AAPL")).isEqualTo(LocalDate.of(2026, 1, 15));
+        assertThat(historicalPriceRepository.findLatestPriceDate("MSFT")).isNull();
+    }
+
+    @Test
+    void testFindSymbolsWithHistory() {
+        // Given
+        historicalPriceRepository.save(price1);
+        historicalPriceRepository.save(price2);
+
+        // When & Then
+        assertThat(historicalPriceRepository.findSymbolsWithHistory(List.of("AAPL", "MSFT"))).containsExactly("AAPL");
+    }
+
     @Test
     void testDeleteHistoricalPrice() {
         // Given
@@ -165,4 +218,21 @@ class HistoricalPriceRepositoryTest {
         assertThat(filteredPrices).hasSize(1);
         assertThat(filteredPrices.get(0).getPrice()).isEqualByComparingTo(new BigDecimal("150.00"));
     }
+
+    @Test
+    void testFindPriceSeriesReturnsDatePricePairsInOrder() {
+        // Given
+        historicalPriceRepository.save(price2);
+        historicalPriceRepository.save(price1);
+        historicalPriceRepository.save(price3);
+
+        // When
+        List<Object[]> rows = historicalPriceRepository.findPriceSeries("AAPL");
+
+        // Then
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)[0]).isEqualTo(LocalDate.of(2026, 1, 1));
+        assertThat((BigDecimal) rows.get(0)[1]).isEqualByComparingTo(new BigDecimal("150.00"));
+        assertThat(rows.get(1)[0]).isEqualTo(LocalDate.of(2026, 1, 15));
+    }
 }
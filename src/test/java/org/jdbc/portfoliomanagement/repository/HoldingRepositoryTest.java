@@ -7,12 +7,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -183,6 +188,118 @@ class HoldingRepositoryTest {
         assertThat(composition.size()).isGreaterThanOrEqualTo(2); // At least STOCK and MF
     }
 
+    @Test
+    void testFindPositionTotals() {
+        // Given
+        Holding secondAapl = new Holding("STOCK", "AAPL", new BigDecimal("2"), new BigDecimal("170.00"), LocalDate.of(2025, 3, 1));
+        holdingRepository.save(testHolding1);
+        holdingRepository.save(secondAapl);
+        holdingRepository.save(testHolding3);
+
+        // When
+        List<Object[]> totals = holdingRepository.findPositionTotals();
+
+        // Then
+        assertThat(totals).hasSize(2);
+        Object[] aapl = totals.stream().filter(row -> "AAPL".equals(row[1])).findFirst().orElseThrow();
+        assertThat(((Number) aapl[3]).longValue()).isEqualTo(2L);
+        assertThat(new BigDecimal(aapl[4].toString())).isEqualByComparingTo("12");
+        assertThat(new BigDecimal(aapl[5].toString())).isEqualByComparingTo("1840.00");
+    }
+
+    @Test
+    void testFindRankingFields() {
+        // Given
+        Holding saved = holdingRepository.save(testHolding1);
+
+        // When
+        List<Object[]> rows = holdingRepository.findRankingFields();
+
+        // Then
+        assertThat(rows).hasSize(1);
+        Object[] row = rows.get(0);
+        assertThat(row[0]).isEqualTo(saved.getId());
+        assertThat(row[1]).isEqualTo(saved.getAssetType());
+        assertThat(row[2]).isEqualTo(saved.getSymbol());
+        assertThat((BigDecimal) row[3]).isEqualByComparingTo(saved.getQuantity());
+        assertThat((BigDecimal) row[4]).isEqualByComparingTo(saved.getPurchasePrice());
+    }
+
+    @Test
+    void testInsertAllWritesEveryRow() {
+        // Given
+        testHolding2.setCategory("Technology");
+
+        // When
+        int inserted = holdingRepository.insertAll(List.of(testHolding1, testHolding2, testHolding3));
+
+        // Then
+        assertThat(inserted).isEqualTo(3);
+        assertThat(List.of(testHolding1, testHolding2, testHolding3))
+                .allSatisfy(holding -> assertThat(holdingRepository.findById(holding.getId()))
+                        .hasValueSatisfying(stored -> assertThat(stored.getSymbol()).isEqualTo(holding.getSymbol())));
+        List<Holding> stocks = holdingRepository.findByAssetType("STOCK");
+        assertThat(stocks).hasSize(2);
+        assertThat(stocks).allSatisfy(holding -> {
+            assertThat(holding.getId()).isNotNull();
+            assertThat(holding.getCreatedAt()).isNotNull();
+        });
+        assertThat(holdingRepository.findBySymbol("GOOGL").get(0).getCategory()).isEqualTo("Technology");
+    }
+
+    @Test
+    void testStreamAllOrderById() {
+        // Given
+        holdingRepository.save(testHolding2);
+        holdingRepository.save(testHolding1);
+        holdingRepository.save(testHolding3);
+
+        // When
+        List<String> symbols;
+        try (Stream<Holding> holdings = holdingRepository.streamAllOrderById()) {
+            symbols = holdings.map(Holding::getSymbol).toList();
+        }
+
+        // Then
+        assertThat(symbols).containsExactly("GOOGL", "AAPL", "123456");
+    }
+
+    @Test
+    void testScrollBySpecificationPagesWithKeyset() {
+        // Given
+        holdingRepository.save(testHolding1);
+        holdingRepository.save(testHolding2);
+        holdingRepository.save(testHolding3);
+        holdingRepository.save(new Holding("STOCK", "AMZN", new BigDecimal("2"), new BigDecimal("180.00"), LocalDate.of(2025, 3, 1)));
+        Specification<Holding> stocks = HoldingSpecifications.assetTypeEquals("STOCK");
+        Sort bySymbol = Sort.by("symbol").and(Sort.by("id"));
+
+        // When
+        Window<Holding> first = holdingRepository.findBy(stocks,
+                query -> query.sortBy(bySymbol).limit(2).scroll(ScrollPosition.keyset()));
+        Window<Holding> second = holdingRepository.findBy(stocks,
+                query -> query.sortBy(bySymbol).limit(2).scroll(first.positionAt(first.size() - 1)));
+
+        // Then
+        assertThat(first.getContent()).extracting(Holding::getSymbol).containsExactly("AAPL", "AMZN");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting(Holding::getSymbol).containsExactly("GOOGL");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void testSymbolPrefixEscapesWildcards() {
+        // Given
+        holdingRepository.save(testHolding1);
+        holdingRepository.save(new Holding("STOCK", "A_B", new BigDecimal("1"), new BigDecimal("1.00"), LocalDate.of(2025, 3, 1)));
+
+        // When
+        List<Holding> found = holdingRepository.findAll(HoldingSpecifications.symbolStartsWith("A_"));
+
+        // Then
+        assertThat(found).extracting(Holding::getSymbol).containsExactly("A_B");
+    }
+
     @Test
     void testExistsById() {
         // Given
@@ -0,0 +1,101 @@
+package org.jdbc.portfoliomanagement.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the indexes from the Flyway migrations: each hot repository query is run
+ * through H2's EXPLAIN and must be answered from an index rather than a table scan.
+ * The SQL mirrors what Hibernate generates for the repository methods.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void testFindBySymbolUsesSymbolIndex() {
+        String plan = explain("SELECT * FROM holdings WHERE symbol = 'AAPL'");
+
+        assertThat(plan).contains("idx_holdings_symbol").doesNotContain("tablescan");
+    }
+
+    @Test
+    void testSymbolPrefixFilterUsesSymbolIndex() {
+        String plan = explain("SELECT * FROM holdings WHERE symbol LIKE 'AA%' ESCAPE '\\'");
+
+        assertThat(plan).contains("idx_holdings_symbol").doesNotContain("tablescan");
+    }
+
+    @Test
+    void testFindByAssetTypeUsesAssetTypeIndex() {
+        String plan = explain("SELECT * FROM holdings WHERE asset_type = 'STOCK'");
+
+        assertThat(plan).contains("idx_holdings_asset_type_symbol_category").doesNotContain("tablescan");
+    }
+
+    @Test
+    void testCategoryFilterUsesCategoryIndex() {
+        String plan = explain("SELECT * FROM holdings WHERE category = 'Equity'");
+
+        assertThat(plan).contains("idx_holdings_category").doesNotContain("tablescan");
+    }
+
+    @Test
+    void testPortfolioCompositionGroupsInIndexOrder() {
+        String plan = explain("SELECT asset_type, COUNT(id), SUM(quantity * purchase_price) "
+                + "FROM holdings GROUP BY asset_type");
+
+        assertThat(plan).contains("idx_holdings_asset_type_symbol_category").contains("group sorted");
+    }
+
+    @Test
+    void testPositionTotalsGroupInIndexOrder() {
+        String plan = explain("SELECT asset_type, symbol, category, COUNT(id), SUM(quantity), "
+                + "SUM(quantity * purchase_price) FROM holdings GROUP BY asset_type, symbol, category");
+
+        assertThat(plan).contains("idx_holdings_asset_type_symbol_category").contains("group sorted");
+    }
+
+    @Test
+    void testHistoricalPricesBySymbolUseUniqueKey() {
+        String plan = explain("SELECT * FROM historical_prices WHERE symbol = 'AAPL' ORDER BY price_date");
+
+        assertThat(plan).contains("uk_historical_prices_symbol_date").doesNotContain("tablescan");
+    }
+
+    @Test
+    void testHistoricalPriceRangeUsesUniqueKey() {
+        String plan = explain("SELECT * FROM historical_prices WHERE symbol = 'AAPL' "
+                + "AND price_date BETWEEN DATE '2026-01-01' AND DATE '2026-03-31' ORDER BY price_date");
+
+        assertThat(plan).contains("uk_historical_prices_symbol_date").doesNotContain("tablescan");
+    }
+
+    @Test
+    void testLatestPriceDateUsesUniqueKey() {
+        String plan = explain("SELECT MAX(price_date) FROM historical_prices WHERE symbol = 'AAPL'");
+
+        assertThat(plan).contains("uk_historical_prices_symbol_date").doesNotContain("tablescan");
+    }
+
+    private String explain(String sql) {
+        List<?> rows = entityManager.createNativeQuery("EXPLAIN " + sql).getResultList();
+        return rows.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining("\n"))
+                .toLowerCase();
+    }
+}
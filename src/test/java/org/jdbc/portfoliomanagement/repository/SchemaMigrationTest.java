@@ -0,0 +1,190 @@
+package org.jdbc.portfoliomanagement.repository;
+
+import org.flywaydb.core.Flyway;
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the Flyway migrations with the application's baseline settings against
+ * databases in the states they can be found in: a schema left by the old
+ * {@code ddl-auto=update}, which is adopted at V1, and an empty one.
+ */
+class SchemaMigrationTest {
+
+    @Test
+    void testBaselinedDatabaseGetsDeduplicatedUniqueKey() throws SQLException {
+        // Given - a Hibernate-generated schema without the unique key, holding duplicate days
+        String url = url("legacy");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            createLegacySchema(statement);
+            statement.execute("INSERT INTO historical_prices (symbol, price_date, price) VALUES "
+                    + "('AAPL', '2026-01-02', 150.00), ('AAPL', '2026-01-02', 151.00), "
+                    + "('AAPL', '2026-01-05', 152.00), ('MSFT', '2026-01-02', 410.00), ('AAPL', '2026-01-02', 153.00)");
+        }
+
+        // When
+        migrate(url);
+
+        // Then - the latest row of each day survives and a repeated day is rejected
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            assertThat(prices(statement)).containsExactly("AAPL 2026-01-02 153.00", "AAPL 2026-01-05 152.00", "MSFT 2026-01-02 410.00");
+            assertThatThrownBy(() -> statement.execute(
+                    "INSERT INTO historical_prices (symbol, price_date, price) VALUES ('MSFT', '2026-01-02', 1.00)"))
+                    .isInstanceOf(SQLException.class);
+        }
+    }
+
+    @Test
+    void testUpsertUpdatesDaysOnMigratedLegacyDatabase() throws SQLException {
+        // Given - a legacy table with a duplicated day, migrated as on startup
+        String url = url("legacy-upsert");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            createLegacySchema(statement);
+            statement.execute("INSERT INTO historical_prices (symbol, price_date, price) VALUES "
+                    + "('AAPL', '2026-01-02', 150.00), ('AAPL', '2026-01-02', 151.00)");
+        }
+        migrate(url);
+        HistoricalPriceUpsertRepositoryImpl upsertRepository = new HistoricalPriceUpsertRepositoryImpl();
+        ReflectionTestUtils.setField(upsertRepository, "jdbcTemplate", new JdbcTemplate(new DriverManagerDataSource(url, "sa", "")));
+        ReflectionTestUtils.setField(upsertRepository, "batchSize", 500);
+
+        // When
+        upsertRepository.upsertAll(List.of(
+                new HistoricalPrice("AAPL", new BigDecimal("155.00"), LocalDate.of(2026, 1, 2)),
+                new HistoricalPrice("AAPL", new BigDecimal("156.00"), LocalDate.of(2026, 1, 5))));
+
+        // Then
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            assertThat(prices(statement)).containsExactly("AAPL 2026-01-02 155.00", "AAPL 2026-01-05 156.00");
+        }
+    }
+
+    @Test
+    void testBaselinedDatabaseGetsCreatedAtForEveryHolding() throws SQLException {
+        // Given - a legacy holding that predates created_at being populated
+        String url = url("legacy-created-at");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            createLegacySchema(statement);
+            statement.execute("INSERT INTO holdings (asset_type, symbol, quantity, purchase_price, created_at) VALUES "
+                    + "('STOCK', 'AAPL', 10, 150.00, '2025-01-15 09:30:00'), ('STOCK', 'MSFT', 5, 410.00, NULL)");
+        }
+
+        // When
+        migrate(url);
+
+        // Then - the null is filled in and new nulls are rejected
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM holdings WHERE created_at IS NULL")) {
+                rows.next();
+                assertThat(rows.getInt(1)).isZero();
+            }
+            assertThatThrownBy(() -> statement.execute(
+                    "INSERT INTO holdings (asset_type, symbol, quantity, purchase_price, created_at) VALUES ('STOCK', 'NVDA', 1, 1.00, NULL)"))
+                    .isInstanceOf(SQLException.class);
+        }
+    }
+
+    @Test
+    void testBaselinedDatabaseGetsSortColumnsForEveryHolding() throws SQLException {
+        // Given - a legacy holding saved without symbol, quantity or purchase price
+        String url = url("legacy-sort-columns");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            createLegacySchema(statement);
+            statement.execute("INSERT INTO holdings (asset_type, symbol, quantity, purchase_price, created_at) VALUES "
+                    + "('STOCK', 'AAPL', 10, 150.00, '2025-01-15 09:30:00'), (NULL, NULL, NULL, NULL, '2025-01-16 09:30:00')");
+        }
+
+        // When
+        migrate(url);
+
+        // Then - the row keeps its place with placeholders, and new nulls are rejected
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rows = statement.executeQuery(
+                    "SELECT asset_type, symbol, quantity, purchase_price FROM holdings WHERE created_at = '2025-01-16 09:30:00'")) {
+                rows.next();
+                assertThat(rows.getString(1)).isEqualTo("UNKNOWN");
+                assertThat(rows.getString(2)).isEqualTo("UNKNOWN");
+                assertThat(rows.getBigDecimal(3)).isEqualByComparingTo("0");
+                assertThat(rows.getBigDecimal(4)).isEqualByComparingTo("0");
+            }
+            assertThatThrownBy(() -> statement.execute("INSERT INTO holdings (asset_type, symbol, quantity, purchase_price, created_at) "
+                    + "VALUES ('STOCK', NULL, 1, 1.00, CURRENT_TIMESTAMP)"))
+                    .isInstanceOf(SQLException.class);
+        }
+    }
+
+    @Test
+    void testEmptyDatabaseKeepsKeyFromBaselineSchema() throws SQLException {
+        // Given
+        String url = url("empty");
+
+        // When
+        migrate(url);
+
+        // Then
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM information_schema.table_constraints "
+                     + "WHERE table_name = 'historical_prices' AND constraint_type = 'UNIQUE'")) {
+            rows.next();
+            assertThat(rows.getInt(1)).isEqualTo(1);
+        }
+    }
+
+    private static void createLegacySchema(Statement statement) throws SQLException {
+        statement.execute("CREATE TABLE holdings (id BIGINT NOT NULL AUTO_INCREMENT, asset_type VARCHAR(255), "
+                + "category VARCHAR(255), created_at DATETIME(6), purchase_date DATE, purchase_price DECIMAL(38, 2), "
+                + "quantity DECIMAL(38, 2), symbol VARCHAR(255), PRIMARY KEY (id))");
+        statement.execute("CREATE TABLE historical_prices (id BIGINT NOT NULL AUTO_INCREMENT, price DECIMAL(38, 2), "
+                + "price_date DATE, symbol VARCHAR(255), PRIMARY KEY (id))");
+    }
+
+    private static void migrate(String url) {
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    private static List<String> prices(Statement statement) throws SQLException {
+        List<String> prices = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery(
+                "SELECT symbol, price_date, price FROM historical_prices ORDER BY symbol, price_date")) {
+            while (rows.next()) {
+                prices.add(rows.getString(1) + " " + rows.getDate(2) + " " + rows.getBigDecimal(3));
+            }
+        }
+        return prices;
+    }
+
+    private static String url(String name) {
+        return "jdbc:h2:mem:migration-" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+    }
+}
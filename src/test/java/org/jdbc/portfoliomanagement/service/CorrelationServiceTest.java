@@ -0,0 +1,122 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntToDoubleFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CorrelationServiceTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2026, 6, 30);
+
+    @Mock
+    private PriceSeriesStore priceSeriesStore;
+
+    @InjectMocks
+    private CorrelationService correlationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(correlationService, "lookbackDays", 365);
+        ReflectionTestUtils.setField(correlationService, "minObservations", 20);
+        lenient().when(priceSeriesStore.get(anyString())).thenAnswer(invocation -> PriceSeries.empty(invocation.getArgument(0)));
+    }
+
+    @Test
+    void testCorrelatedSymbolsClusterTogether() {
+        // Given - AAPL and MSFT share the same moves, GOLD moves on its own, NEW is too young
+        when(priceSeriesStore.get("AAPL")).thenReturn(series("AAPL", 60, day -> 100 * (1 + 0.02 * wave(day))));
+        when(priceSeriesStore.get("MSFT")).thenReturn(series("MSFT", 60, day -> 300 * (1 + 0.01 * wave(day))));
+        when(priceSeriesStore.get("GOLD")).thenReturn(series("GOLD", 60, day -> 50 * (1 + 0.01 * wave(day / 2))));
+        when(priceSeriesStore.get("NEW")).thenReturn(series("NEW", 5, day -> 10));
+
+        // When
+        CorrelationMatrix matrix = correlationService.getCorrelationMatrix(List.of("MSFT", "GOLD", "AAPL", "NEW"), AS_OF);
+
+        // Then
+        assertThat(matrix.getSymbols()).containsExactly("AAPL", "GOLD", "MSFT");
+        assertThat(matrix.getExcluded()).containsExactly("NEW");
+        assertThat(matrix.getObservations()).isEqualTo(59);
+        assertThat(matrix.get(0, 2)).isCloseTo(1, within(0.01));
+        assertThat(matrix.get(0, 1)).isLessThan(0.8);
+        assertThat(matrix.clusters(0.8)).containsExactly(List.of("AAPL", "MSFT"), List.of("GOLD"));
+    }
+
+    @Test
+    void testClustersFollowChainsOfCorrelation() {
+        // Given - A~B and B~C are above the threshold, A~C is not
+        CorrelationMatrix matrix = new CorrelationMatrix(List.of("A", "B", "C", "D"), new double[][]{
+                {1, 0.85, 0.6, 0},
+                {0.85, 1, 0.9, 0},
+                {0.6, 0.9, 1, 0.1},
+                {0, 0, 0.1, 1}}, List.of(), 100, AS_OF.minusYears(1));
+
+        // When & Then
+        assertThat(matrix.clusters(0.8)).containsExactly(List.of("A", "B", "C"), List.of("D"));
+        assertThat(matrix.clusters(0.95)).hasSize(4);
+    }
+
+    @Test
+    void testMatrixIsCachedPerSymbolSetUntilHistoryChanges() {
+        // Given
+        when(priceSeriesStore.get("AAPL")).thenReturn(series("AAPL", 60, day -> 100 + wave(day)));
+        when(priceSeriesStore.get("MSFT")).thenReturn(series("MSFT", 60, day -> 300 + wave(day)));
+        CorrelationMatrix first = correlationService.getCorrelationMatrix(List.of("AAPL", "MSFT"), AS_OF);
+
+        // When
+        CorrelationMatrix reordered = correlationService.getCorrelationMatrix(List.of("MSFT", "AAPL"), AS_OF);
+        correlationService.onPriceHistoryUpdated(new PriceHistoryUpdatedEvent(Set.of("GOOG")));
+        CorrelationMatrix afterUnrelatedUpdate = correlationService.getCorrelationMatrix(List.of("AAPL", "MSFT"), AS_OF);
+        correlationService.onPriceHistoryUpdated(new PriceHistoryUpdatedEvent(Set.of("MSFT")));
+        CorrelationMatrix afterUpdate = correlationService.getCorrelationMatrix(List.of("AAPL", "MSFT"), AS_OF);
+
+        // Then
+        assertThat(reordered).isSameAs(first);
+        assertThat(afterUnrelatedUpdate).isSameAs(first);
+        assertThat(afterUpdate).isNotSameAs(first);
+        verify(priceSeriesStore, times(2)).get("AAPL");
+        assertThat(correlationService.cachedMatrixCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testNewDayRecomputesAndDropsOldMatrices() {
+        // Given
+        correlationService.getCorrelationMatrix(List.of("AAPL"), AS_OF);
+        correlationService.getCorrelationMatrix(List.of("AAPL", "MSFT"), AS_OF);
+
+        // When
+        correlationService.getCorrelationMatrix(List.of("AAPL"), AS_OF.plusDays(1));
+
+        // Then
+        verify(priceSeriesStore, times(3)).get("AAPL");
+        assertThat(correlationService.cachedMatrixCount()).isEqualTo(1);
+    }
+
+    private static int wave(int day) {
+        return day % 2 == 0 ? 1 : -1;
+    }
+
+    private static PriceSeries series(String symbol, int days, IntToDoubleFunction price) {
+        List<HistoricalPrice> points = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            points.add(new HistoricalPrice(symbol, BigDecimal.valueOf(price.applyAsDouble(day)), AS_OF.minusDays(days - 1 - day)));
+        }
+        return PriceSeries.empty(symbol).merge(points);
+    }
+}
@@ -0,0 +1,66 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExchangeRateProviderTest {
+
+    @Test
+    void testColdStartFallsBackToDefaultRate() {
+        // Given
+        ExchangeRateProvider provider = new ExchangeRateProvider(WebClient.builder().build(), 89.0);
+
+        // When
+        BigDecimal rate = provider.getUsdToInrRate();
+
+        // Then
+        assertThat(rate).isEqualByComparingTo("89.0");
+        assertThat(provider.getLastUpdated()).isNull();
+    }
+
+    @Test
+    void testRefreshReplacesRate() {
+        // Given
+        ExchangeRateProvider provider = providerReturning(new BigDecimal("83.25"));
+
+        // When
+        provider.refresh();
+
+        // Then
+        assertThat(provider.getUsdToInrRate()).isEqualByComparingTo("83.25");
+        assertThat(provider.getLastUpdated()).isNotNull();
+    }
+
+    @Test
+    void testFailedRefreshKeepsLastKnownRate() {
+        // Given
+        BigDecimal[] next = {new BigDecimal("83.25")};
+        ExchangeRateProvider provider = new ExchangeRateProvider(WebClient.builder().build(), 89.0) {
+            @Override
+            BigDecimal fetchLiveUsdToInrRate() {
+                return next[0];
+            }
+        };
+        provider.refresh();
+
+        // When
+        next[0] = null;
+        provider.refresh();
+
+        // Then
+        assertThat(provider.getUsdToInrRate()).isEqualByComparingTo("83.25");
+    }
+
+    private ExchangeRateProvider providerReturning(BigDecimal rate) {
+        return new ExchangeRateProvider(WebClient.builder().build(), 89.0) {
+            @Override
+            BigDecimal fetchLiveUsdToInrRate() {
+                return rate;
+            }
+        };
+    }
+}
@@ -2,20 +2,24 @@ package org.jdbc.portfoliomanagement.service;
 
 import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
 import org.jdbc.portfoliomanagement.repository.HistoricalPriceRepository;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -29,6 +33,9 @@ class HistoricalPriceServiceTest {
     @Mock
     private YahooFinanceService yahooFinanceService;
 
+    @Mock
+    private HoldingRepository holdingRepository;
+
     @InjectMocks
     private HistoricalPriceService historicalPriceService;
 
@@ -37,6 +44,11 @@ class HistoricalPriceServiceTest {
 
     @BeforeEach
     void setUp() {
+        PriceSeriesStore priceSeriesStore = new PriceSeriesStore(500);
+        ReflectionTestUtils.setField(priceSeriesStore, "historicalPriceRepository", historicalPriceRepository);
+        ReflectionTestUtils.setField(priceSeriesStore, "priceSegmentStore", new PriceSegmentStore(false, "unused"));
+        ReflectionTestUtils.setField(historicalPriceService, "priceSeriesStore", priceSeriesStore);
+
         testHistoricalPrices = new ArrayList<>();
         testHistoricalPrices.add(new HistoricalPrice("AAPL", new BigDecimal("150.00"), LocalDate.of(2026, 1, 1)));
         testHistoricalPrices.add(new HistoricalPrice("AAPL", new BigDecimal("155.00"), LocalDate.of(2026, 1, 15)));
@@ -49,14 +61,16 @@ class HistoricalPriceServiceTest {
     @Test
     void testGetHistoricalPrices() {
         // Given
+        testHistoricalPrices.get(0).setId(7L);
         when(historicalPriceRepository.findBySymbolOrderByPriceDateAsc("AAPL")).thenReturn(testHistoricalPrices);
 
         // When
         List<HistoricalPrice> result = historicalPriceService.getHistoricalPrices("AAPL");
 
-        // Then
+        // Then - the persisted rows, ids included
         assertThat(result).hasSize(2);
         assertThat(result.get(0).getSymbol()).isEqualTo("AAPL");
+        assertThat(result.get(0).getId()).isEqualTo(7L);
         verify(historicalPriceRepository, times(1)).findBySymbolOrderByPriceDateAsc("AAPL");
     }
 
@@ -93,11 +107,164 @@ class HistoricalPriceServiceTest {
         verify(historicalPriceRepository, times(1)).findBySymbolOrderByPriceDateAsc("AAPL");
     }
 
+    @Test
+    void testGetHistoricalPricesInRangeReadsLoadedSeries() {
+        // Given
+        when(historicalPriceRepository.findPriceSeries("AAPL")).thenReturn(rows(testHistoricalPrices));
+
+        // When
+        List<HistoricalPrice> january = historicalPriceService.getHistoricalPrices("AAPL",
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31), null);
+        List<HistoricalPrice> secondHalf = historicalPriceService.getHistoricalPrices("AAPL",
+                LocalDate.of(2026, 1, 10), LocalDate.of(2026, 1, 31), null);
+
+        // Then
+        assertThat(january).hasSize(2);
+        assertThat(secondHalf).extracting(HistoricalPrice::getPriceDate).containsExactly(LocalDate.of(2026, 1, 15));
+        verify(historicalPriceRepository, times(1)).findPriceSeries("AAPL");
+        verify(historicalPriceRepository, never()).findBySymbolAndPriceDateBetweenOrderByPriceDateAsc(anyString(), any(), any());
+    }
+
+    @Test
+    void testStoredPricesAreAppendedToLoadedSeries() {
+        // Given
+        LocalDate latest = LocalDate.now().minusDays(3);
+        when(historicalPriceRepository.findPriceSeries("AAPL")).thenReturn(rows(List.of(
+                new HistoricalPrice("AAPL", new BigDecimal("150.00"), latest))));
+        when(historicalPriceRepository.findLatestPriceDate("AAPL")).thenReturn(latest);
+        when(yahooFinanceService.getHistoricalData("AAPL", latest.plusDays(1), LocalDate.now())).thenReturn(List.of(
+                new YahooFinanceService.HistoricalData("AAPL", new BigDecimal("158.00"), latest.plusDays(1))));
+        historicalPriceService.getHistoricalPrices("AAPL", null, null, null);
+
+        // When
+        historicalPriceService.fetchAndStoreHistoricalData("AAPL", "STOCK");
+        List<HistoricalPrice> result = historicalPriceService.getHistoricalPrices("AAPL", null, null, null);
+
+        // Then
+        assertThat(result).extracting(HistoricalPrice::getPriceDate).containsExactly(latest, latest.plusDays(1));
+        assertThat(result.get(1).getPrice()).isEqualByComparingTo("158.00");
+        verify(historicalPriceRepository, times(1)).findPriceSeries("AAPL");
+    }
+
+    @Test
+    void testGetHistoricalPricesDownsamplesToMaxPoints() {
+        // Given
+        List<HistoricalPrice> series = new ArrayList<>();
+        for (int day = 0; day < 1000; day++) {
+            // flat series with a single spike that the downsampler has to keep
+            BigDecimal price = day == 500 ? new BigDecimal("300.00") : new BigDecimal("100.00");
+            series.add(new HistoricalPrice("AAPL", price, LocalDate.of(2020, 1, 1).plusDays(day)));
+        }
+        when(historicalPriceRepository.findPriceSeries("AAPL")).thenReturn(rows(series));
+
+        // When
+        List<HistoricalPrice> result = historicalPriceService.getHistoricalPrices("AAPL", null, null, 50);
+
+        // Then
+        assertThat(result).hasSize(50);
+        assertThat(result.get(0).getPriceDate()).isEqualTo(series.get(0).getPriceDate());
+        assertThat(result.get(49).getPriceDate()).isEqualTo(series.get(999).getPriceDate());
+        assertThat(result).anySatisfy(price -> {
+            assertThat(price.getPriceDate()).isEqualTo(series.get(500).getPriceDate());
+            assertThat(price.getPrice()).isEqualByComparingTo("300.00");
+        });
+        assertThat(result).isSortedAccordingTo((a, b) -> a.getPriceDate().compareTo(b.getPriceDate()));
+    }
+
+    @Test
+    void testFetchAndStoreHistoricalDataOnlyRequestsMissingDays() {
+        // Given
+        LocalDate latest = LocalDate.now().minusDays(3);
+        List<YahooFinanceService.HistoricalData> missing = List.of(
+                new YahooFinanceService.HistoricalData("AAPL", new BigDecimal("158.00"), latest.plusDays(1)));
+        when(historicalPriceRepository.findLatestPriceDate("AAPL")).thenReturn(latest);
+        when(yahooFinanceService.getHistoricalData("AAPL", latest.plusDays(1), LocalDate.now())).thenReturn(missing);
+
+        // When
+        List<HistoricalPrice> result = historicalPriceService.fetchAndStoreHistoricalData("AAPL", "STOCK");
+
+        // Then
+        assertThat(result).hasSize(1);
+        verify(yahooFinanceService, never()).getHistoricalData("AAPL");
+        verify(historicalPriceRepository, times(1)).upsertAll(anyList());
+    }
+
+    @Test
+    void testFetchAndStoreHistoricalDataSkipsUpToDateSymbol() {
+        // Given
+        when(historicalPriceRepository.findLatestPriceDate("AAPL")).thenReturn(LocalDate.now());
+
+        // When
+        List<HistoricalPrice> result = historicalPriceService.fetchAndStoreHistoricalData("AAPL", "STOCK");
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(yahooFinanceService);
+        verify(historicalPriceRepository, never()).upsertAll(anyList());
+    }
+
+    @Test
+    void testBackfillHeldSymbolsFetchesEachHeldSymbol() {
+        // Given
+        ReflectionTestUtils.setField(historicalPriceService, "backfillEnabled", true);
+        when(holdingRepository.findDistinctSymbolsAndAssetTypes()).thenReturn(List.<Object[]>of(
+                new Object[]{"AAPL", "STOCK"}, new Object[]{"MSFT", "STOCK"}));
+        when(historicalPriceRepository.findLatestPriceDate(anyString())).thenReturn(LocalDate.now());
+
+        // When
+        historicalPriceService.backfillHeldSymbols();
+
+        // Then - the fetches run in the background
+        verify(historicalPriceRepository, timeout(5000).times(1)).findLatestPriceDate("AAPL");
+        verify(historicalPriceRepository, timeout(5000).times(1)).findLatestPriceDate("MSFT");
+    }
+
+    @Test
+    void testBackfillIncludesBenchmarkWhenNotHeld() {
+        // Given
+        ReflectionTestUtils.setField(historicalPriceService, "benchmarkSymbol", "^GSPC");
+        when(holdingRepository.findDistinctSymbolsAndAssetTypes()).thenReturn(List.<Object[]>of(new Object[]{"AAPL", "STOCK"}));
+        when(historicalPriceRepository.findLatestPriceDate(anyString())).thenReturn(LocalDate.now());
+
+        // When
+        historicalPriceService.backfill().block();
+
+        // Then
+        verify(historicalPriceRepository, times(1)).findLatestPriceDate("AAPL");
+        verify(historicalPriceRepository, times(1)).findLatestPriceDate("^GSPC");
+    }
+
+    @Test
+    void testBackfillFetchesSymbolsConcurrentlyWithinLimit() {
+        // Given
+        ReflectionTestUtils.setField(historicalPriceService, "backfillConcurrency", 2);
+        List<Object[]> held = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            held.add(new Object[]{"SYM" + i, "STOCK"});
+        }
+        when(holdingRepository.findDistinctSymbolsAndAssetTypes()).thenReturn(held);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(historicalPriceRepository.findLatestPriceDate(anyString())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return LocalDate.now();
+        });
+
+        // When
+        historicalPriceService.backfill().block();
+
+        // Then
+        verify(historicalPriceRepository, times(6)).findLatestPriceDate(anyString());
+        assertThat(peak.get()).isEqualTo(2);
+    }
+
     @Test
     void testFetchAndStoreHistoricalDataForStock() {
         // Given
         when(yahooFinanceService.getHistoricalData("AAPL")).thenReturn(mockYahooData);
-        when(historicalPriceRepository.saveAll(anyList())).thenReturn(testHistoricalPrices);
+        when(historicalPriceRepository.upsertAll(anyList())).thenReturn(testHistoricalPrices.size());
 
         // When
         List<HistoricalPrice> result = historicalPriceService.fetchAndStoreHistoricalData("AAPL", "STOCK");
@@ -105,7 +272,7 @@ class HistoricalPriceServiceTest {
         // Then
         assertThat(result).hasSize(2);
         verify(yahooFinanceService, times(1)).getHistoricalData("AAPL");
-        verify(historicalPriceRepository, times(1)).saveAll(anyList());
+        verify(historicalPriceRepository, times(1)).upsertAll(anyList());
     }
 
     @Test
@@ -119,7 +286,7 @@ class HistoricalPriceServiceTest {
 
         // Then
         // Mutual fund API call will likely return empty or fail, so no save should occur
-        verify(historicalPriceRepository, never()).saveAll(anyList());
+        verify(historicalPriceRepository, never()).upsertAll(anyList());
         // Verify that yahooFinanceService was NOT called for mutual funds
         verify(yahooFinanceService, never()).getHistoricalData(anyString());
     }
@@ -135,7 +302,7 @@ class HistoricalPriceServiceTest {
         // Then
         assertThat(result).isEmpty();
         verify(yahooFinanceService, times(1)).getHistoricalData("INVALID");
-        verify(historicalPriceRepository, never()).saveAll(anyList());
+        verify(historicalPriceRepository, never()).upsertAll(anyList());
     }
 
     @Test
@@ -149,14 +316,14 @@ class HistoricalPriceServiceTest {
         // Then
         assertThat(result).isEmpty();
         verify(yahooFinanceService, times(1)).getHistoricalData("AAPL");
-        verify(historicalPriceRepository, never()).saveAll(anyList());
+        verify(historicalPriceRepository, never()).upsertAll(anyList());
     }
 
     @Test
     void testFetchAndStoreHistoricalDataWithNullAssetType() {
         // Given
         when(yahooFinanceService.getHistoricalData("AAPL")).thenReturn(mockYahooData);
-        when(historicalPriceRepository.saveAll(anyList())).thenReturn(testHistoricalPrices);
+        when(historicalPriceRepository.upsertAll(anyList())).thenReturn(testHistoricalPrices.size());
 
         // When
         List<HistoricalPrice> result = historicalPriceService.fetchAndStoreHistoricalData("AAPL", null);
@@ -171,7 +338,7 @@ class HistoricalPriceServiceTest {
     void testFetchAndStoreHistoricalDataNormalizesAssetType() {
         // Given
         when(yahooFinanceService.getHistoricalData("AAPL")).thenReturn(mockYahooData);
-        when(historicalPriceRepository.saveAll(anyList())).thenReturn(testHistoricalPrices);
+        when(historicalPriceRepository.upsertAll(anyList())).thenReturn(testHistoricalPrices.size());
 
         // When - lowercase "stock" should be normalized
         List<HistoricalPrice> result = historicalPriceService.fetchAndStoreHistoricalData("AAPL", "stock");
@@ -179,6 +346,14 @@ class HistoricalPriceServiceTest {
         // Then
         assertThat(result).hasSize(2);
         verify(yahooFinanceService, times(1)).getHistoricalData("AAPL");
-        verify(historicalPriceRepository, times(1)).saveAll(anyList());
+        verify(historicalPriceRepository, times(1)).upsertAll(anyList());
+    }
+
+    private static List<Object[]> rows(List<HistoricalPrice> prices) {
+        List<Object[]> rows = new ArrayList<>();
+        for (HistoricalPrice price : prices) {
+            rows.add(new Object[]{price.getPriceDate(), price.getPrice()});
+        }
+        return rows;
     }
 }
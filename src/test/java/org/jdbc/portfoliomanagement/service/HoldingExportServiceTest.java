@@ -0,0 +1,100 @@
+package org.jdbc.portfoliomanagement.service;
+
+import jakarta.persistence.EntityManager;
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldingExportServiceTest {
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private HoldingService holdingService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private HoldingExportService holdingExportService;
+
+    private List<Integer> chunkSizes;
+
+    @BeforeEach
+    void setUp() {
+        chunkSizes = new ArrayList<>();
+        ReflectionTestUtils.setField(holdingExportService, "chunkSize", 2);
+        doAnswer(invocation -> {
+            List<Holding> chunk = invocation.getArgument(0);
+            chunkSizes.add(chunk.size());
+            chunk.forEach(holding -> {
+                holding.setCurrentPrice(new BigDecimal("160.00"));
+                holding.setCurrentValue(holding.getQuantity().multiply(new BigDecimal("160.00")));
+            });
+            return null;
+        }).when(holdingService).valueHoldings(anyList());
+    }
+
+    @Test
+    void testExportCsvValuesHoldingsInChunks() throws Exception {
+        // Given
+        when(holdingRepository.streamAllOrderById()).thenReturn(Stream.of(
+                holding(1L, "AAPL", "Big, Tech"), holding(2L, "MSFT", null), holding(3L, "GOOGL", null)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        int written = holdingExportService.exportHoldings(HoldingExportService.FORMAT_CSV, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(3);
+        assertThat(chunkSizes).containsExactly(2, 1);
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).startsWith("id,assetType,symbol,category,quantity");
+        assertThat(lines[1]).startsWith("1,STOCK,AAPL,\"Big, Tech\",10,150.00,2025-01-15,160.00,1600.00,");
+        verify(entityManager, times(3)).detach(any(Holding.class));
+    }
+
+    @Test
+    void testExportNdjsonWritesOneObjectPerLine() throws Exception {
+        // Given
+        when(holdingRepository.streamAllOrderById()).thenReturn(Stream.of(holding(1L, "AAPL", null)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        holdingExportService.exportHoldings(HoldingExportService.FORMAT_NDJSON, output);
+
+        // Then
+        String content = output.toString(StandardCharsets.UTF_8);
+        assertThat(content).endsWith("\n");
+        assertThat(content.trim().split("\n")).hasSize(1);
+        assertThat(content).contains("\"symbol\":\"AAPL\"", "\"currentPrice\":160.00", "\"purchaseDate\":\"2025-01-15\"");
+    }
+
+    private static Holding holding(Long id, String symbol, String category) {
+        Holding holding = new Holding("STOCK", symbol, new BigDecimal("10"), new BigDecimal("150.00"), LocalDate.of(2025, 1, 15));
+        holding.setId(id);
+        holding.setCategory(category);
+        return holding;
+    }
+}
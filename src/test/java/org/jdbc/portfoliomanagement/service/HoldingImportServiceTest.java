@@ -0,0 +1,145 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HistoricalPriceRepository;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldingImportServiceTest {
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private HoldingService holdingService;
+
+    @Mock
+    private PortfolioAggregates portfolioAggregates;
+
+    @Mock
+    private PerformanceIndex performanceIndex;
+
+    @Mock
+    private HistoricalPriceService historicalPriceService;
+
+    @Mock
+    private HistoricalPriceRepository historicalPriceRepository;
+
+    @InjectMocks
+    private HoldingImportService holdingImportService;
+
+    @Test
+    void testImportCsvInBatchesAndReportsBadRows() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(holdingImportService, "batchSize", 2);
+        List<List<Holding>> batches = new ArrayList<>();
+        when(holdingRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Holding> batch = invocation.getArgument(0);
+            batches.add(new ArrayList<>(batch));
+            return batch.size();
+        });
+        // MSFT already has stored history, so only the other symbols are backfilled
+        when(historicalPriceRepository.findSymbolsWithHistory(anyCollection())).thenReturn(List.of("MSFT"));
+        when(historicalPriceService.fetchAndStoreHistoricalDataAsync(anyString(), anyString())).thenReturn(Mono.just(List.of()));
+        String csv = "asset_type,symbol,quantity,purchase_price,purchase_date,category\n"
+                + "stock,AAPL,10,150.00,2025-01-15,Technology\n"
+                + "STOCK,AAPL,5,160.00,2025-02-01,\n"
+                + "mf,120503,100,45.50,2025-03-01,\n"
+                + "STOCK,MSFT,2,410.00,2025-03-01,\n"
+                + "STOCK,MSFT,-1,300.00,2025-01-01,\n"
+                + "STOCK,\"BRK,B\",abc,1.00,2025-01-01,\n";
+
+        // When
+        HoldingImportService.ImportReport report = holdingImportService.importHoldings(stream(csv), HoldingImportService.FORMAT_CSV);
+
+        // Then
+        assertThat(report.getTotalRows()).isEqualTo(6);
+        assertThat(report.getImported()).isEqualTo(4);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(HoldingImportService.RowError::getLine).containsExactly(6, 7);
+        assertThat(report.getErrors().get(1).getMessage()).contains("quantity");
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).extracting(Holding::getAssetType).containsExactly("STOCK", "STOCK");
+        assertThat(batches.get(0).get(0).getCategory()).isEqualTo("Technology");
+        assertThat(batches.get(1).get(0).getAssetType()).isEqualTo("MF");
+
+        verify(portfolioAggregates, times(4)).add(any(Holding.class));
+        // only the inserted holdings are tracked, the index is not reloaded
+        verify(performanceIndex, times(4)).track(any(Holding.class));
+        verify(performanceIndex, never()).seed();
+        verify(holdingService, times(1)).invalidatePortfolioSnapshot();
+        // historical backfill runs once per distinct symbol without stored history
+        verify(historicalPriceService, timeout(5000).times(1)).fetchAndStoreHistoricalDataAsync("AAPL", "STOCK");
+        verify(historicalPriceService, timeout(5000).times(1)).fetchAndStoreHistoricalDataAsync("120503", "MF");
+        verify(historicalPriceService, never()).fetchAndStoreHistoricalDataAsync("MSFT", "STOCK");
+    }
+
+    @Test
+    void testImportNdjson() throws Exception {
+        // Given
+        List<Holding> inserted = new ArrayList<>();
+        when(holdingRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Holding> batch = invocation.getArgument(0);
+            inserted.addAll(batch);
+            return batch.size();
+        });
+        when(historicalPriceService.fetchAndStoreHistoricalDataAsync(anyString(), anyString())).thenReturn(Mono.just(List.of()));
+        String ndjson = "{\"assetType\":\"stock\",\"symbol\":\"AAPL\",\"quantity\":10,\"purchasePrice\":150.0,\"purchaseDate\":\"2025-01-15\"}\n"
+                + "\n"
+                + "{\"assetType\":\"STOCK\",\"symbol\":\"MSFT\"\n";
+
+        // When
+        HoldingImportService.ImportReport report = holdingImportService.importHoldings(stream(ndjson), HoldingImportService.FORMAT_NDJSON);
+
+        // Then
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors().get(0).getLine()).isEqualTo(3);
+        assertThat(inserted).hasSize(1);
+        assertThat(inserted.get(0).getAssetType()).isEqualTo("STOCK");
+        assertThat(inserted.get(0).getQuantity()).isEqualByComparingTo("10");
+        verify(historicalPriceService, timeout(5000).times(1)).fetchAndStoreHistoricalDataAsync("AAPL", "STOCK");
+    }
+
+    @Test
+    void testImportRejectsCsvWithoutRequiredColumns() throws Exception {
+        // When
+        HoldingImportService.ImportReport report = holdingImportService.importHoldings(
+                stream("symbol,quantity\nAAPL,10\n"), HoldingImportService.FORMAT_CSV);
+
+        // Then
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getErrors().get(0).getLine()).isEqualTo(1);
+        verifyNoInteractions(holdingRepository, performanceIndex, historicalPriceService);
+    }
+
+    @Test
+    void testSplitCsvHonoursQuotes() {
+        assertThat(HoldingImportService.splitCsv("a,\"b,c\",\"d \"\"e\"\"\",")).containsExactly("a", "b,c", "d \"e\"", "");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldingPageServiceTest {
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private HoldingService holdingService;
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 1, 15, 9, 30);
+
+    @InjectMocks
+    private HoldingPageService holdingPageService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(holdingPageService, "maxPageSize", 200);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetHoldingsValuesOnlyThePageAndReturnsCursor() {
+        // Given
+        List<Holding> page = List.of(holding(1L, "AAPL"), holding(2L, "MSFT"));
+        Window<Holding> window = Window.from(page,
+                index -> ScrollPosition.forward(Map.of("createdAt", page.get(index).getCreatedAt(), "id", page.get(index).getId())),
+                true);
+        when(holdingRepository.findBy(any(Specification.class), any())).thenReturn(window);
+
+        // When
+        HoldingPageService.HoldingPage result = holdingPageService.getHoldings("stock", null, "A", "createdAt", "asc", null, 2);
+
+        // Then
+        assertThat(result.getItems()).extracting(Holding::getSymbol).containsExactly("AAPL", "MSFT");
+        assertThat(result.isHasNext()).isTrue();
+        verify(holdingService).valueHoldings(page);
+
+        KeysetScrollPosition next = holdingPageService.decodeCursor(result.getNextCursor(), "createdAt");
+        assertThat(next.getKeys()).containsEntry("createdAt", CREATED.plusMinutes(2)).containsEntry("id", 2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLastPageHasNoCursor() {
+        // Given
+        when(holdingRepository.findBy(any(Specification.class), any()))
+                .thenReturn(Window.from(List.of(holding(3L, "GOOGL")), index -> ScrollPosition.keyset(), false));
+
+        // When
+        HoldingPageService.HoldingPage result = holdingPageService.getHoldings(null, null, null, "id", "desc", null, 20);
+
+        // Then
+        assertThat(result.getNextCursor()).isNull();
+        assertThat(result.isHasNext()).isFalse();
+    }
+
+    @Test
+    void testRejectsInvalidRequests() {
+        // When & Then
+        assertThatThrownBy(() -> holdingPageService.getHoldings(null, null, null, "category", "asc", null, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        // nullable column, cannot be paged by keyset
+        assertThatThrownBy(() -> holdingPageService.getHoldings(null, null, null, "purchaseDate", "asc", null, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> holdingPageService.getHoldings(null, null, null, "id", "up", null, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> holdingPageService.getHoldings(null, null, null, "id", "asc", null, 500))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> holdingPageService.getHoldings(null, null, null, "id", "asc", "not-a-cursor", 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(holdingRepository, holdingService);
+    }
+
+    @Test
+    void testCursorKeysAreTypedPerSortField() {
+        // Given
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"quantity\":\"12.50\",\"id\":\"3\"}".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        KeysetScrollPosition position = holdingPageService.decodeCursor(cursor, "quantity");
+
+        // Then
+        assertThat(position.getKeys()).containsEntry("quantity", new BigDecimal("12.50")).containsEntry("id", 3L);
+    }
+
+    private static Holding holding(Long id, String symbol) {
+        Holding holding = new Holding("STOCK", symbol, new BigDecimal("10"), new BigDecimal("150.00"), LocalDate.of(2025, 1, 15));
+        holding.setId(id);
+        holding.setCreatedAt(CREATED.plusMinutes(id));
+        return holding;
+    }
+}
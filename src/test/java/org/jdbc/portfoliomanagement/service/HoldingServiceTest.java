@@ -7,16 +7,28 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -29,6 +41,24 @@ class HoldingServiceTest {
     @Mock
     private YahooFinanceService yahooFinanceService;
 
+    @Mock
+    private ExchangeRateProvider exchangeRateProvider;
+
+    @Spy
+    private QuoteCache quoteCache = new QuoteCache(30, 6, 1000, 24);
+
+    @Spy
+    private ValuationExecutor valuationExecutor = new ValuationExecutor(4, 5000);
+
+    @Spy
+    private PortfolioAggregates portfolioAggregates = new PortfolioAggregates();
+
+    @Mock
+    private PerformanceIndex performanceIndex;
+
+    @Mock
+    private CorrelationService correlationService;
+
     @InjectMocks
     private HoldingService holdingService;
 
@@ -44,6 +74,11 @@ class HoldingServiceTest {
                 LocalDate.of(2025, 1, 15)
         );
         testHolding.setId(1L);
+
+        lenient().when(exchangeRateProvider.getUsdToInrRate()).thenReturn(new BigDecimal("89.0"));
+        // no stored history by default, so diversification falls back to categories
+        lenient().when(correlationService.getCorrelationMatrix(anyCollection(), any(LocalDate.class)))
+                .thenAnswer(invocation -> CorrelationMatrix.empty(new ArrayList<>(invocation.<Collection<String>>getArgument(0))));
     }
 
     @Test
@@ -62,6 +97,315 @@ class HoldingServiceTest {
         verify(holdingRepository, times(1)).findAll();
     }
 
+    @Test
+    void testGetAllHoldingsPricesStocksInOneBatch() {
+        // Given
+        Holding msft = new Holding("STOCK", "MSFT", new BigDecimal("5"), new BigDecimal("400.00"), LocalDate.of(2025, 1, 15));
+        Holding secondAapl = new Holding("STOCK", "AAPL", new BigDecimal("2"), new BigDecimal("170.00"), LocalDate.of(2025, 2, 1));
+        when(holdingRepository.findAll()).thenReturn(new ArrayList<>(List.of(testHolding, msft, secondAapl)));
+        when(yahooFinanceService.getQuotes(anyCollection())).thenReturn(Map.of(
+                "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD"),
+                "MSFT", new YahooFinanceService.Quote("MSFT", new BigDecimal("410.00"), null, "USD")));
+
+        // When
+        List<Holding> result = holdingService.getAllHoldings();
+
+        // Then
+        assertThat(result).extracting(Holding::getCurrentPrice)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(new BigDecimal("160.00"), new BigDecimal("410.00"), new BigDecimal("160.00"));
+        verify(yahooFinanceService, times(1)).getQuotes(anyCollection());
+        verify(yahooFinanceService, never()).getCurrentPrice(anyString());
+    }
+
+    @Test
+    void testGetAllHoldingsAsync() {
+        // Given
+        Holding msft = new Holding("STOCK", "MSFT", new BigDecimal("5"), new BigDecimal("400.00"), LocalDate.of(2025, 1, 15));
+        when(holdingRepository.findAll()).thenReturn(new ArrayList<>(List.of(testHolding, msft)));
+        when(yahooFinanceService.getQuotesAsync(anyCollection())).thenReturn(Mono.just(Map.of(
+                "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD"))));
+        when(yahooFinanceService.getCurrentPriceAsync("MSFT")).thenReturn(Mono.just(new BigDecimal("410.00")));
+
+        // When
+        List<Holding> result = holdingService.getAllHoldingsAsync().collectList().block();
+
+        // Then
+        assertThat(result).extracting(Holding::getSymbol).containsExactly("AAPL", "MSFT");
+        assertThat(result.get(0).getCurrentValue()).isEqualByComparingTo("1600.00");
+        assertThat(result.get(1).getCurrentValue()).isEqualByComparingTo("2050.00");
+        assertThat(result.get(1).getCurrentValueInr()).isEqualByComparingTo("182450.00");
+        verify(yahooFinanceService, never()).getQuotes(anyCollection());
+    }
+
+    @Test
+    void testPortfolioAnalyticsShareOneValuation() {
+        // Given
+        ReflectionTestUtils.setField(holdingService, "snapshotTtlMs", 60_000L);
+        Holding msft = new Holding("STOCK", "MSFT", new BigDecimal("5"), new BigDecimal("400.00"), LocalDate.of(2025, 1, 15));
+        testHolding.setCategory("Technology");
+        msft.setCategory("Technology");
+        portfolioAggregates.add(testHolding);
+        portfolioAggregates.add(msft);
+        when(holdingRepository.findAll()).thenReturn(new ArrayList<>(List.of(testHolding, msft)));
+        when(yahooFinanceService.getQuotes(anyCollection())).thenReturn(Map.of(
+                "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD"),
+                "MSFT", new YahooFinanceService.Quote("MSFT", new BigDecimal("410.00"), null, "USD")));
+
+        // When
+        Map<String, Object> summary = holdingService.getPortfolioSummary();
+        Holding best = holdingService.getBestPerformer();
+        Holding worst = holdingService.getWorstPerformer();
+        Map<String, Object> diversification = holdingService.getDiversificationSuggestions();
+
+        // Then
+        assertThat(summary.get("totalHoldings")).isEqualTo(2);
+        assertThat((BigDecimal) summary.get("totalValue")).isEqualByComparingTo("324850.00");
+        assertThat(best.getSymbol()).isEqualTo("AAPL");
+        assertThat(worst.getSymbol()).isEqualTo("MSFT");
+        assertThat(diversification.get("riskLevel")).isEqualTo("Very High");
+        verify(holdingRepository, times(1)).findAll();
+        verify(yahooFinanceService, times(1)).getQuotes(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDiversificationCountsCorrelatedHoldingsAsOneBet() {
+        // Given - different categories, but AAPL and JPM move together and GLD does not
+        ReflectionTestUtils.setField(holdingService, "correlationThreshold", 0.8);
+        Holding jpm = new Holding("STOCK", "JPM", new BigDecimal("5"), new BigDecimal("300.00"), LocalDate.of(2025, 1, 15));
+        Holding gld = new Holding("STOCK", "GLD", new BigDecimal("2"), new BigDecimal("180.00"), LocalDate.of(2025, 1, 15));
+        testHolding.setCategory("Technology");
+        jpm.setCategory("Finance");
+        gld.setCategory("Commodities");
+        when(holdingRepository.findAll()).thenReturn(new ArrayList<>(List.of(testHolding, jpm, gld)));
+        when(yahooFinanceService.getQuotes(anyCollection())).thenReturn(Map.of(
+                "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD"),
+                "JPM", new YahooFinanceService.Quote("JPM", new BigDecimal("300.00"), null, "USD"),
+                "GLD", new YahooFinanceService.Quote("GLD", new BigDecimal("200.00"), null, "USD")));
+        when(correlationService.getCorrelationMatrix(anyCollection(), any(LocalDate.class))).thenReturn(new CorrelationMatrix(
+                List.of("AAPL", "GLD", "JPM"),
+                new double[][]{{1, 0.1, 0.92}, {0.1, 1, 0.05}, {0.92, 0.05, 1}},
+                List.of(), 250, LocalDate.of(2025, 6, 1)));
+
+        // When
+        Map<String, Object> diversification = holdingService.getDiversificationSuggestions();
+
+        // Then - 3100 of 3500 in one cluster: 1 / (0.8857^2 + 0.1143^2) = 1.25 bets
+        assertThat(diversification.get("riskLevel")).isEqualTo("Very High");
+        assertThat(diversification.get("needsDiversification")).isEqualTo(true);
+        assertThat((BigDecimal) diversification.get("effectiveBets")).isEqualByComparingTo("1.25");
+        List<Map<String, Object>> clusters = (List<Map<String, Object>>) diversification.get("clusters");
+        assertThat(clusters.get(0).get("symbols")).isEqualTo(List.of("AAPL", "JPM"));
+        assertThat(clusters.get(0).get("basis")).isEqualTo("correlation");
+        assertThat((List<String>) diversification.get("recommendations"))
+                .anyMatch(recommendation -> recommendation.startsWith("AAPL, JPM move together"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testConcentrationKeepsRiskHighDespiteManyBets() {
+        // Given - one position at 41% next to 30 small ones, about 5.6 effective bets
+        List<Holding> holdings = new ArrayList<>();
+        Map<String, YahooFinanceService.Quote> quotes = new HashMap<>();
+        holdings.add(new Holding("STOCK", "BIG", new BigDecimal("41"), new BigDecimal("100.00"), LocalDate.of(2025, 1, 15)));
+        quotes.put("BIG", new YahooFinanceService.Quote("BIG", new BigDecimal("100.00"), null, "USD"));
+        for (int i = 0; i < 30; i++) {
+            holdings.add(new Holding("STOCK", "S" + i, BigDecimal.ONE, new BigDecimal("196.67"), LocalDate.of(2025, 1, 15)));
+            quotes.put("S" + i, new YahooFinanceService.Quote("S" + i, new BigDecimal("196.67"), null, "USD"));
+        }
+        when(holdingRepository.findAll()).thenReturn(holdings);
+        when(yahooFinanceService.getQuotes(anyCollection())).thenReturn(quotes);
+
+        // When
+        Map<String, Object> diversification = holdingService.getDiversificationSuggestions();
+
+        // Then
+        assertThat((BigDecimal) diversification.get("effectiveBets")).isGreaterThan(new BigDecimal("5"));
+        assertThat(diversification.get("riskLevel")).isEqualTo("High");
+        assertThat(diversification.get("needsDiversification")).isEqualTo(true);
+        assertThat((List<String>) diversification.get("recommendations"))
+                .anyMatch(recommendation -> recommendation.startsWith("High concentration in BIG"))
+                .noneMatch(recommendation -> recommendation.startsWith("Good diversification"));
+    }
+
+    @Test
+    void testGetDashboardAsyncReturnsRequestedSections() {
+        // Given
+        when(holdingRepository.findAll()).thenReturn(new ArrayList<>(List.of(testHolding)));
+        when(yahooFinanceService.getQuotesAsync(anyCollection())).thenReturn(Mono.just(Map.of(
+                "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD"))));
+
+        // When
+        Map<String, Object> dashboard = holdingService.getDashboardAsync(List.of("summary", "bestPerformer", "unknown")).block();
+
+        // Then
+        assertThat(dashboard).containsOnlyKeys("summary", "bestPerformer", "asOf");
+        assertThat(((Holding) dashboard.get("bestPerformer")).getSymbol()).isEqualTo("AAPL");
+        verify(holdingRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testDashboardDiversificationIsNotBuiltOnTheEventLoop() {
+        // Given - quotes arrive on a thread named like a Reactor Netty event loop
+        Scheduler eventLoop = Schedulers.newSingle("reactor-http-nio");
+        try {
+            List<String> threads = new CopyOnWriteArrayList<>();
+            when(holdingRepository.findAll()).thenReturn(new ArrayList<>(List.of(testHolding)));
+            when(yahooFinanceService.getQuotesAsync(anyCollection())).thenReturn(Mono.just(Map.of(
+                    "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD")))
+                    .publishOn(eventLoop));
+            when(correlationService.getCorrelationMatrix(anyCollection(), any(LocalDate.class))).thenAnswer(invocation -> {
+                threads.add(Thread.currentThread().getName());
+                return CorrelationMatrix.empty(new ArrayList<>(invocation.<Collection<String>>getArgument(0)));
+            });
+
+            // When
+            Map<String, Object> dashboard = holdingService.getDashboardAsync(List.of("diversification")).block();
+
+            // Then
+            assertThat(dashboard).containsKey("diversification");
+            assertThat(threads).hasSize(1).noneMatch(name -> name.startsWith("reactor-http"));
+        } finally {
+            eventLoop.dispose();
+        }
+    }
+
+    @Test
+    void testDashboardSummaryComesFromTheSnapshotOnly() {
+        // Given - the live aggregates already include a holding created after the valuation
+        when(holdingRepository.findAll()).thenReturn(new ArrayList<>(List.of(testHolding)));
+        when(yahooFinanceService.getQuotesAsync(anyCollection())).thenReturn(Mono.just(Map.of(
+                "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD"))));
+        portfolioAggregates.add(testHolding);
+        portfolioAggregates.add(new Holding("STOCK", "MSFT", new BigDecimal("5"), new BigDecimal("400.00"), LocalDate.of(2025, 1, 15)));
+
+        // When
+        Map<String, Object> dashboard = holdingService.getDashboardAsync(List.of("summary")).block();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        Map<String, Object> summary = (Map<String, Object>) dashboard.get("summary");
+        assertThat(summary.get("totalHoldings")).isEqualTo(1);
+        // 10 x 160 x 89
+        assertThat((BigDecimal) summary.get("totalValue")).isEqualByComparingTo("142400.00");
+    }
+
+    @Test
+    void testPortfolioSnapshotIsNotChangedThroughItsHoldings() {
+        // Given
+        ReflectionTestUtils.setField(holdingService, "snapshotTtlMs", 60_000L);
+        when(holdingRepository.findAll()).thenReturn(new ArrayList<>(List.of(testHolding)));
+        when(yahooFinanceService.getQuotes(anyCollection())).thenReturn(Map.of(
+                "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD")));
+        PortfolioSnapshot snapshot = holdingService.getPortfolioSnapshot();
+
+        // When - the loaded entity and a handed-out holding are modified
+        testHolding.setQuantity(new BigDecimal("99"));
+        snapshot.getHoldings().get(0).setSymbol("MSFT");
+        snapshot.getBestPerformer().setCurrentPrice(BigDecimal.ONE);
+
+        // Then
+        assertThat(snapshot.getHoldings().get(0).getQuantity()).isEqualByComparingTo("10");
+        assertThat(snapshot.getHoldings().get(0).getSymbol()).isEqualTo("AAPL");
+        assertThat(snapshot.getBestPerformer().getCurrentPrice()).isEqualByComparingTo("160.00");
+        assertThat(snapshot.getAggregates().getHoldingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testPortfolioSummaryUsesAggregatesWithoutLoadingHoldings() {
+        // Given
+        Holding fund = new Holding("MUTUAL_FUND", "120503", new BigDecimal("100"), new BigDecimal("40.00"), LocalDate.of(2025, 1, 15));
+        Holding secondAapl = new Holding("STOCK", "AAPL", new BigDecimal("2"), new BigDecimal("170.00"), LocalDate.of(2025, 2, 1));
+        portfolioAggregates.add(testHolding);
+        portfolioAggregates.add(secondAapl);
+        portfolioAggregates.add(fund);
+        quoteCache.get("MUTUAL_FUND", "120503", () -> new BigDecimal("45.00"));
+        when(yahooFinanceService.getQuotes(anyCollection())).thenReturn(Map.of(
+                "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD")));
+
+        // When
+        Map<String, Object> summary = holdingService.getPortfolioSummary();
+
+        // Then
+        // AAPL: 12 x 160 x 89 = 170880, cost (1500 + 340) x 89 = 163760; fund: 4500, cost 4000
+        assertThat(summary.get("totalHoldings")).isEqualTo(3);
+        assertThat((BigDecimal) summary.get("totalValue")).isEqualByComparingTo("175380.00");
+        assertThat((BigDecimal) summary.get("totalInvestment")).isEqualByComparingTo("167760.00");
+        verify(holdingRepository, never()).findAll();
+        verify(yahooFinanceService, times(1)).getQuotes(anyCollection());
+    }
+
+    @Test
+    void testUpdateHoldingAppliesAggregateDelta() {
+        // Given
+        portfolioAggregates.add(testHolding);
+        Holding updatedDetails = new Holding("STOCK", "MSFT", new BigDecimal("4"), new BigDecimal("400.00"), LocalDate.of(2025, 1, 15));
+        when(holdingRepository.findById(1L)).thenReturn(Optional.of(testHolding));
+        when(holdingRepository.save(any(Holding.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(yahooFinanceService.getCurrentPrice("MSFT")).thenReturn(new BigDecimal("410.00"));
+
+        // When
+        holdingService.updateHolding(1L, updatedDetails);
+
+        // Then
+        PortfolioAggregates.View view = portfolioAggregates.view();
+        assertThat(view.getHoldingCount()).isEqualTo(1);
+        assertThat(view.getPositions()).extracting(PortfolioAggregates.PositionTotal::getSymbol).containsExactly("MSFT");
+        assertThat(view.getCostBasisByAssetType().get("STOCK")).isEqualByComparingTo("1600.00");
+    }
+
+    @Test
+    void testGetPerformersPricesOnlyUnrankedSymbols() {
+        // Given
+        when(performanceIndex.getUnpricedSymbols()).thenReturn(Map.of("STOCK", Set.of("AAPL")));
+        when(yahooFinanceService.getQuotes(anyCollection())).thenReturn(Map.of(
+                "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD")));
+        when(performanceIndex.getPerformers(3, 3, "pct")).thenReturn(Map.of("by", "pct"));
+
+        // When
+        Map<String, Object> performers = holdingService.getPerformers(3, 3, "pct");
+
+        // Then
+        assertThat(performers).containsEntry("by", "pct");
+        assertThat(quoteCache.peek("STOCK", "AAPL")).isEqualByComparingTo("160.00");
+        verify(holdingRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetPerformersRanksFromWarmQuotesWithoutStoring() {
+        // Given - a warm quote is served without storing it, so no QuoteUpdatedEvent fires
+        ReflectionTestUtils.setField(holdingService, "serveWarmQuotes", true);
+        when(performanceIndex.getUnpricedSymbols()).thenReturn(Map.of("STOCK", Set.of("AAPL")));
+        doReturn(new BigDecimal("158.00")).when(quoteCache).getLatest("STOCK", "AAPL");
+        when(performanceIndex.getPerformers(3, 3, "pct")).thenReturn(Map.of("by", "pct"));
+
+        // When
+        holdingService.getPerformers(3, 3, "pct");
+
+        // Then
+        verify(performanceIndex).updatePrice("STOCK", "AAPL", new BigDecimal("158.00"));
+        verify(yahooFinanceService, never()).getQuotes(anyCollection());
+    }
+
+    @Test
+    void testCreateHoldingInvalidatesPortfolioSnapshot() {
+        // Given
+        ReflectionTestUtils.setField(holdingService, "snapshotTtlMs", 60_000L);
+        when(holdingRepository.findAll()).thenReturn(new ArrayList<>(List.of(testHolding)));
+        when(holdingRepository.save(any(Holding.class))).thenReturn(testHolding);
+        when(yahooFinanceService.getQuotes(anyCollection())).thenReturn(Map.of(
+                "AAPL", new YahooFinanceService.Quote("AAPL", new BigDecimal("160.00"), null, "USD")));
+
+        // When
+        holdingService.getBestPerformer();
+        holdingService.createHolding(testHolding);
+        holdingService.getBestPerformer();
+
+        // Then
+        verify(holdingRepository, times(2)).findAll();
+    }
+
     @Test
     void testGetHoldingById() {
         // Given
@@ -106,6 +450,18 @@ class HoldingServiceTest {
         verify(holdingRepository, times(1)).save(any(Holding.class));
     }
 
+    @Test
+    void testCreateHoldingRejectsMissingSymbol() {
+        // Given
+        Holding withoutSymbol = new Holding("STOCK", " ", new BigDecimal("10"), new BigDecimal("150.00"), LocalDate.of(2025, 1, 15));
+
+        // When & Then
+        assertThatThrownBy(() -> holdingService.createHolding(withoutSymbol))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("symbol");
+        verify(holdingRepository, never()).save(any(Holding.class));
+    }
+
     @Test
     void testCreateHoldingNormalizesAssetType() {
         // Given
@@ -175,7 +531,8 @@ class HoldingServiceTest {
     @Test
     void testDeleteHolding() {
         // Given
-        when(holdingRepository.existsById(1L)).thenReturn(true);
+        portfolioAggregates.add(testHolding);
+        when(holdingRepository.findById(1L)).thenReturn(Optional.of(testHolding));
         doNothing().when(holdingRepository).deleteById(1L);
 
         // When
@@ -183,21 +540,22 @@ class HoldingServiceTest {
 
         // Then
         assertThat(result).isTrue();
-        verify(holdingRepository, times(1)).existsById(1L);
+        assertThat(portfolioAggregates.view().getHoldingCount()).isZero();
+        verify(holdingRepository, times(1)).findById(1L);
         verify(holdingRepository, times(1)).deleteById(1L);
     }
 
     @Test
     void testDeleteHoldingNotFound() {
         // Given
-        when(holdingRepository.existsById(999L)).thenReturn(false);
+        when(holdingRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When
         boolean result = holdingService.deleteHolding(999L);
 
         // Then
         assertThat(result).isFalse();
-        verify(holdingRepository, times(1)).existsById(999L);
+        verify(holdingRepository, times(1)).findById(999L);
         verify(holdingRepository, never()).deleteById(anyLong());
     }
 
@@ -0,0 +1,87 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class MonteCarloEngineTest {
+
+    @Test
+    void testCholeskyReconstructsCovariance() {
+        // Given
+        double[][] covariance = {{4, 2, 0.4}, {2, 5, 1}, {0.4, 1, 3}};
+
+        // When
+        double[] lower = MonteCarloEngine.cholesky(covariance);
+
+        // Then
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = 0;
+                for (int k = 0; k <= j; k++) {
+                    sum += lower[i * (i + 1) / 2 + k] * lower[j * (j + 1) / 2 + k];
+                }
+                assertThat(sum).isCloseTo(covariance[i][j], within(1e-12));
+            }
+        }
+    }
+
+    @Test
+    void testCholeskyToleratesSingularMatrix() {
+        // Given - perfectly correlated assets plus one that never moves
+        double[][] covariance = {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}};
+
+        // When
+        double[] lower = MonteCarloEngine.cholesky(covariance);
+
+        // Then
+        assertThat(lower).containsExactly(new double[]{1, 1, 0, 0, 0, 0}, within(1e-12));
+    }
+
+    @Test
+    void testSameSeedGivesSameResultOnAnyPool() {
+        // Given
+        double[][] covariance = {{0.0004, 0.0002}, {0.0002, 0.0009}};
+        double[] means = {0.0005, 0.0002};
+        double[] weights = {0.6, 0.4};
+
+        // When
+        double[] parallel = MonteCarloEngine.simulate(covariance, means, weights, 10, 10_000, 42L, ForkJoinPool.commonPool());
+        double[] single = MonteCarloEngine.simulate(covariance, means, weights, 10, 10_000, 42L, new ForkJoinPool(1));
+
+        // Then
+        assertThat(parallel).containsExactly(single);
+    }
+
+    @Test
+    void testVarMatchesNormalQuantile() {
+        // Given - one asset with 1% daily volatility and no drift
+        double[][] covariance = {{0.0001}};
+
+        // When
+        double[] returns = MonteCarloEngine.simulate(covariance, new double[]{0}, new double[]{1}, 1, 200_000, 7L,
+                ForkJoinPool.commonPool());
+
+        // Then
+        assertThat(MonteCarloEngine.valueAtRisk(returns, 0.95)).isCloseTo(0.01645, within(0.0005));
+        assertThat(MonteCarloEngine.valueAtRisk(returns, 0.99)).isCloseTo(0.02326, within(0.0007));
+        // expected shortfall of a normal at 95% is phi(1.645) / 0.05 sigma
+        assertThat(MonteCarloEngine.conditionalValueAtRisk(returns, 0.95)).isCloseTo(0.02063, within(0.0007));
+    }
+
+    @Test
+    void testTailStatisticsOnKnownReturns() {
+        // Given
+        double[] sorted = new double[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = (i - 50) / 1000.0;
+        }
+
+        // When & Then - the worst 5 paths are -5.0% .. -4.6%
+        assertThat(MonteCarloEngine.valueAtRisk(sorted, 0.95)).isCloseTo(0.046, within(1e-12));
+        assertThat(MonteCarloEngine.conditionalValueAtRisk(sorted, 0.95)).isCloseTo(0.048, within(1e-12));
+    }
+}
@@ -0,0 +1,189 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PerformanceIndexTest {
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private ExchangeRateProvider exchangeRateProvider;
+
+    @Spy
+    private QuoteCache quoteCache = new QuoteCache(30, 6, 1000, 24);
+
+    @InjectMocks
+    private PerformanceIndex performanceIndex;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(exchangeRateProvider.getUsdToInrRate()).thenReturn(new BigDecimal("89.0"));
+    }
+
+    @Test
+    void testHoldingsAreRankedWhenQuotesArrive() {
+        // Given
+        when(holdingRepository.findRankingFields()).thenReturn(List.of(
+                row(1L, "STOCK", "AAPL", "10", "150.00"),
+                row(2L, "STOCK", "MSFT", "5", "400.00"),
+                row(3L, "MF", "120503", "100", "40.00")));
+        performanceIndex.seed();
+
+        // When
+        performanceIndex.onQuoteUpdated(new QuoteUpdatedEvent("STOCK", "AAPL", new BigDecimal("165.00")));
+        performanceIndex.onQuoteUpdated(new QuoteUpdatedEvent("STOCK", "MSFT", new BigDecimal("380.00")));
+        performanceIndex.onQuoteUpdated(new QuoteUpdatedEvent("MUTUAL_FUND", "120503", new BigDecimal("42.00")));
+        Map<String, Object> performers = performanceIndex.getPerformers(2, 1, PerformanceIndex.BY_PERCENTAGE);
+
+        // Then
+        // AAPL +10%, MF +5%, MSFT -5%
+        assertThat(symbols(performers.get("top"))).containsExactly("AAPL", "120503");
+        assertThat(symbols(performers.get("bottom"))).containsExactly("MSFT");
+        assertThat(performers.get("unpriced")).isEqualTo(0);
+    }
+
+    @Test
+    void testAbsoluteOrderingUsesInrProfitLoss() {
+        // Given
+        when(holdingRepository.findRankingFields()).thenReturn(List.of(
+                row(1L, "STOCK", "AAPL", "10", "150.00"),
+                row(2L, "MUTUAL_FUND", "120503", "1000", "40.00")));
+        performanceIndex.seed();
+        performanceIndex.onQuoteUpdated(new QuoteUpdatedEvent("STOCK", "AAPL", new BigDecimal("160.00")));
+        performanceIndex.onQuoteUpdated(new QuoteUpdatedEvent("MUTUAL_FUND", "120503", new BigDecimal("45.00")));
+
+        // When
+        Map<String, Object> performers = performanceIndex.getPerformers(1, 0, PerformanceIndex.BY_ABSOLUTE);
+
+        // Then
+        // AAPL: 100 USD = 8900 INR beats the fund's 5000 INR
+        assertThat(symbols(performers.get("top"))).containsExactly("AAPL");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAbsoluteOrderingFollowsRateRefresh() {
+        // Given - ranked while USD to INR is 89
+        when(holdingRepository.findRankingFields()).thenReturn(List.of(
+                row(1L, "STOCK", "AAPL", "10", "150.00"),
+                row(2L, "MUTUAL_FUND", "120503", "1000", "40.00")));
+        performanceIndex.seed();
+        performanceIndex.onQuoteUpdated(new QuoteUpdatedEvent("STOCK", "AAPL", new BigDecimal("160.00")));
+        performanceIndex.onQuoteUpdated(new QuoteUpdatedEvent("MUTUAL_FUND", "120503", new BigDecimal("45.00")));
+
+        // When - the rate is refreshed without any new quote
+        when(exchangeRateProvider.getUsdToInrRate()).thenReturn(new BigDecimal("40.0"));
+        Map<String, Object> performers = performanceIndex.getPerformers(2, 1, PerformanceIndex.BY_ABSOLUTE);
+
+        // Then - AAPL's 100 USD is now 4000 INR, behind the fund's 5000 INR
+        assertThat(symbols(performers.get("top"))).containsExactly("120503", "AAPL");
+        assertThat(symbols(performers.get("bottom"))).containsExactly("AAPL");
+        assertThat(((List<PerformanceIndex.Performer>) performers.get("bottom")).get(0).getProfitLossInr())
+                .isEqualByComparingTo("4000.00");
+    }
+
+    @Test
+    void testTrackUsesCachedPriceAndUntrackRemovesHolding() {
+        // Given
+        when(holdingRepository.findRankingFields()).thenReturn(List.of());
+        performanceIndex.seed();
+        quoteCache.get("STOCK", "AAPL", () -> new BigDecimal("160.00"));
+
+        // When
+        performanceIndex.track(holding(7L, "stock", "AAPL", "10", "150.00"));
+        Map<String, Object> afterTrack = performanceIndex.getPerformers(5, 5, PerformanceIndex.BY_PERCENTAGE);
+        performanceIndex.untrack(7L);
+        Map<String, Object> afterUntrack = performanceIndex.getPerformers(5, 5, PerformanceIndex.BY_PERCENTAGE);
+
+        // Then
+        assertThat(symbols(afterTrack.get("top"))).containsExactly("AAPL");
+        assertThat(symbols(afterUntrack.get("top"))).isEmpty();
+        assertThat(performanceIndex.getUnpricedSymbols()).isEmpty();
+    }
+
+    @Test
+    void testTrackRanksFromStaleButWarmQuote() {
+        // Given - the quote is past its 30s TTL but within max-stale, as off market hours
+        QuoteCacheTest.MutableClock clock = new QuoteCacheTest.MutableClock(Instant.parse("2026-01-15T10:00:00Z"));
+        QuoteCache warmCache = new QuoteCache(Duration.ofSeconds(30), Duration.ofHours(6), 1000, clock);
+        ReflectionTestUtils.setField(performanceIndex, "quoteCache", warmCache);
+        warmCache.get("STOCK", "AAPL", () -> new BigDecimal("160.00"));
+        clock.advance(Duration.ofMinutes(10));
+
+        // When
+        performanceIndex.track(holding(7L, "STOCK", "AAPL", "10", "150.00"));
+
+        // Then
+        assertThat(symbols(performanceIndex.getPerformers(5, 5, PerformanceIndex.BY_PERCENTAGE).get("top")))
+                .containsExactly("AAPL");
+        assertThat(performanceIndex.getUnpricedSymbols()).isEmpty();
+    }
+
+    @Test
+    void testUpdatePriceRanksTrackedHoldings() {
+        // Given
+        when(holdingRepository.findRankingFields()).thenReturn(List.<Object[]>of(row(1L, "STOCK", "AAPL", "10", "150.00")));
+        performanceIndex.seed();
+
+        // When
+        performanceIndex.updatePrice("stock", "AAPL", new BigDecimal("165.00"));
+
+        // Then
+        assertThat(performanceIndex.getRanked("STOCK", "AAPL")).extracting(PerformanceIndex.Performer::getCurrentPrice)
+                .containsExactly(new BigDecimal("165.00"));
+    }
+
+    @Test
+    void testUnpricedSymbolsAreReportedByAssetType() {
+        // Given
+        when(holdingRepository.findRankingFields()).thenReturn(List.of(
+                row(1L, "STOCK", "AAPL", "10", "150.00"),
+                row(2L, "MF", "120503", "100", "40.00")));
+
+        // When
+        performanceIndex.seed();
+
+        // Then
+        assertThat(performanceIndex.getUnpricedSymbols()).containsOnlyKeys("STOCK", "MUTUAL_FUND");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> symbols(Object performers) {
+        return ((List<PerformanceIndex.Performer>) performers).stream()
+                .map(PerformanceIndex.Performer::getSymbol)
+                .toList();
+    }
+
+    private static Object[] row(Long id, String assetType, String symbol, String quantity, String purchasePrice) {
+        return new Object[]{id, assetType, symbol, new BigDecimal(quantity), new BigDecimal(purchasePrice)};
+    }
+
+    private Holding holding(Long id, String assetType, String symbol, String quantity, String purchasePrice) {
+        Holding holding = new Holding(assetType, symbol, new BigDecimal(quantity), new BigDecimal(purchasePrice), LocalDate.of(2025, 1, 15));
+        holding.setId(id);
+        return holding;
+    }
+}
@@ -0,0 +1,80 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PortfolioAggregatesTest {
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @InjectMocks
+    private PortfolioAggregates portfolioAggregates;
+
+    @Test
+    void testSeedFromRepository() {
+        // Given
+        when(holdingRepository.findPortfolioComposition()).thenReturn(List.of(
+                new Object[]{"STOCK", 2L, new BigDecimal("1840.00")},
+                new Object[]{"mutual_fund", 1L, new BigDecimal("5000.00")}));
+        when(holdingRepository.findPositionTotals()).thenReturn(List.of(
+                new Object[]{"STOCK", "AAPL", "Technology", 2L, new BigDecimal("12"), new BigDecimal("1840.00")},
+                new Object[]{"mutual_fund", "120503", null, 1L, new BigDecimal("100"), new BigDecimal("5000.00")}));
+
+        // When
+        portfolioAggregates.seed();
+
+        // Then
+        PortfolioAggregates.View view = portfolioAggregates.view();
+        assertThat(view.getHoldingCount()).isEqualTo(3);
+        assertThat(view.getPositions()).hasSize(2);
+        assertThat(view.getCostBasisByAssetType()).containsOnlyKeys("STOCK", "MUTUAL_FUND");
+        assertThat(view.getPositions().get(1).getAssetType()).isEqualTo("MUTUAL_FUND");
+    }
+
+    @Test
+    void testAddAndRemoveApplyDeltas() {
+        // Given
+        Holding first = new Holding("STOCK", "AAPL", new BigDecimal("10"), new BigDecimal("150.00"), LocalDate.of(2025, 1, 15));
+        Holding second = new Holding("STOCK", "AAPL", new BigDecimal("2"), new BigDecimal("170.00"), LocalDate.of(2025, 2, 1));
+
+        // When
+        portfolioAggregates.add(first);
+        portfolioAggregates.add(second);
+        portfolioAggregates.remove(first);
+
+        // Then
+        PortfolioAggregates.View view = portfolioAggregates.view();
+        assertThat(view.getHoldingCount()).isEqualTo(1);
+        assertThat(view.getPositions()).hasSize(1);
+        assertThat(view.getPositions().get(0).getQuantity()).isEqualByComparingTo("2");
+        assertThat(view.getCostBasisByAssetType().get("STOCK")).isEqualByComparingTo("340.00");
+    }
+
+    @Test
+    void testRemovingLastHoldingDropsPosition() {
+        // Given
+        Holding holding = new Holding("STOCK", "AAPL", new BigDecimal("10"), new BigDecimal("150.00"), LocalDate.of(2025, 1, 15));
+        portfolioAggregates.add(holding);
+
+        // When
+        portfolioAggregates.remove(holding);
+
+        // Then
+        assertThat(portfolioAggregates.view().getPositions()).isEmpty();
+        assertThat(portfolioAggregates.view().getHoldingCount()).isZero();
+    }
+}
@@ -0,0 +1,152 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PortfolioHistoryServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 5);
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private PriceSeriesStore priceSeriesStore;
+
+    @Mock
+    private HoldingService holdingService;
+
+    @Mock
+    private ExchangeRateProvider exchangeRateProvider;
+
+    @InjectMocks
+    private PortfolioHistoryService portfolioHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        when(exchangeRateProvider.getUsdToInrRate()).thenReturn(new BigDecimal("80"));
+        lenient().when(holdingService.getCurrencyCode("STOCK")).thenReturn("USD");
+        lenient().when(holdingService.getCurrencyCode("MUTUAL_FUND")).thenReturn("INR");
+        lenient().when(priceSeriesStore.get(anyString())).thenAnswer(invocation -> PriceSeries.empty(invocation.getArgument(0)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMergesSymbolsCarriesPricesForwardAndConvertsUsd() {
+        // Given
+        when(holdingRepository.findAll()).thenReturn(List.of(
+                holding("STOCK", "AAPL", "2", DAY.minusDays(10)),
+                holding("MUTUAL_FUND", "120503", "100", DAY.minusDays(10))));
+        when(priceSeriesStore.get("AAPL")).thenReturn(series("AAPL", new int[]{0, 2}, "10.00", "11.00"));
+        when(priceSeriesStore.get("120503")).thenReturn(series("120503", new int[]{0, 1}, "50.00", "52.00"));
+
+        // When
+        Map<String, Object> history = portfolioHistoryService.getPortfolioHistory(DAY, DAY.plusDays(5));
+
+        // Then
+        assertThat((List<String>) history.get("dates"))
+                .containsExactly(DAY.toString(), DAY.plusDays(1).toString(), DAY.plusDays(2).toString());
+        // 2 AAPL * $10 * 80 + 100 units * 50, then the fund moves, then AAPL
+        assertThat((List<BigDecimal>) history.get("values")).extracting(BigDecimal::doubleValue)
+                .containsExactly(6600.0, 6800.0, 6960.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testQuantityAppliesFromPurchaseDate() {
+        // Given
+        when(holdingRepository.findAll()).thenReturn(List.of(
+                holding("MUTUAL_FUND", "120503", "10", DAY.minusDays(30)),
+                holding("MUTUAL_FUND", "120503", "5", DAY.plusDays(1))));
+        when(priceSeriesStore.get("120503")).thenReturn(series("120503", new int[]{0, 2}, "100.00", "100.00"));
+
+        // When
+        Map<String, Object> history = portfolioHistoryService.getPortfolioHistory(DAY, DAY.plusDays(2));
+
+        // Then
+        assertThat((List<String>) history.get("dates"))
+                .containsExactly(DAY.toString(), DAY.plusDays(1).toString(), DAY.plusDays(2).toString());
+        assertThat((List<BigDecimal>) history.get("values")).extracting(BigDecimal::doubleValue)
+                .containsExactly(1000.0, 1500.0, 1500.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStockAndFundSharingACodeAreSeparatePositions() {
+        // Given - a stock and a fund scheme that happen to share the code "ABC"
+        when(holdingRepository.findAll()).thenReturn(List.of(
+                holding("STOCK", "ABC", "1", DAY.minusDays(10)),
+                holding("MUTUAL_FUND", "ABC", "10", DAY.plusDays(1))));
+        when(priceSeriesStore.get("ABC")).thenReturn(series("ABC", new int[]{0, 2}, "10.00", "12.00"));
+
+        // When
+        Map<String, Object> history = portfolioHistoryService.getPortfolioHistory(DAY, DAY.plusDays(2));
+
+        // Then - each position is priced on its own and in its own currency
+        assertThat((List<String>) history.get("dates"))
+                .containsExactly(DAY.toString(), DAY.plusDays(1).toString(), DAY.plusDays(2).toString());
+        // 1 share * $10 * 80, then 10 units * 10 join, then both move to 12
+        assertThat((List<BigDecimal>) history.get("values")).extracting(BigDecimal::doubleValue)
+                .containsExactly(800.0, 900.0, 1080.0);
+        verify(priceSeriesStore, times(2)).get("ABC");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRangeOpensWithValueCarriedFromBeforeIt() {
+        // Given
+        when(holdingRepository.findAll()).thenReturn(List.of(holding("MUTUAL_FUND", "120503", "10", DAY.minusDays(30))));
+        when(priceSeriesStore.get("120503")).thenReturn(series("120503", new int[]{-3, 4}, "100.00", "110.00"));
+
+        // When
+        Map<String, Object> history = portfolioHistoryService.getPortfolioHistory(DAY, DAY.plusDays(2));
+
+        // Then
+        assertThat((List<String>) history.get("dates")).containsExactly(DAY.toString());
+        assertThat((List<BigDecimal>) history.get("values")).extracting(BigDecimal::doubleValue).containsExactly(1000.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEmptyPortfolioHasEmptySeries() {
+        // Given
+        when(holdingRepository.findAll()).thenReturn(List.of());
+
+        // When
+        Map<String, Object> history = portfolioHistoryService.getPortfolioHistory(DAY, DAY.plusDays(2));
+
+        // Then
+        assertThat((List<String>) history.get("dates")).isEmpty();
+        assertThat(history.get("currency")).isEqualTo("INR");
+    }
+
+    private static Holding holding(String assetType, String symbol, String quantity, LocalDate purchaseDate) {
+        return new Holding(assetType, symbol, new BigDecimal(quantity), new BigDecimal("1.00"), purchaseDate);
+    }
+
+    private static PriceSeries series(String symbol, int[] offsets, String... prices) {
+        List<HistoricalPrice> points = new ArrayList<>();
+        for (int i = 0; i < offsets.length; i++) {
+            points.add(new HistoricalPrice(symbol, new BigDecimal(prices[i]), DAY.plusDays(offsets[i])));
+        }
+        return PriceSeries.empty(symbol).merge(points);
+    }
+}
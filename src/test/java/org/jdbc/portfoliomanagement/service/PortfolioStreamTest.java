@@ -0,0 +1,139 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PortfolioStreamTest {
+
+    @Mock
+    private HoldingService holdingService;
+
+    @Mock
+    private PerformanceIndex performanceIndex;
+
+    @InjectMocks
+    private PortfolioStream portfolioStream;
+
+    @Test
+    void testPayloadCarriesChangedHoldingsAndTotals() {
+        // Given
+        PerformanceIndex.Performer apple = new PerformanceIndex.Performer(1L, "STOCK", "AAPL", new BigDecimal("10"),
+                new BigDecimal("160.00"), new BigDecimal("100.00"), new BigDecimal("6.6700"), new BigDecimal("8900.00"));
+        when(performanceIndex.getRanked("STOCK", "AAPL")).thenReturn(List.of(apple));
+        Map<String, Object> totals = new HashMap<>();
+        totals.put("totalValue", new BigDecimal("142400.00"));
+        when(holdingService.getPortfolioSummary()).thenReturn(totals);
+
+        // When
+        Map<String, Object> payload = portfolioStream.buildPayload(
+                List.of(new QuoteUpdatedEvent("STOCK", "AAPL", new BigDecimal("160.00"))));
+
+        // Then
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> holdings = (List<Map<String, Object>>) payload.get("holdings");
+        assertThat(holdings).hasSize(1);
+        assertThat(holdings.get(0).get("id")).isEqualTo(1L);
+        assertThat((BigDecimal) holdings.get(0).get("currentValue")).isEqualByComparingTo("1600.00");
+        assertThat(payload.get("totals")).isEqualTo(totals);
+    }
+
+    @Test
+    void testQuoteUpdatesWithinOneTickAreCoalesced() {
+        // Given
+        when(performanceIndex.getRanked("STOCK", "AAPL")).thenReturn(List.of());
+        when(holdingService.getPortfolioSummary()).thenReturn(new HashMap<>());
+        portfolioStream.subscribe();
+
+        // When
+        portfolioStream.onQuoteUpdated(new QuoteUpdatedEvent("STOCK", "AAPL", new BigDecimal("160.00")));
+        portfolioStream.onQuoteUpdated(new QuoteUpdatedEvent("stock", "AAPL", new BigDecimal("161.00")));
+        portfolioStream.tick();
+        portfolioStream.tick();
+
+        // Then
+        // one valuation for the initial event on subscribe, one for the coalesced tick
+        verify(holdingService, times(2)).getPortfolioSummary();
+        verify(performanceIndex, times(1)).getRanked("STOCK", "AAPL");
+    }
+
+    @Test
+    void testNoValuationWithoutClients() {
+        // When
+        portfolioStream.onQuoteUpdated(new QuoteUpdatedEvent("STOCK", "AAPL", new BigDecimal("160.00")));
+        portfolioStream.tick();
+
+        // Then
+        verify(holdingService, never()).getPortfolioSummary();
+        assertThat(portfolioStream.getClientCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testClientsThatFailOrStallAreDropped() {
+        // Given
+        ReflectionTestUtils.setField(portfolioStream, "sendTimeoutMs", 200L);
+        when(performanceIndex.getRanked("STOCK", "AAPL")).thenReturn(List.of());
+        when(holdingService.getPortfolioSummary()).thenReturn(new HashMap<>());
+        portfolioStream.subscribe();
+        List<SseEmitter> clients = (List<SseEmitter>) ReflectionTestUtils.getField(portfolioStream, "clients");
+        clients.add(new StubEmitter(() -> {
+            throw new IOException("Broken pipe");
+        }));
+        clients.add(new StubEmitter(() -> Thread.sleep(10_000)));
+
+        // When
+        long start = System.nanoTime();
+        portfolioStream.onQuoteUpdated(new QuoteUpdatedEvent("STOCK", "AAPL", new BigDecimal("160.00")));
+        portfolioStream.tick();
+
+        // Then
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(portfolioStream.getClientCount()).isEqualTo(1);
+        portfolioStream.shutdown();
+    }
+
+    private interface Write {
+        void run() throws Exception;
+    }
+
+    private static final class StubEmitter extends SseEmitter {
+        private final Write write;
+
+        StubEmitter(Write write) {
+            this.write = write;
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            try {
+                write.run();
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
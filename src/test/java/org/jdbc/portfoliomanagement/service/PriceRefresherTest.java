@@ -0,0 +1,129 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PriceRefresherTest {
+
+    // Thursday 2026-01-15 10:00 in New York
+    private static final Instant MARKET_OPEN = Instant.parse("2026-01-15T15:00:00Z");
+    // Saturday 2026-01-17 10:00 in New York
+    private static final Instant WEEKEND = Instant.parse("2026-01-17T15:00:00Z");
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private HoldingService holdingService;
+
+    @Test
+    void testIsMarketOpenFollowsNewYorkSession() {
+        assertThat(PriceRefresher.isMarketOpen(MARKET_OPEN)).isTrue();
+        assertThat(PriceRefresher.isMarketOpen(Instant.parse("2026-01-15T14:29:00Z"))).isFalse();
+        assertThat(PriceRefresher.isMarketOpen(Instant.parse("2026-01-15T21:00:00Z"))).isFalse();
+        assertThat(PriceRefresher.isMarketOpen(WEEKEND)).isFalse();
+    }
+
+    @Test
+    void testRefreshesHeldSymbolsGroupedByAssetType() {
+        // Given
+        PriceRefresher refresher = refresher(MARKET_OPEN);
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{"AAPL", "STOCK"},
+                new Object[]{"MSFT", "stock"},
+                new Object[]{"120503", "MF"});
+        when(holdingRepository.findDistinctSymbolsAndAssetTypes()).thenReturn(rows);
+        when(holdingService.refreshQuotes(eq("STOCK"), anyCollection())).thenReturn(2);
+        when(holdingService.refreshQuotes(eq("MUTUAL_FUND"), anyCollection())).thenReturn(1);
+
+        // When
+        refresher.refreshDue();
+
+        // Then
+        verify(holdingService).refreshQuotes("STOCK", Set.of("AAPL", "MSFT"));
+        verify(holdingService).refreshQuotes("MUTUAL_FUND", Set.of("120503"));
+        assertThat(refresher.getStatus().get("lastStockCount")).isEqualTo(2);
+        assertThat(refresher.getStatus().get("lastMutualFundCount")).isEqualTo(1);
+    }
+
+    @Test
+    void testStocksRefreshOnShortCadenceWhileMarketIsOpen() {
+        // Given
+        QuoteCacheTest.MutableClock clock = new QuoteCacheTest.MutableClock(MARKET_OPEN);
+        PriceRefresher refresher = refresher(clock);
+        when(holdingRepository.findDistinctSymbolsAndAssetTypes()).thenReturn(List.<Object[]>of(new Object[]{"AAPL", "STOCK"}));
+
+        // When
+        refresher.refreshDue();
+        clock.advance(Duration.ofSeconds(10));
+        refresher.refreshDue();
+        clock.advance(Duration.ofSeconds(20));
+        refresher.refreshDue();
+
+        // Then
+        verify(holdingService, times(2)).refreshQuotes(eq("STOCK"), anyCollection());
+        verify(holdingService, times(1)).refreshQuotes(eq("MUTUAL_FUND"), anyCollection());
+    }
+
+    @Test
+    void testStocksRefreshOnLongCadenceWhileMarketIsClosed() {
+        // Given
+        QuoteCacheTest.MutableClock clock = new QuoteCacheTest.MutableClock(WEEKEND);
+        PriceRefresher refresher = refresher(clock);
+        when(holdingRepository.findDistinctSymbolsAndAssetTypes()).thenReturn(List.<Object[]>of(new Object[]{"AAPL", "STOCK"}));
+
+        // When
+        refresher.refreshDue();
+        clock.advance(Duration.ofMinutes(5));
+        refresher.refreshDue();
+
+        // Then
+        verify(holdingService, times(1)).refreshQuotes(eq("STOCK"), anyCollection());
+        assertThat(refresher.getStatus().get("stockIntervalMs")).isEqualTo(900_000L);
+    }
+
+    @Test
+    void testDisabledRefresherDoesNothing() {
+        // Given
+        PriceRefresher refresher = new PriceRefresher(false, 30_000, 900_000, 3_600_000,
+                new QuoteCacheTest.MutableClock(MARKET_OPEN));
+        ReflectionTestUtils.setField(refresher, "holdingRepository", holdingRepository);
+        ReflectionTestUtils.setField(refresher, "holdingService", holdingService);
+
+        // When
+        refresher.refreshDue();
+
+        // Then
+        verify(holdingRepository, never()).findDistinctSymbolsAndAssetTypes();
+    }
+
+    private PriceRefresher refresher(Instant now) {
+        return refresher(new QuoteCacheTest.MutableClock(now));
+    }
+
+    private PriceRefresher refresher(QuoteCacheTest.MutableClock clock) {
+        PriceRefresher refresher = new PriceRefresher(true, 30_000, 900_000, 3_600_000, clock);
+        ReflectionTestUtils.setField(refresher, "holdingRepository", holdingRepository);
+        ReflectionTestUtils.setField(refresher, "holdingService", holdingService);
+        return refresher;
+    }
+}
@@ -0,0 +1,126 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceSegmentTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testCreateAndReopenRoundTrips() throws IOException {
+        // Given
+        Path path = directory.resolve("AAPL.seg");
+        PriceSegment.create(path, series(0, 1, 2));
+
+        // When
+        PriceSegment reopened = PriceSegment.open(path, "AAPL");
+
+        // Then
+        assertThat(reopened.size()).isEqualTo(3);
+        assertThat(reopened.lastDate()).isEqualTo(START.plusDays(2));
+        PriceSeries read = reopened.read();
+        assertThat(read.date(1)).isEqualTo(START.plusDays(1));
+        assertThat(read.price(2)).isEqualTo(102.0);
+    }
+
+    @Test
+    void testAppendAfterLastDayIsVisibleAfterReopen() throws IOException {
+        // Given
+        Path path = directory.resolve("AAPL.seg");
+        PriceSegment segment = PriceSegment.create(path, series(0, 1));
+
+        // When
+        segment.append(List.of(point(3), point(2)));
+
+        // Then
+        PriceSegment reopened = PriceSegment.open(path, "AAPL");
+        assertThat(reopened.size()).isEqualTo(4);
+        assertThat(reopened.read().date(3)).isEqualTo(START.plusDays(3));
+    }
+
+    @Test
+    void testAppendCorrectionRewritesStoredDay() throws IOException {
+        // Given
+        Path path = directory.resolve("AAPL.seg");
+        PriceSegment segment = PriceSegment.create(path, series(0, 1, 2));
+
+        // When
+        segment.append(List.of(new HistoricalPrice("AAPL", new BigDecimal("99.50"), START.plusDays(1))));
+
+        // Then
+        PriceSeries read = PriceSegment.open(path, "AAPL").read();
+        assertThat(read.size()).isEqualTo(3);
+        assertThat(read.price(1)).isEqualTo(99.50);
+    }
+
+    @Test
+    void testAppendGrowsPastCapacity() throws IOException {
+        // Given
+        Path path = directory.resolve("AAPL.seg");
+        PriceSegment segment = PriceSegment.create(path, series(0));
+        List<HistoricalPrice> many = new ArrayList<>();
+        for (int day = 1; day < 1000; day++) {
+            many.add(point(day));
+        }
+
+        // When
+        segment.append(many);
+
+        // Then
+        assertThat(segment.size()).isEqualTo(1000);
+        assertThat(PriceSegment.open(path, "AAPL").lastDate()).isEqualTo(START.plusDays(999));
+    }
+
+    @Test
+    void testReadRangeUsesInclusiveBounds() throws IOException {
+        // Given
+        PriceSegment segment = PriceSegment.create(directory.resolve("AAPL.seg"), series(0, 2, 4, 6));
+
+        // When
+        PriceSeries range = segment.read(START.plusDays(1), START.plusDays(4));
+
+        // Then
+        assertThat(range.size()).isEqualTo(2);
+        assertThat(range.date(0)).isEqualTo(START.plusDays(2));
+        assertThat(range.date(1)).isEqualTo(START.plusDays(4));
+        assertThat(segment.read(START.plusDays(7), null).isEmpty()).isTrue();
+    }
+
+    @Test
+    void testOpenRejectsForeignFile() throws IOException {
+        // Given
+        Path path = directory.resolve("junk.seg");
+        Files.write(path, new byte[64]);
+
+        // When & Then
+        assertThatThrownBy(() -> PriceSegment.open(path, "junk")).isInstanceOf(IOException.class);
+    }
+
+    private static PriceSeries series(int... days) {
+        List<HistoricalPrice> points = new ArrayList<>();
+        for (int day : days) {
+            points.add(point(day));
+        }
+        return PriceSeries.empty("AAPL").merge(points);
+    }
+
+    private static HistoricalPrice point(int day) {
+        return new HistoricalPrice("AAPL", new BigDecimal(100 + day), START.plusDays(day));
+    }
+}
@@ -0,0 +1,182 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+import org.jdbc.portfoliomanagement.repository.HistoricalPriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceSeriesStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 1);
+
+    @Mock
+    private HistoricalPriceRepository historicalPriceRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    Path directory;
+
+    private PriceSegmentStore priceSegmentStore;
+
+    @BeforeEach
+    void setUp() {
+        priceSegmentStore = new PriceSegmentStore(true, directory.toString());
+    }
+
+    @Test
+    void testFirstLoadReadsDatabaseAndWritesSegment() {
+        // Given
+        when(historicalPriceRepository.findLatestPriceDate("AAPL")).thenReturn(DAY.plusDays(1));
+        when(historicalPriceRepository.findPriceSeries("AAPL")).thenReturn(List.of(
+                new Object[]{DAY, new BigDecimal("150.00")}, new Object[]{DAY.plusDays(1), new BigDecimal("151.00")}));
+
+        // When
+        PriceSeries series = newStore().get("AAPL");
+
+        // Then
+        assertThat(series.size()).isEqualTo(2);
+        assertThat(Files.exists(priceSegmentStore.pathFor("AAPL"))).isTrue();
+    }
+
+    @Test
+    void testUpToDateSegmentSkipsDatabaseRead() {
+        // Given
+        priceSegmentStore.write(PriceSeries.empty("AAPL").merge(List.of(
+                new HistoricalPrice("AAPL", new BigDecimal("150.00"), DAY))));
+        when(historicalPriceRepository.findLatestPriceDate("AAPL")).thenReturn(DAY);
+
+        // When
+        PriceSeries series = newStore().get("AAPL");
+
+        // Then
+        assertThat(series.size()).isEqualTo(1);
+        verify(historicalPriceRepository, never()).findPriceSeries(anyString());
+    }
+
+    @Test
+    void testStaleSegmentIsRebuiltFromDatabase() {
+        // Given
+        priceSegmentStore.write(PriceSeries.empty("AAPL").merge(List.of(
+                new HistoricalPrice("AAPL", new BigDecimal("150.00"), DAY))));
+        when(historicalPriceRepository.findLatestPriceDate("AAPL")).thenReturn(DAY.plusDays(1));
+        when(historicalPriceRepository.findPriceSeries("AAPL")).thenReturn(List.of(
+                new Object[]{DAY, new BigDecimal("150.00")}, new Object[]{DAY.plusDays(1), new BigDecimal("151.00")}));
+
+        // When
+        PriceSeries series = newStore().get("AAPL");
+
+        // Then
+        assertThat(series.size()).isEqualTo(2);
+        assertThat(priceSegmentStore.find("AAPL").lastDate()).isEqualTo(DAY.plusDays(1));
+    }
+
+    @Test
+    void testAppendWritesThroughToSegmentAndLoadedSeries() {
+        // Given
+        when(historicalPriceRepository.findLatestPriceDate("AAPL")).thenReturn(DAY);
+        when(historicalPriceRepository.findPriceSeries("AAPL")).thenReturn(List.<Object[]>of(
+                new Object[]{DAY, new BigDecimal("150.00")}));
+        PriceSeriesStore store = newStore();
+        store.get("AAPL");
+
+        // When
+        store.append(List.of(new HistoricalPrice("AAPL", new BigDecimal("152.00"), DAY.plusDays(1))));
+
+        // Then
+        assertThat(store.get("AAPL").size()).isEqualTo(2);
+        assertThat(priceSegmentStore.find("AAPL").lastDate()).isEqualTo(DAY.plusDays(1));
+    }
+
+    @Test
+    void testAppendPublishesUpdatedSymbols() {
+        // Given
+        PriceSeriesStore store = newStore();
+        ReflectionTestUtils.setField(store, "eventPublisher", eventPublisher);
+
+        // When
+        store.append(List.of(
+                new HistoricalPrice("AAPL", new BigDecimal("152.00"), DAY),
+                new HistoricalPrice("MSFT", new BigDecimal("410.00"), DAY)));
+
+        // Then
+        ArgumentCaptor<PriceHistoryUpdatedEvent> event = ArgumentCaptor.forClass(PriceHistoryUpdatedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getSymbols()).containsExactlyInAnyOrder("AAPL", "MSFT");
+    }
+
+    @Test
+    void testLeastRecentlyReadSeriesIsEvicted() {
+        // Given
+        when(historicalPriceRepository.findPriceSeries(anyString())).thenReturn(List.<Object[]>of(
+                new Object[]{DAY, new BigDecimal("150.00")}));
+        when(historicalPriceRepository.findLatestPriceDate(anyString())).thenReturn(DAY);
+        PriceSeriesStore store = newStore(2);
+        store.get("AAPL");
+        store.get("MSFT");
+        store.get("AAPL");
+
+        // When
+        store.get("NVDA");
+        store.get("AAPL");
+        store.get("MSFT");
+
+        // Then - MSFT was evicted and loaded again from its segment, AAPL stayed cached
+        assertThat(store.size()).isEqualTo(2);
+        verify(historicalPriceRepository, times(1)).findLatestPriceDate("AAPL");
+        verify(historicalPriceRepository, times(2)).findLatestPriceDate("MSFT");
+        verify(historicalPriceRepository, times(1)).findPriceSeries("MSFT");
+    }
+
+    @Test
+    void testLoadThatRacedAnAppendIsNotCached() {
+        // Given - prices for AAPL are stored while its first load is reading the database
+        PriceSeriesStore store = newStore();
+        when(historicalPriceRepository.findLatestPriceDate("AAPL")).thenReturn(DAY, DAY.plusDays(1));
+        when(historicalPriceRepository.findPriceSeries("AAPL"))
+                .thenAnswer(invocation -> {
+                    store.append(List.of(new HistoricalPrice("AAPL", new BigDecimal("152.00"), DAY.plusDays(1))));
+                    return List.<Object[]>of(new Object[]{DAY, new BigDecimal("150.00")});
+                })
+                .thenReturn(List.of(new Object[]{DAY, new BigDecimal("150.00")},
+                        new Object[]{DAY.plusDays(1), new BigDecimal("152.00")}));
+
+        // When
+        PriceSeries first = store.get("AAPL");
+        PriceSeries second = store.get("AAPL");
+
+        // Then
+        assertThat(first.size()).isEqualTo(1);
+        assertThat(second.size()).isEqualTo(2);
+        verify(historicalPriceRepository, times(2)).findPriceSeries("AAPL");
+    }
+
+    private PriceSeriesStore newStore() {
+        return newStore(500);
+    }
+
+    private PriceSeriesStore newStore(int maxSymbols) {
+        PriceSeriesStore store = new PriceSeriesStore(maxSymbols);
+        ReflectionTestUtils.setField(store, "historicalPriceRepository", historicalPriceRepository);
+        ReflectionTestUtils.setField(store, "priceSegmentStore", priceSegmentStore);
+        return store;
+    }
+}
@@ -0,0 +1,92 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceSeriesTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    @Test
+    void testMergeAppendsAfterLastDay() {
+        // Given
+        PriceSeries series = PriceSeries.empty("AAPL").merge(List.of(point(0, "100.00"), point(1, "101.00")));
+
+        // When
+        PriceSeries merged = series.merge(List.of(point(3, "103.00"), point(2, "102.00")));
+
+        // Then
+        assertThat(merged.size()).isEqualTo(4);
+        assertThat(merged.date(2)).isEqualTo(START.plusDays(2));
+        assertThat(merged.price(3)).isEqualTo(103.00);
+        assertThat(series.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testMergeReplacesExistingDayAndInsertsGaps() {
+        // Given
+        PriceSeries series = PriceSeries.empty("AAPL").merge(List.of(point(0, "100.00"), point(4, "104.00")));
+
+        // When
+        PriceSeries merged = series.merge(List.of(point(4, "110.00"), point(2, "102.00"), point(2, "102.50")));
+
+        // Then
+        assertThat(merged.size()).isEqualTo(3);
+        assertThat(merged.date(1)).isEqualTo(START.plusDays(2));
+        assertThat(merged.price(1)).isEqualTo(102.50);
+        assertThat(merged.price(2)).isEqualTo(110.00);
+    }
+
+    @Test
+    void testRangeUsesInclusiveBounds() {
+        // Given
+        PriceSeries series = PriceSeries.empty("AAPL").merge(List.of(
+                point(0, "100.00"), point(2, "102.00"), point(4, "104.00"), point(6, "106.00")));
+
+        // When & Then
+        assertThat(series.range(START.plusDays(2), START.plusDays(4)).toHistoricalPrices())
+                .extracting(HistoricalPrice::getPriceDate)
+                .containsExactly(START.plusDays(2), START.plusDays(4));
+        assertThat(series.range(START.plusDays(1), START.plusDays(5)).size()).isEqualTo(2);
+        assertThat(series.range(null, START.plusDays(3)).size()).isEqualTo(2);
+        assertThat(series.range(START.plusDays(7), null).isEmpty()).isTrue();
+        assertThat(series.range(null, null)).isSameAs(series);
+    }
+
+    @Test
+    void testFloorAndCeilingIndex() {
+        // Given
+        PriceSeries series = PriceSeries.empty("AAPL").merge(List.of(point(2, "102.00"), point(4, "104.00")));
+        int day = (int) START.toEpochDay();
+
+        // When & Then
+        assertThat(series.floorIndex(day + 1)).isEqualTo(-1);
+        assertThat(series.floorIndex(day + 3)).isEqualTo(0);
+        assertThat(series.floorIndex(day + 4)).isEqualTo(1);
+        assertThat(series.ceilingIndex(day + 3)).isEqualTo(1);
+        assertThat(series.ceilingIndex(day + 5)).isEqualTo(2);
+    }
+
+    @Test
+    void testToHistoricalPricesKeepsColumnScale() {
+        // Given
+        PriceSeries series = PriceSeries.empty("120503").merge(List.of(point(0, "45.1234")));
+
+        // When
+        HistoricalPrice price = series.toHistoricalPrices().get(0);
+
+        // Then
+        assertThat(price.getSymbol()).isEqualTo("120503");
+        assertThat(price.getPrice()).isEqualTo(new BigDecimal("45.12"));
+    }
+
+    private static HistoricalPrice point(int day, String price) {
+        return new HistoricalPrice("AAPL", new BigDecimal(price), START.plusDays(day));
+    }
+}
@@ -0,0 +1,249 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteCacheTest {
+
+    private MutableClock clock;
+    private QuoteCache quoteCache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-15T10:00:00Z"));
+        quoteCache = new QuoteCache(Duration.ofSeconds(30), Duration.ofHours(6), 2, clock);
+    }
+
+    @Test
+    void testSecondLookupIsServedFromCache() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        BigDecimal first = quoteCache.get("STOCK", "AAPL", () -> {
+            loads.incrementAndGet();
+            return new BigDecimal("160.00");
+        });
+        BigDecimal second = quoteCache.get("STOCK", "AAPL", () -> {
+            loads.incrementAndGet();
+            return new BigDecimal("999.00");
+        });
+
+        // Then
+        assertThat(first).isEqualByComparingTo("160.00");
+        assertThat(second).isEqualByComparingTo("160.00");
+        assertThat(loads.get()).isEqualTo(1);
+
+        Map<String, Object> stats = quoteCache.getStats();
+        assertThat(stats.get("hits")).isEqualTo(1L);
+        assertThat(stats.get("misses")).isEqualTo(1L);
+    }
+
+    @Test
+    void testStockQuoteExpiresAfterTtl() {
+        // Given
+        quoteCache.get("STOCK", "AAPL", () -> new BigDecimal("160.00"));
+
+        // When
+        clock.advance(Duration.ofSeconds(31));
+        BigDecimal price = quoteCache.get("STOCK", "AAPL", () -> new BigDecimal("161.00"));
+
+        // Then
+        assertThat(price).isEqualByComparingTo("161.00");
+    }
+
+    @Test
+    void testMutualFundQuoteUsesLongerTtl() {
+        // Given
+        quoteCache.get("MF", "120503", () -> new BigDecimal("45.10"));
+
+        // When
+        clock.advance(Duration.ofHours(1));
+        BigDecimal price = quoteCache.get("MUTUAL_FUND", "120503", () -> new BigDecimal("46.00"));
+
+        // Then
+        assertThat(price).isEqualByComparingTo("45.10");
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        // Given
+        quoteCache.get("STOCK", "AAPL", () -> new BigDecimal("160.00"));
+        quoteCache.get("STOCK", "MSFT", () -> new BigDecimal("400.00"));
+        quoteCache.get("STOCK", "AAPL", () -> BigDecimal.ONE); // touch AAPL
+
+        // When
+        quoteCache.get("STOCK", "GOOGL", () -> new BigDecimal("180.00"));
+
+        // Then
+        assertThat(quoteCache.get("STOCK", "AAPL", () -> BigDecimal.ONE)).isEqualByComparingTo("160.00");
+        assertThat(quoteCache.get("STOCK", "MSFT", () -> BigDecimal.ONE)).isEqualByComparingTo("1");
+        assertThat(quoteCache.getStats().get("evictions")).isEqualTo(2L);
+    }
+
+    @Test
+    void testZeroPriceIsNotCached() {
+        // Given
+        quoteCache.get("STOCK", "AAPL", () -> BigDecimal.ZERO);
+
+        // When
+        BigDecimal price = quoteCache.get("STOCK", "AAPL", () -> new BigDecimal("160.00"));
+
+        // Then
+        assertThat(price).isEqualByComparingTo("160.00");
+    }
+
+    @Test
+    void testGetAllLoadsOnlyMissingSymbolsInOneBatch() {
+        // Given
+        quoteCache.get("STOCK", "AAPL", () -> new BigDecimal("160.00"));
+        List<Collection<String>> batches = new ArrayList<>();
+
+        // When
+        Map<String, BigDecimal> prices = quoteCache.getAll("STOCK", List.of("AAPL", "MSFT", "NOPE"), missing -> {
+            batches.add(missing);
+            return Map.of("MSFT", new BigDecimal("400.00"));
+        });
+
+        // Then
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsExactly("MSFT", "NOPE");
+        assertThat(prices).containsOnlyKeys("AAPL", "MSFT");
+        assertThat(quoteCache.get("STOCK", "MSFT", () -> BigDecimal.ONE)).isEqualByComparingTo("400.00");
+    }
+
+    @Test
+    void testGetAsyncOnlySubscribesToLoaderOnMiss() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        Mono<BigDecimal> loader = Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return new BigDecimal("160.00");
+        });
+
+        // When
+        BigDecimal first = quoteCache.getAsync("STOCK", "AAPL", () -> loader).block();
+        BigDecimal second = quoteCache.getAsync("STOCK", "AAPL", () -> loader).block();
+
+        // Then
+        assertThat(first).isEqualByComparingTo("160.00");
+        assertThat(second).isEqualByComparingTo("160.00");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testStoredQuotesArePublished() {
+        // Given
+        List<Object> events = new ArrayList<>();
+        ReflectionTestUtils.setField(quoteCache, "eventPublisher", (ApplicationEventPublisher) events::add);
+
+        // When
+        quoteCache.get("MF", "120503", () -> new BigDecimal("45.10"));
+        quoteCache.get("STOCK", "AAPL", () -> BigDecimal.ZERO);
+
+        // Then
+        assertThat(events).hasSize(1);
+        QuoteUpdatedEvent event = (QuoteUpdatedEvent) events.get(0);
+        assertThat(event.getAssetType()).isEqualTo("MUTUAL_FUND");
+        assertThat(event.getSymbol()).isEqualTo("120503");
+        assertThat(event.getPrice()).isEqualByComparingTo("45.10");
+    }
+
+    @Test
+    void testUnchangedPriceIsNotPublishedAgain() {
+        // Given
+        List<Object> events = new ArrayList<>();
+        ReflectionTestUtils.setField(quoteCache, "eventPublisher", (ApplicationEventPublisher) events::add);
+        quoteCache.put("STOCK", "AAPL", new BigDecimal("160.00"));
+
+        // When - a refresh after the TTL confirms the price, then it moves
+        clock.advance(Duration.ofMinutes(15));
+        quoteCache.put("STOCK", "AAPL", new BigDecimal("160.0"));
+        quoteCache.put("STOCK", "AAPL", new BigDecimal("161.00"));
+
+        // Then
+        assertThat(events).extracting(event -> ((QuoteUpdatedEvent) event).getPrice())
+                .containsExactly(new BigDecimal("160.00"), new BigDecimal("161.00"));
+        assertThat(quoteCache.peek("STOCK", "AAPL")).isEqualByComparingTo("161.00");
+    }
+
+    @Test
+    void testGetLatestServesStaleQuoteWithinMaxStale() {
+        // Given
+        quoteCache = new QuoteCache(Duration.ofSeconds(30), Duration.ofHours(6), 2, Duration.ofHours(1), clock);
+        quoteCache.put("STOCK", "AAPL", new BigDecimal("160.00"));
+
+        // When
+        clock.advance(Duration.ofMinutes(10));
+        BigDecimal stale = quoteCache.getLatest("STOCK", "AAPL");
+        BigDecimal expired = quoteCache.peek("STOCK", "AAPL");
+        clock.advance(Duration.ofHours(1));
+        BigDecimal tooOld = quoteCache.getLatest("STOCK", "AAPL");
+
+        // Then
+        assertThat(stale).isEqualByComparingTo("160.00");
+        assertThat(expired).isNull();
+        assertThat(tooOld).isNull();
+        assertThat(quoteCache.getStats().get("staleHits")).isEqualTo(1L);
+        assertThat(quoteCache.getStats().get("size")).isEqualTo(0);
+    }
+
+    @Test
+    void testPutReplacesCachedQuote() {
+        // Given
+        quoteCache.put("MF", "120503", new BigDecimal("45.10"));
+
+        // When
+        boolean stored = quoteCache.put("MUTUAL_FUND", "120503", new BigDecimal("45.30"));
+        boolean rejected = quoteCache.put("MUTUAL_FUND", "120503", BigDecimal.ZERO);
+
+        // Then
+        assertThat(stored).isTrue();
+        assertThat(rejected).isFalse();
+        assertThat(quoteCache.getLatest("MUTUAL_FUND", "120503")).isEqualByComparingTo("45.30");
+    }
+
+    static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
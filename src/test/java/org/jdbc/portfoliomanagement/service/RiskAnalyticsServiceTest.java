@@ -0,0 +1,193 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.jdbc.portfoliomanagement.entity.HistoricalPrice;
+import org.jdbc.portfoliomanagement.entity.Holding;
+import org.jdbc.portfoliomanagement.repository.HoldingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RiskAnalyticsServiceTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2026, 6, 30);
+
+    @Mock
+    private HoldingRepository holdingRepository;
+
+    @Mock
+    private PriceSeriesStore priceSeriesStore;
+
+    @Mock
+    private HoldingService holdingService;
+
+    @Mock
+    private ExchangeRateProvider exchangeRateProvider;
+
+    @InjectMocks
+    private RiskAnalyticsService riskAnalyticsService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(riskAnalyticsService, "lookbackDays", 365);
+        ReflectionTestUtils.setField(riskAnalyticsService, "minObservations", 20);
+        ReflectionTestUtils.setField(riskAnalyticsService, "riskFreeRate", 0.05);
+        ReflectionTestUtils.setField(riskAnalyticsService, "benchmarkSymbol", "^GSPC");
+        when(exchangeRateProvider.getUsdToInrRate()).thenReturn(new BigDecimal("80"));
+        lenient().when(holdingService.getCurrencyCode("STOCK")).thenReturn("USD");
+        lenient().when(holdingService.getCurrencyCode("MUTUAL_FUND")).thenReturn("INR");
+        lenient().when(priceSeriesStore.get(anyString())).thenAnswer(invocation -> PriceSeries.empty(invocation.getArgument(0)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testVolatilityBetaAndWeights() {
+        // Given - LEVERED moves twice as much as the benchmark, STEADY never moves
+        when(holdingRepository.findAll()).thenReturn(List.of(
+                new Holding("STOCK", "LEVERED", new BigDecimal("1"), new BigDecimal("1"), AS_OF.minusYears(1)),
+                new Holding("MUTUAL_FUND", "STEADY", new BigDecimal("80"), new BigDecimal("1"), AS_OF.minusYears(1))));
+        when(priceSeriesStore.get("^GSPC")).thenReturn(series("^GSPC", 60, day -> 100 * (1 + 0.01 * (day % 2 == 0 ? 1 : -1))));
+        when(priceSeriesStore.get("LEVERED")).thenReturn(series("LEVERED", 60, day -> 100 * (1 + 0.02 * (day % 2 == 0 ? 1 : -1))));
+        when(priceSeriesStore.get("STEADY")).thenReturn(series("STEADY", 60, day -> 100));
+
+        // When
+        Map<String, Object> report = riskAnalyticsService.getRiskAnalytics(AS_OF, true);
+
+        // Then
+        List<Map<String, Object>> holdings = (List<Map<String, Object>>) report.get("holdings");
+        assertThat(holdings).hasSize(2);
+        Map<String, Object> levered = holdings.get(0);
+        assertThat(levered.get("symbol")).isEqualTo("LEVERED");
+        // 1 share * $~100 * 80 vs 80 units * 100 INR
+        assertThat(((BigDecimal) levered.get("weight")).doubleValue()).isBetween(0.49, 0.51);
+        assertThat(((BigDecimal) levered.get("beta")).doubleValue()).isBetween(1.9, 2.1);
+        assertThat(((BigDecimal) holdings.get(1).get("annualizedVolatility")).doubleValue()).isZero();
+
+        Map<String, Object> portfolio = (Map<String, Object>) report.get("portfolio");
+        assertThat(((BigDecimal) portfolio.get("beta")).doubleValue()).isBetween(0.95, 1.05);
+        assertThat(((BigDecimal) portfolio.get("annualizedVolatility")).doubleValue()).isGreaterThan(0);
+        assertThat(portfolio.get("sharpeRatio")).isNotNull();
+        assertThat((List<String>) report.get("symbols")).containsExactly("LEVERED", "STEADY", "^GSPC");
+        assertThat((double[][]) report.get("covariance")).hasNumberOfRows(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSymbolsWithShortHistoryAreExcluded() {
+        // Given
+        when(holdingRepository.findAll()).thenReturn(List.of(
+                new Holding("MUTUAL_FUND", "OLD", new BigDecimal("10"), new BigDecimal("1"), AS_OF.minusYears(1)),
+                new Holding("MUTUAL_FUND", "NEW", new BigDecimal("10"), new BigDecimal("1"), AS_OF.minusDays(5))));
+        when(priceSeriesStore.get("OLD")).thenReturn(series("OLD", 40, day -> 100 + day));
+        when(priceSeriesStore.get("NEW")).thenReturn(series("NEW", 5, day -> 100));
+
+        // When
+        Map<String, Object> report = riskAnalyticsService.getRiskAnalytics(AS_OF, false);
+
+        // Then
+        assertThat((List<String>) report.get("excluded")).containsExactly("NEW");
+        assertThat((List<Map<String, Object>>) report.get("holdings")).extracting(row -> row.get("symbol")).containsExactly("OLD");
+        assertThat(report).doesNotContainKey("covariance");
+        assertThat(((Map<String, Object>) report.get("portfolio"))).doesNotContainKey("beta");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testYoungSymbolDoesNotShortenTheWindowOfOthers() {
+        // Given - two symbols with most of a year of history and one with 25 days
+        when(holdingRepository.findAll()).thenReturn(List.of(
+                new Holding("MUTUAL_FUND", "LONG", new BigDecimal("10"), new BigDecimal("1"), AS_OF.minusYears(1)),
+                new Holding("MUTUAL_FUND", "LONGER", new BigDecimal("10"), new BigDecimal("1"), AS_OF.minusYears(1)),
+                new Holding("MUTUAL_FUND", "YOUNG", new BigDecimal("10"), new BigDecimal("1"), AS_OF.minusDays(25))));
+        when(priceSeriesStore.get("LONG")).thenReturn(series("LONG", 300, day -> 100 + day % 3));
+        when(priceSeriesStore.get("LONGER")).thenReturn(series("LONGER", 320, day -> 50 + day % 5));
+        when(priceSeriesStore.get("YOUNG")).thenReturn(series("YOUNG", 25, day -> 10 + day % 2));
+
+        // When
+        Map<String, Object> report = riskAnalyticsService.getRiskAnalytics(AS_OF, false);
+
+        // Then
+        assertThat((List<String>) report.get("excluded")).containsExactly("YOUNG");
+        assertThat(report.get("observations")).isEqualTo(299);
+        assertThat(report.get("from")).isEqualTo(AS_OF.minusDays(299).toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMostlyYoungPortfolioKeepsItsSymbols() {
+        // Given - one old symbol next to three with about a month of history
+        when(holdingRepository.findAll()).thenReturn(List.of(
+                new Holding("MUTUAL_FUND", "OLD", new BigDecimal("10"), new BigDecimal("1"), AS_OF.minusYears(1)),
+                new Holding("MUTUAL_FUND", "A", new BigDecimal("10"), new BigDecimal("1"), AS_OF.minusDays(30)),
+                new Holding("MUTUAL_FUND", "B", new BigDecimal("10"), new BigDecimal("1"), AS_OF.minusDays(30)),
+                new Holding("MUTUAL_FUND", "C", new BigDecimal("10"), new BigDecimal("1"), AS_OF.minusDays(30))));
+        when(priceSeriesStore.get("OLD")).thenReturn(series("OLD", 100, day -> 100 + day % 3));
+        for (String symbol : List.of("A", "B", "C")) {
+            when(priceSeriesStore.get(symbol)).thenReturn(series(symbol, 30, day -> 10 + day % 2));
+        }
+
+        // When
+        Map<String, Object> report = riskAnalyticsService.getRiskAnalytics(AS_OF, false);
+
+        // Then
+        assertThat((List<String>) report.get("excluded")).isEmpty();
+        assertThat(report.get("observations")).isEqualTo(29);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStockAndFundSharingACodeStaySeparate() {
+        // Given - a stock and a fund scheme that happen to share the code "ABC"
+        when(holdingRepository.findAll()).thenReturn(List.of(
+                new Holding("STOCK", "ABC", new BigDecimal("1"), new BigDecimal("1"), AS_OF.minusYears(1)),
+                new Holding("MUTUAL_FUND", "ABC", new BigDecimal("80"), new BigDecimal("1"), AS_OF.minusYears(1)),
+                new Holding("STOCK", "ABC", new BigDecimal("1"), new BigDecimal("1"), AS_OF.minusYears(1))));
+        when(priceSeriesStore.get("ABC")).thenReturn(series("ABC", 60, day -> 100 + day % 3));
+
+        // When
+        Map<String, Object> report = riskAnalyticsService.getRiskAnalytics(AS_OF, false);
+
+        // Then - two stock lots merge, the fund stays its own row
+        List<Map<String, Object>> holdings = (List<Map<String, Object>>) report.get("holdings");
+        assertThat(holdings).extracting(row -> row.get("assetType")).containsExactly("STOCK", "MUTUAL_FUND");
+        assertThat(holdings).extracting(row -> row.get("symbol")).containsExactly("ABC", "ABC");
+        // 2 shares * 80 INR per USD vs 80 units
+        assertThat(((BigDecimal) holdings.get(0).get("weight")).doubleValue()).isBetween(0.66, 0.67);
+    }
+
+    @Test
+    void testEmptyPortfolio() {
+        // Given
+        when(holdingRepository.findAll()).thenReturn(List.of());
+
+        // When
+        Map<String, Object> report = riskAnalyticsService.getRiskAnalytics(AS_OF, false);
+
+        // Then
+        assertThat(report.get("observations")).isEqualTo(0);
+        assertThat(report).doesNotContainKey("portfolio");
+    }
+
+    private static PriceSeries series(String symbol, int days, IntToDoubleFunction price) {
+        List<HistoricalPrice> points = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            points.add(new HistoricalPrice(symbol, BigDecimal.valueOf(price.applyAsDouble(day)), AS_OF.minusDays(days - 1 - day)));
+        }
+        return PriceSeries.empty(symbol).merge(points);
+    }
+}
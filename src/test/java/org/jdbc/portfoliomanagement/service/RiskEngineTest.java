@@ -0,0 +1,97 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RiskEngineTest {
+
+    @Test
+    void testReturns() {
+        // When
+        double[] returns = RiskEngine.returns(new double[]{100, 110, 99});
+
+        // Then
+        assertThat(returns).containsExactly(new double[]{0.10, -0.10}, within(1e-12));
+    }
+
+    @Test
+    void testCovarianceOfTwoSeries() {
+        // Given
+        double[][] returns = {
+                {0.01, 0.02, 0.03, 0.04},
+                {0.02, 0.04, 0.06, 0.08}};
+
+        // When
+        double[][] covariance = RiskEngine.covariance(returns, ForkJoinPool.commonPool());
+
+        // Then
+        double variance = (0.015 * 0.015 + 0.005 * 0.005) * 2 / 3;
+        assertThat(covariance[0][0]).isCloseTo(variance, within(1e-12));
+        assertThat(covariance[0][1]).isCloseTo(2 * variance, within(1e-12));
+        assertThat(covariance[1][0]).isCloseTo(2 * variance, within(1e-12));
+        assertThat(covariance[1][1]).isCloseTo(4 * variance, within(1e-12));
+    }
+
+    @Test
+    void testParallelBlocksMatchNaiveCovariance() {
+        // Given - enough assets to span several blocks, including partial ones
+        int assets = RiskEngine.BLOCK_SIZE * 2 + 17;
+        int days = 120;
+        SplittableRandom random = new SplittableRandom(42);
+        double[][] returns = new double[assets][days];
+        for (int i = 0; i < assets; i++) {
+            for (int t = 0; t < days; t++) {
+                returns[i][t] = random.nextGaussian() * 0.02;
+            }
+        }
+
+        // When
+        double[][] covariance = RiskEngine.covariance(returns, ForkJoinPool.commonPool());
+
+        // Then
+        double[] means = RiskEngine.means(returns);
+        for (int i = 0; i < assets; i += 7) {
+            for (int j = 0; j < assets; j += 5) {
+                double sum = 0;
+                for (int t = 0; t < days; t++) {
+                    sum += (returns[i][t] - means[i]) * (returns[j][t] - means[j]);
+                }
+                assertThat(covariance[i][j]).isCloseTo(sum / (days - 1), within(1e-15));
+            }
+        }
+    }
+
+    @Test
+    void testPortfolioVarianceAndAnnualization() {
+        // Given
+        double[][] covariance = {{0.0004, 0.0001}, {0.0001, 0.0009}};
+
+        // When
+        double variance = RiskEngine.portfolioVariance(covariance, new double[]{0.5, 0.5});
+
+        // Then
+        assertThat(variance).isCloseTo(0.25 * 0.0004 + 0.25 * 0.0009 + 2 * 0.25 * 0.0001, within(1e-15));
+        assertThat(RiskEngine.annualizeVolatility(0.0001)).isCloseTo(Math.sqrt(0.0001 * 252), within(1e-12));
+    }
+
+    @Test
+    void testCorrelationFromCovariance() {
+        // Given - the third asset never moves
+        double[][] covariance = {{0.0004, 0.0003, 0}, {0.0003, 0.0009, 0}, {0, 0, 0}};
+
+        // When
+        double[][] correlation = RiskEngine.correlation(covariance);
+
+        // Then
+        assertThat(correlation[0][0]).isEqualTo(1);
+        assertThat(correlation[0][1]).isCloseTo(0.0003 / (0.02 * 0.03), within(1e-12));
+        assertThat(correlation[1][0]).isEqualTo(correlation[0][1]);
+        assertThat(correlation[0][2]).isZero();
+        assertThat(correlation[2][2]).isEqualTo(1);
+    }
+}
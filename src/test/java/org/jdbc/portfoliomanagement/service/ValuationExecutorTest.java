@@ -0,0 +1,102 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValuationExecutorTest {
+
+    private ValuationExecutor valuationExecutor;
+
+    @AfterEach
+    void tearDown() {
+        if (valuationExecutor != null) {
+            valuationExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void testResultsKeepInputOrder() {
+        // Given
+        valuationExecutor = new ValuationExecutor(4, 5000);
+        List<Integer> items = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+
+        // When
+        List<Integer> results = valuationExecutor.mapInOrder(items, item -> "host", item -> {
+            sleep((20 - item) * 5L); // later items finish first
+            return item * 10;
+        }, -1);
+
+        // Then
+        assertThat(results).containsExactlyElementsOf(
+                IntStream.range(0, 20).map(i -> i * 10).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    void testConcurrencyIsCappedPerHost() {
+        // Given
+        valuationExecutor = new ValuationExecutor(2, 5000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> items = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+
+        // When
+        valuationExecutor.mapInOrder(items, item -> "yahoo", item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+            return item;
+        }, -1);
+
+        // Then
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void testTasksMissingDeadlineGetFallback() {
+        // Given
+        valuationExecutor = new ValuationExecutor(4, 100);
+
+        // When
+        List<String> results = valuationExecutor.mapInOrder(List.of("fast", "slow"), item -> "host", item -> {
+            if ("slow".equals(item)) {
+                sleep(2000);
+            }
+            return item.toUpperCase();
+        }, "TIMEOUT");
+
+        // Then
+        assertThat(results).containsExactly("FAST", "TIMEOUT");
+    }
+
+    @Test
+    void testFailedTaskGetsFallback() {
+        // Given
+        valuationExecutor = new ValuationExecutor(4, 5000);
+
+        // When
+        List<String> results = valuationExecutor.mapInOrder(List.of("ok", "boom"), item -> "host", item -> {
+            if ("boom".equals(item)) {
+                throw new IllegalStateException("upstream error");
+            }
+            return item;
+        }, "FALLBACK");
+
+        // Then
+        assertThat(results).containsExactly("ok", "FALLBACK");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
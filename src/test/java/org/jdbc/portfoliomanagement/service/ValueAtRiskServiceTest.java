@@ -0,0 +1,139 @@
+package org.jdbc.portfoliomanagement.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ValueAtRiskServiceTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2026, 6, 30);
+
+    @Mock
+    private RiskAnalyticsService riskAnalyticsService;
+
+    @InjectMocks
+    private ValueAtRiskService valueAtRiskService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(valueAtRiskService, "defaultPaths", 20_000);
+        ReflectionTestUtils.setField(valueAtRiskService, "maxPaths", 1_000_000);
+        ReflectionTestUtils.setField(valueAtRiskService, "defaultHorizons", new int[]{1, 10});
+        ReflectionTestUtils.setField(valueAtRiskService, "maxHorizonDays", 250);
+        ReflectionTestUtils.setField(valueAtRiskService, "maxHorizons", 5);
+        ReflectionTestUtils.setField(valueAtRiskService, "maxPathDays", 50_000_000L);
+        ReflectionTestUtils.setField(valueAtRiskService, "parallelism", 2);
+        ReflectionTestUtils.setField(valueAtRiskService, "defaultSeed", "");
+        valueAtRiskService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        valueAtRiskService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReportsVarAndCvarPerHorizonAndIsReproducible() {
+        // Given
+        when(riskAnalyticsService.buildReturnMatrix(AS_OF)).thenReturn(matrix(false));
+
+        // When
+        Map<String, Object> first = valueAtRiskService.getValueAtRisk(AS_OF, null, null, 11L);
+        Map<String, Object> second = valueAtRiskService.getValueAtRisk(AS_OF, null, null, 11L);
+
+        // Then
+        assertThat(first.get("horizons")).isEqualTo(second.get("horizons"));
+        List<Map<String, Object>> horizons = (List<Map<String, Object>>) first.get("horizons");
+        assertThat(horizons).extracting(h -> h.get("horizonDays")).containsExactly(1, 10);
+        for (Map<String, Object> horizon : horizons) {
+            BigDecimal var95 = (BigDecimal) horizon.get("var95");
+            BigDecimal var99 = (BigDecimal) horizon.get("var99");
+            BigDecimal cvar99 = (BigDecimal) horizon.get("cvar99");
+            assertThat(var95).isPositive();
+            assertThat(var99).isGreaterThan(var95);
+            assertThat(cvar99).isGreaterThanOrEqualTo(var99);
+        }
+        // ten days of risk is roughly sqrt(10) times one day
+        double ratio = ((BigDecimal) horizons.get(1).get("var99")).doubleValue()
+                / ((BigDecimal) horizons.get(0).get("var99")).doubleValue();
+        assertThat(ratio).isBetween(2.5, 3.8);
+        assertThat((BigDecimal) horizons.get(0).get("var99Inr")).isPositive();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBenchmarkOnlyRowIsLeftOut() {
+        // Given
+        when(riskAnalyticsService.buildReturnMatrix(AS_OF)).thenReturn(matrix(true));
+
+        // When
+        Map<String, Object> report = valueAtRiskService.getValueAtRisk(AS_OF, 5000, List.of(1), 3L);
+
+        // Then
+        assertThat((List<Map<String, Object>>) report.get("horizons")).hasSize(1);
+        assertThat(report.get("coveredValue")).isEqualTo(new BigDecimal("100000.00"));
+    }
+
+    @Test
+    void testRejectsOutOfRangeParameters() {
+        // When & Then
+        assertThatThrownBy(() -> valueAtRiskService.getValueAtRisk(AS_OF, 0, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> valueAtRiskService.getValueAtRisk(AS_OF, null, List.of(0), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        // too many horizons, and a budget of 1,000,000 x (250 + 200) path-days
+        assertThatThrownBy(() -> valueAtRiskService.getValueAtRisk(AS_OF, null, List.of(1, 2, 3, 4, 5, 6), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> valueAtRiskService.getValueAtRisk(AS_OF, 1_000_000, List.of(250, 200), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(riskAnalyticsService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRepeatedHorizonsAreSimulatedOnce() {
+        // Given
+        when(riskAnalyticsService.buildReturnMatrix(AS_OF)).thenReturn(matrix(false));
+
+        // When
+        Map<String, Object> report = valueAtRiskService.getValueAtRisk(AS_OF, 5000, List.of(1, 1, 1, 1, 1, 1, 10), 3L);
+
+        // Then
+        assertThat((List<Map<String, Object>>) report.get("horizons")).extracting(h -> h.get("horizonDays"))
+                .containsExactly(1, 10);
+    }
+
+    private static RiskAnalyticsService.ReturnMatrix matrix(boolean withBenchmark) {
+        SplittableRandom random = new SplittableRandom(1);
+        int rows = withBenchmark ? 3 : 2;
+        double[][] returns = new double[rows][250];
+        for (int t = 0; t < 250; t++) {
+            double market = random.nextGaussian() * 0.01;
+            for (int i = 0; i < rows; i++) {
+                returns[i][t] = market + random.nextGaussian() * 0.005;
+            }
+        }
+        double[] weights = withBenchmark ? new double[]{0.5, 0.5, 0} : new double[]{0.5, 0.5};
+        List<String> symbols = withBenchmark ? List.of("A", "B", "^GSPC") : List.of("A", "B");
+        List<String> assetTypes = withBenchmark ? List.of("STOCK", "STOCK", "STOCK") : List.of("STOCK", "STOCK");
+        return new RiskAnalyticsService.ReturnMatrix(symbols, assetTypes, returns, weights, 100_000, withBenchmark ? 2 : -1,
+                withBenchmark, List.of(), AS_OF.minusYears(1));
+    }
+}
@@ -3,19 +3,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.reactive.function.client.WebClient;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import static org.assertj.core.api.Assertions.assertThat;
 @ExtendWith(MockitoExtension.class)
 class YahooFinanceServiceTest {
     private YahooFinanceService yahooFinanceService;
     @BeforeEach
     void setUp() {
-        yahooFinanceService = new YahooFinanceService();
+        yahooFinanceService = new YahooFinanceService(WebClient.builder().build());
     }
     @Test
     void testServiceInitialization() {
-        YahooFinanceService service = new YahooFinanceService();
+        YahooFinanceService service = new YahooFinanceService(WebClient.builder().build());
         assertThat(service).isNotNull();
     }
     @Test
@@ -40,4 +42,22 @@ class YahooFinanceServiceTest {
         assertThat(data.getPrice()).isEqualByComparingTo(price);
         assertThat(data.getDate()).isEqualTo(date);
     }
+    @Test
+    void testGetQuotesWithNoSymbols() {
+        Map<String, YahooFinanceService.Quote> quotes = yahooFinanceService.getQuotes(List.of());
+        assertThat(quotes).isEmpty();
+    }
+    @Test
+    void testParseQuotes() throws Exception {
+        String response = "{\"quoteResponse\":{\"result\":["
+                + "{\"symbol\":\"AAPL\",\"regularMarketPrice\":190.5,\"regularMarketPreviousClose\":188.0,\"currency\":\"USD\"},"
+                + "{\"symbol\":\"MSFT\",\"regularMarketPrice\":410.25,\"currency\":\"USD\"},"
+                + "{\"symbol\":\"NOPRICE\"}"
+                + "]}}";
+        Map<String, YahooFinanceService.Quote> quotes = yahooFinanceService.parseQuotes(response);
+        assertThat(quotes).containsOnlyKeys("AAPL", "MSFT");
+        assertThat(quotes.get("AAPL").getPrice()).isEqualByComparingTo("190.5");
+        assertThat(quotes.get("AAPL").getPreviousClose()).isEqualByComparingTo("188.0");
+        assertThat(quotes.get("MSFT").getPreviousClose()).isNull();
+    }
 }